@@ -0,0 +1,70 @@
+package com.blaze.elmis.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.function.LongSupplier;
+
+/**
+ * Per-filter row counts that are never computed on the request thread.
+ * A miss or a stale entry schedules a background count and the caller
+ * gets whatever is known right now (possibly nothing).
+ */
+@Slf4j
+@Component
+public class ApproximateCountCache {
+
+    private final Cache<BookQueryKey, CountEntry> counts;
+    private final Set<BookQueryKey> inFlight = ConcurrentHashMap.newKeySet();
+    private final long refreshAfterMillis;
+
+    public ApproximateCountCache(@Value("${elmis.cache.book-counts.max-size:1000}") long maxSize,
+                                 @Value("${elmis.cache.book-counts.refresh-after:5m}") Duration refreshAfter,
+                                 @Value("${elmis.cache.book-counts.expire-after:1h}") Duration expireAfter) {
+        this.counts = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfter)
+                .build();
+        this.refreshAfterMillis = refreshAfter.toMillis();
+    }
+
+    public Long get(BookQueryKey filter, LongSupplier counter) {
+        CountEntry entry = counts.getIfPresent(filter);
+        if (entry == null || System.currentTimeMillis() - entry.computedAt > refreshAfterMillis) {
+            refreshAsync(filter, counter);
+        }
+        return entry != null ? entry.count : null;
+    }
+
+    private void refreshAsync(BookQueryKey filter, LongSupplier counter) {
+        if (!inFlight.add(filter)) {
+            return;
+        }
+        CompletableFuture.runAsync(() -> {
+            try {
+                counts.put(filter, new CountEntry(counter.getAsLong(), System.currentTimeMillis()));
+            } catch (RuntimeException e) {
+                log.warn("Background count failed for {}", filter, e);
+            } finally {
+                inFlight.remove(filter);
+            }
+        });
+    }
+
+    private static final class CountEntry {
+        private final long count;
+        private final long computedAt;
+
+        CountEntry(long count, long computedAt) {
+            this.count = count;
+            this.computedAt = computedAt;
+        }
+    }
+}
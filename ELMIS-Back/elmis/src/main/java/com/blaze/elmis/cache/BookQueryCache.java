@@ -0,0 +1,170 @@
+package com.blaze.elmis.cache;
+
+import com.blaze.elmis.dto.BookDto;
+import com.blaze.elmis.search.BookDocument;
+import com.blaze.elmis.search.CatalogIndex;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.Ordered;
+import org.springframework.core.annotation.Order;
+import org.springframework.data.domain.Page;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.Supplier;
+
+/**
+ * Bounded cache of catalog search result pages. A change to a book only
+ * evicts the entries whose category/subcategory filter could contain it,
+ * before or after the change. A change to its counts alone (stock, ratings),
+ * which no filter looks at, only evicts the pages showing the book and the
+ * pages ordered by a changed count. Registered as the last {@link CatalogIndex}
+ * so eviction happens after every other index has caught up.
+ * Hit/miss counts are published as the {@code cache.*} metrics with {@code cache=bookQueries}.
+ */
+@Component
+@Order(Ordered.LOWEST_PRECEDENCE)
+public class BookQueryCache implements CatalogIndex {
+
+    private final Cache<BookQueryKey, Page<BookDto>> cache;
+
+    // Bumped on every eviction; a result computed across an eviction is not stored
+    private final AtomicLong epoch = new AtomicLong();
+
+    public BookQueryCache(MeterRegistry meterRegistry,
+                          @Value("${elmis.cache.book-queries.max-size:500}") long maxSize,
+                          @Value("${elmis.cache.book-queries.ttl:10m}") Duration ttl) {
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(ttl)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "bookQueries");
+    }
+
+    public Page<BookDto> get(BookQueryKey key, Supplier<Page<BookDto>> loader) {
+        Page<BookDto> cached = cache.getIfPresent(key);
+        if (cached != null) {
+            return cached;
+        }
+        long startEpoch = epoch.get();
+        Page<BookDto> result = loader.get();
+        if (epoch.get() == startEpoch) {
+            cache.put(key, result);
+        }
+        return result;
+    }
+
+    public void invalidateAll() {
+        epoch.incrementAndGet();
+        cache.invalidateAll();
+    }
+
+    @Override
+    public void rebuild(Collection<BookDocument> documents) {
+        invalidateAll();
+    }
+
+    @Override
+    public void put(BookDocument previous, BookDocument current) {
+        if (previous != null && sameListing(previous, current)) {
+            invalidateCounts(current, changedCounts(previous, current));
+            return;
+        }
+        Set<Long> categories = new HashSet<>();
+        Set<Long> subcategories = new HashSet<>();
+        collect(previous, categories, subcategories);
+        collect(current, categories, subcategories);
+        invalidate(categories, subcategories);
+    }
+
+    @Override
+    public void remove(BookDocument previous) {
+        Set<Long> categories = new HashSet<>();
+        Set<Long> subcategories = new HashSet<>();
+        collect(previous, categories, subcategories);
+        invalidate(categories, subcategories);
+    }
+
+    private void invalidate(Set<Long> categories, Set<Long> subcategories) {
+        epoch.incrementAndGet();
+        cache.asMap().keySet().removeIf(key ->
+                (key.getCategoryId() == null || categories.contains(key.getCategoryId()))
+                        && (key.getSubcategoryId() == null || subcategories.contains(key.getSubcategoryId())));
+    }
+
+    private void invalidateCounts(BookDocument document, Set<String> changed) {
+        if (changed.isEmpty()) {
+            return;
+        }
+        epoch.incrementAndGet();
+        cache.asMap().entrySet().removeIf(entry -> {
+            BookQueryKey key = entry.getKey();
+            if ((key.getCategoryId() != null && !key.getCategoryId().equals(document.getCategoryId()))
+                    || (key.getSubcategoryId() != null && !key.getSubcategoryId().equals(document.getSubcategoryId()))) {
+                return false;
+            }
+            return sortsOn(key, changed) || entry.getValue().getContent().stream()
+                    .anyMatch(book -> document.getId().equals(book.getId()));
+        });
+    }
+
+    // Relevance breaks ties by rating and popularity, so it depends on those counts too
+    private static Set<String> changedCounts(BookDocument previous, BookDocument current) {
+        Set<String> changed = new HashSet<>();
+        if (previous.getQuantity() != current.getQuantity()) {
+            changed.add("quantity");
+        }
+        if (previous.getAvailableQuantity() != current.getAvailableQuantity()) {
+            changed.add("availableQuantity");
+        }
+        if (Double.compare(previous.getAvgRating(), current.getAvgRating()) != 0) {
+            changed.add("avgRating");
+            changed.add("relevance");
+        }
+        if (previous.getTotalReviews() != current.getTotalReviews()) {
+            changed.add("totalReviews");
+            changed.add("relevance");
+        }
+        return changed;
+    }
+
+    // The key holds Sort.toString(): "property: DIRECTION" orders, comma separated
+    private static boolean sortsOn(BookQueryKey key, Set<String> properties) {
+        for (String order : key.getSort().split(",")) {
+            int colon = order.indexOf(':');
+            if (colon > 0 && properties.contains(order.substring(0, colon).trim())) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    // Everything a filter can match on or a listing shows besides the counts
+    private static boolean sameListing(BookDocument a, BookDocument b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getAuthor(), b.getAuthor())
+                && Objects.equals(a.getPublisher(), b.getPublisher())
+                && Objects.equals(a.getIsbn(), b.getIsbn())
+                && Objects.equals(a.getPublicationYear(), b.getPublicationYear())
+                && Objects.equals(a.getCategoryId(), b.getCategoryId())
+                && Objects.equals(a.getCategoryName(), b.getCategoryName())
+                && Objects.equals(a.getSubcategoryId(), b.getSubcategoryId())
+                && Objects.equals(a.getSubcategoryName(), b.getSubcategoryName());
+    }
+
+    private static void collect(BookDocument document, Set<Long> categories, Set<Long> subcategories) {
+        if (document != null) {
+            categories.add(document.getCategoryId());
+            subcategories.add(document.getSubcategoryId());
+        }
+    }
+}
@@ -0,0 +1,45 @@
+package com.blaze.elmis.cache;
+
+import lombok.Value;
+import org.springframework.data.domain.Pageable;
+
+import java.util.Locale;
+
+/**
+ * Normalized catalog search request, so that equivalent queries
+ * ("Java " vs "java") share one cache entry.
+ */
+@Value
+public class BookQueryKey {
+    String q;
+    String title;
+    String author;
+    String isbn;
+    Long categoryId;
+    Long subcategoryId;
+    boolean fuzzy;
+    int page;
+    int size;
+    String sort;
+
+    public static BookQueryKey of(Pageable pageable, String q, String title, String author, String isbn,
+                                  Long categoryId, Long subcategoryId, boolean fuzzy) {
+        return new BookQueryKey(normalize(q), normalize(title), normalize(author), normalize(isbn),
+                categoryId, subcategoryId, fuzzy,
+                pageable.getPageNumber(), pageable.getPageSize(), pageable.getSort().toString());
+    }
+
+    /** The filter part only, for caches that do not depend on paging. */
+    public static BookQueryKey filterOf(String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        return new BookQueryKey(normalize(q), normalize(title), normalize(author), normalize(isbn),
+                categoryId, subcategoryId, false, 0, 0, "");
+    }
+
+    private static String normalize(String value) {
+        if (value == null) {
+            return null;
+        }
+        String trimmed = value.trim().toLowerCase(Locale.ROOT);
+        return trimmed.isEmpty() ? null : trimmed;
+    }
+}
@@ -1,16 +1,25 @@
 package com.blaze.elmis.controller;
 
 import com.blaze.elmis.dto.BookDto;
+import com.blaze.elmis.dto.BookFacetsDto;
+import com.blaze.elmis.dto.BookSuggestionDto;
+import com.blaze.elmis.dto.CursorPage;
+import com.blaze.elmis.dto.SlicePage;
 import com.blaze.elmis.service.BookService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
+import org.springframework.util.StringUtils;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.util.List;
+
 @RestController
 @RequestMapping("/api/books")
 @RequiredArgsConstructor
@@ -21,12 +30,71 @@ public class BookController {
     @GetMapping
     public Page<BookDto> getAllBooks(
             Pageable pageable,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String isbn,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long subcategoryId,
+            @RequestParam(defaultValue = "false") boolean fuzzy) {
+        if (fuzzy && StringUtils.hasText(q)) {
+            return bookService.searchBooksFuzzy(pageable, q, categoryId, subcategoryId);
+        }
+        if (pageable.getSort().getOrderFor("relevance") != null) {
+            String text = StringUtils.hasText(q) ? q : String.join(" ",
+                    StringUtils.hasText(title) ? title : "", StringUtils.hasText(author) ? author : "").trim();
+            if (!text.isEmpty()) {
+                return bookService.searchBooksByRelevance(pageable, text, categoryId, subcategoryId);
+            }
+            pageable = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize()); // nothing to rank against
+        }
+        return bookService.getAllBooks(pageable, q, title, author, isbn, categoryId, subcategoryId);
+    }
+
+    @GetMapping("/slice")
+    public SlicePage<BookDto> getBookSlice(
+            Pageable pageable,
+            @RequestParam(required = false) String q,
             @RequestParam(required = false) String title,
             @RequestParam(required = false) String author,
             @RequestParam(required = false) String isbn,
             @RequestParam(required = false) Long categoryId,
             @RequestParam(required = false) Long subcategoryId) {
-        return bookService.getAllBooks(pageable, title, author, isbn, categoryId, subcategoryId);
+        return bookService.getBookSlice(pageable, q, title, author, isbn, categoryId, subcategoryId);
+    }
+
+    @GetMapping("/scroll")
+    public CursorPage<BookDto> scrollBooks(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String isbn,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long subcategoryId) {
+        return bookService.scrollBooks(cursor, size, sort, direction, q, title, author, isbn, categoryId, subcategoryId);
+    }
+
+    @GetMapping("/facets")
+    public BookFacetsDto getFacets(
+            @RequestParam(required = false) String q,
+            @RequestParam(required = false) String title,
+            @RequestParam(required = false) String author,
+            @RequestParam(required = false) String isbn,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long subcategoryId,
+            @RequestParam(required = false) Boolean available) {
+        return bookService.getFacets(q, title, author, isbn, categoryId, subcategoryId, available);
+    }
+
+    @GetMapping("/suggest")
+    public List<BookSuggestionDto> suggest(
+            @RequestParam String prefix,
+            @RequestParam(defaultValue = "10") int limit) {
+        return bookService.suggest(prefix, limit);
     }
 
     @GetMapping("/{id}")
@@ -1,10 +1,13 @@
 package com.blaze.elmis.controller;
 
 import com.blaze.elmis.dto.BookReviewDto;
+import com.blaze.elmis.dto.CursorPage;
 import com.blaze.elmis.service.BookReviewService;
+import com.blaze.elmis.service.IdempotencyService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -14,20 +17,33 @@ import org.springframework.web.bind.annotation.*;
 public class BookReviewController {
 
     private final BookReviewService bookReviewService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public Page<BookReviewDto> getAllBookReviews(Pageable pageable) {
         return bookReviewService.getAllBookReviews(pageable);
     }
 
+    @GetMapping("/scroll")
+    public CursorPage<BookReviewDto> scrollBookReviews(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction,
+            @RequestParam(required = false) Long bookId) {
+        return bookReviewService.scrollBookReviews(cursor, size, sort, direction, bookId);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<BookReviewDto> getBookReviewById(@PathVariable Long id) {
         return ResponseEntity.ok(bookReviewService.getBookReviewById(id));
     }
 
     @PostMapping
-    public ResponseEntity<BookReviewDto> createBookReview(@RequestBody BookReviewDto bookReviewDto) {
-        return ResponseEntity.ok(bookReviewService.createBookReview(bookReviewDto));
+    public ResponseEntity<BookReviewDto> createBookReview(@RequestBody BookReviewDto bookReviewDto,
+                                                          @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("review", idempotencyKey, bookReviewDto, BookReviewDto.class,
+                () -> bookReviewService.createBookReview(bookReviewDto)));
     }
 
     @PutMapping("/{id}")
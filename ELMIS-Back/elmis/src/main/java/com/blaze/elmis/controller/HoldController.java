@@ -0,0 +1,32 @@
+package com.blaze.elmis.controller;
+
+import com.blaze.elmis.dto.HoldDto;
+import com.blaze.elmis.service.HoldService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+@RestController
+@RequestMapping("/api/holds")
+@RequiredArgsConstructor
+public class HoldController {
+
+    private final HoldService holdService;
+
+    @PostMapping
+    public ResponseEntity<HoldDto> placeHold(@RequestBody HoldDto holdDto) {
+        return ResponseEntity.ok(holdService.placeHold(holdDto));
+    }
+
+    // Served from memory for live holds; meant to be polled instead of retrying checkout
+    @GetMapping("/{id}")
+    public ResponseEntity<HoldDto> getHold(@PathVariable Long id) {
+        return ResponseEntity.ok(holdService.getHold(id));
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> cancelHold(@PathVariable Long id) {
+        holdService.cancelHold(id);
+        return ResponseEntity.noContent().build();
+    }
+}
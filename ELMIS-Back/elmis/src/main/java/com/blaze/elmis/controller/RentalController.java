@@ -1,33 +1,73 @@
 package com.blaze.elmis.controller;
 
+import com.blaze.elmis.dto.BatchRentalRequest;
+import com.blaze.elmis.dto.BatchReturnRequest;
+import com.blaze.elmis.dto.CursorPage;
+import com.blaze.elmis.dto.OverdueSweepReportDto;
+import com.blaze.elmis.dto.RentalBatchItemDto;
 import com.blaze.elmis.dto.RentalDto;
+import com.blaze.elmis.service.IdempotencyService;
+import com.blaze.elmis.service.OverdueSweepService;
 import com.blaze.elmis.service.RentalService;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+
 @RestController
 @RequestMapping("/api/rentals")
 @RequiredArgsConstructor
 public class RentalController {
 
     private final RentalService rentalService;
+    private final OverdueSweepService overdueSweepService;
+    private final IdempotencyService idempotencyService;
 
     @GetMapping
     public Page<RentalDto> getAllRentals(Pageable pageable) {
         return rentalService.getAllRentals(pageable);
     }
 
+    @GetMapping("/scroll")
+    public CursorPage<RentalDto> scrollRentals(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") int size,
+            @RequestParam(defaultValue = "id") String sort,
+            @RequestParam(defaultValue = "ASC") Sort.Direction direction) {
+        return rentalService.scrollRentals(cursor, size, sort, direction);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<RentalDto> getRentalById(@PathVariable Long id) {
         return ResponseEntity.ok(rentalService.getRentalById(id));
     }
 
     @PostMapping
-    public ResponseEntity<RentalDto> createRental(@RequestBody RentalDto rentalDto) {
-        return ResponseEntity.ok(rentalService.createRental(rentalDto));
+    public ResponseEntity<RentalDto> createRental(@RequestBody RentalDto rentalDto,
+                                                  @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey) {
+        return ResponseEntity.ok(idempotencyService.execute("rental", idempotencyKey, rentalDto, RentalDto.class,
+                () -> rentalService.createRental(rentalDto)));
+    }
+
+    @PostMapping("/batch")
+    public ResponseEntity<List<RentalBatchItemDto>> createRentals(@RequestBody BatchRentalRequest request) {
+        return ResponseEntity.ok(rentalService.createRentals(request));
+    }
+
+    @PutMapping("/return/batch")
+    public ResponseEntity<List<RentalBatchItemDto>> returnRentals(@RequestBody BatchReturnRequest request) {
+        return ResponseEntity.ok(rentalService.returnRentals(request));
+    }
+
+    @PostMapping("/due-dates/recompute")
+    public ResponseEntity<Map<String, Integer>> recomputeDueDates() {
+        return ResponseEntity.ok(Collections.singletonMap("updated", rentalService.recomputeDueDates()));
     }
 
     @PutMapping("/return/{id}")
@@ -35,12 +75,28 @@ public class RentalController {
         return ResponseEntity.ok(rentalService.returnRental(id));
     }
 
+    @PutMapping("/renew/{id}")
+    public ResponseEntity<RentalDto> renewRental(@PathVariable Long id) {
+        return ResponseEntity.ok(rentalService.renewRental(id));
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteRental(@PathVariable Long id) {
         rentalService.deleteRental(id);
         return ResponseEntity.noContent().build();
     }
 
+    @PostMapping("/overdue/sweep")
+    public ResponseEntity<OverdueSweepReportDto> sweepOverdueRentals() {
+        return ResponseEntity.ok(overdueSweepService.sweep());
+    }
+
+    @GetMapping("/overdue/sweep")
+    public ResponseEntity<OverdueSweepReportDto> getLastOverdueSweep() {
+        OverdueSweepReportDto report = overdueSweepService.getLastReport();
+        return report != null ? ResponseEntity.ok(report) : ResponseEntity.noContent().build();
+    }
+
     @PutMapping("/overdue/{id}")
     public ResponseEntity<RentalDto> markRentalAsOverdue(@PathVariable Long id) {
         return ResponseEntity.ok(rentalService.markAsOverdue(id));
@@ -1,15 +1,28 @@
 package com.blaze.elmis.controller;
 
-import com.blaze.elmis.model.Book;
+import com.blaze.elmis.dto.PopularBookDto;
+import com.blaze.elmis.dto.ProjectionStatusDto;
+import com.blaze.elmis.dto.TimeSeriesPointDto;
+import com.blaze.elmis.model.BookRentalProjection;
+import com.blaze.elmis.model.DailyRentalVolume;
 import com.blaze.elmis.model.Rental;
+import com.blaze.elmis.model.UserRentalProjection;
+import com.blaze.elmis.projection.RentalProjectionRunner;
+import com.blaze.elmis.service.RentalRollupService;
 import com.blaze.elmis.service.ReportService;
 import jakarta.servlet.http.HttpServletResponse;
 import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
 
 import java.io.IOException;
+import java.time.LocalDate;
+import java.util.Collections;
 import java.util.List;
 import java.util.Map;
 
@@ -19,10 +32,15 @@ import java.util.Map;
 public class ReportController {
 
     private final ReportService reportService;
+    private final RentalProjectionRunner rentalProjectionRunner;
+    private final RentalRollupService rentalRollupService;
 
     @GetMapping("/popular-books")
-    public List<Book> getMostPopularBooks() {
-        return reportService.getMostPopularBooks();
+    public List<PopularBookDto> getMostPopularBooks(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(defaultValue = "10") int limit) {
+        return reportService.getMostPopularBooks(from, to, limit);
     }
 
     @GetMapping("/active-rentals")
@@ -35,6 +53,11 @@ public class ReportController {
         return reportService.getRentalSummary();
     }
 
+    @GetMapping("/rental-summary/categories")
+    public Map<Long, Long> getActiveRentalsByCategory() {
+        return reportService.getActiveRentalsByCategory();
+    }
+
     @GetMapping("/returned-rentals")
     public List<Rental> getReturnedRentals() {
         return reportService.getReturnedRentals();
@@ -45,6 +68,16 @@ public class ReportController {
         return reportService.getOverdueRentals();
     }
 
+    @GetMapping("/export/rentals/csv")
+    public void exportRentalsToCsv(HttpServletResponse response) throws IOException {
+        reportService.exportRentalReportToCsv(response);
+    }
+
+    @GetMapping("/export/rentals/pdf")
+    public void exportRentalsToPdf(HttpServletResponse response) throws IOException {
+        reportService.exportRentalReportToPdf(response);
+    }
+
     @GetMapping("/export/overdue-rentals/csv")
     public void exportOverdueRentalsToCsv(HttpServletResponse response) throws IOException {
         reportService.exportOverdueRentalsToCsv(response);
@@ -54,4 +87,55 @@ public class ReportController {
     public void exportOverdueRentalsToPdf(HttpServletResponse response) throws IOException {
         reportService.exportOverdueRentalsToPdf(response);
     }
+
+    @GetMapping("/rentals/users")
+    public List<UserRentalProjection> getTopActiveUsers(@RequestParam(defaultValue = "20") int limit) {
+        return reportService.getTopActiveUsers(limit);
+    }
+
+    @GetMapping("/rentals/users/{userId}")
+    public UserRentalProjection getUserRentalStats(@PathVariable Long userId) {
+        return reportService.getUserRentalStats(userId);
+    }
+
+    @GetMapping("/rentals/books")
+    public List<BookRentalProjection> getBookRentalStats(@RequestParam(defaultValue = "20") int limit) {
+        return reportService.getBookRentalStats(limit);
+    }
+
+    @GetMapping("/rentals/daily")
+    public List<DailyRentalVolume> getDailyRentalVolume(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return reportService.getDailyRentalVolume(from != null ? from : end.minusDays(29), end);
+    }
+
+    @GetMapping("/projections")
+    public List<ProjectionStatusDto> getProjectionStatus() {
+        return rentalProjectionRunner.getStatus();
+    }
+
+    @PostMapping("/projections/{name}/rebuild")
+    public ProjectionStatusDto rebuildProjection(@PathVariable String name) {
+        return rentalProjectionRunner.rebuild(name);
+    }
+
+    @GetMapping("/timeseries")
+    public List<TimeSeriesPointDto> getTimeSeries(
+            @RequestParam(defaultValue = "DAY") String granularity,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) Long categoryId,
+            @RequestParam(required = false) Long subcategoryId,
+            @RequestParam(defaultValue = "NONE") String groupBy) {
+        LocalDate end = to != null ? to : LocalDate.now();
+        return rentalRollupService.getTimeSeries(granularity, from != null ? from : end.minusDays(29), end,
+                categoryId, subcategoryId, groupBy);
+    }
+
+    @PostMapping("/timeseries/refresh")
+    public Map<String, Integer> refreshTimeSeries() {
+        return Collections.singletonMap("rentalsConsumed", rentalRollupService.refresh());
+    }
 }
@@ -0,0 +1,52 @@
+package com.blaze.elmis.controller;
+
+import com.blaze.elmis.dto.ReportJobDto;
+import com.blaze.elmis.dto.ReportJobRequest;
+import com.blaze.elmis.service.ReportJobService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/api/reports/jobs")
+@RequiredArgsConstructor
+public class ReportJobController {
+
+    private final ReportJobService reportJobService;
+
+    @PostMapping
+    public ResponseEntity<ReportJobDto> submit(@RequestBody ReportJobRequest request) {
+        return ResponseEntity.status(HttpStatus.ACCEPTED).body(reportJobService.submit(request));
+    }
+
+    @GetMapping
+    public List<ReportJobDto> getJobs() {
+        return reportJobService.getJobs();
+    }
+
+    @GetMapping("/{id}")
+    public ReportJobDto getJob(@PathVariable String id) {
+        return reportJobService.getJob(id);
+    }
+
+    @GetMapping("/{id}/download")
+    public ResponseEntity<Resource> download(@PathVariable String id) {
+        return reportJobService.download(id);
+    }
+
+    @DeleteMapping("/{id}")
+    public ResponseEntity<Void> delete(@PathVariable String id) {
+        reportJobService.delete(id);
+        return ResponseEntity.noContent().build();
+    }
+}
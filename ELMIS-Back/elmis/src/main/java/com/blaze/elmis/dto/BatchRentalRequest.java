@@ -0,0 +1,18 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/** A circulation-desk cart: one patron, several books. A book id may repeat to take several copies. */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class BatchRentalRequest {
+    private Long userId;
+    private List<Long> bookIds;
+}
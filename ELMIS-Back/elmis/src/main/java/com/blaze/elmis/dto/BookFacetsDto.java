@@ -0,0 +1,21 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookFacetsDto {
+    private long total;
+    private List<FacetValueDto> categories;
+    private List<FacetValueDto> subcategories;
+    private List<FacetValueDto> publishers;
+    private List<FacetValueDto> publicationYears;
+    private List<FacetValueDto> availability;
+}
@@ -0,0 +1,16 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class BookSuggestionDto {
+    private String text;
+    private String type; // TITLE, AUTHOR or PUBLISHER
+    private long weight;
+}
@@ -0,0 +1,23 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * One window of a keyset-paginated listing. There is deliberately no total
+ * count; clients keep passing {@code nextCursor} back until {@code hasNext} is false.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class CursorPage<T> {
+    private List<T> content;
+    private int size;
+    private boolean hasNext;
+    private String nextCursor;
+}
@@ -0,0 +1,16 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class FacetValueDto {
+    private String key;   // value to pass back as a filter, e.g. a category id
+    private String label;
+    private long count;
+}
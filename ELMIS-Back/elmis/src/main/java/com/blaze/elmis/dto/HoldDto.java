@@ -0,0 +1,25 @@
+package com.blaze.elmis.dto;
+
+import com.blaze.elmis.model.HoldStatus;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class HoldDto {
+    private Long id;
+    private Long bookId;
+    private Long userId;
+    private HoldStatus status;
+    /** Number of WAITING holds ahead of this one; only set while waiting. */
+    private Integer position;
+    private LocalDateTime createdAt;
+    private LocalDateTime readyAt;
+    private LocalDateTime expiresAt;
+}
@@ -0,0 +1,22 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class OverdueSweepReportDto {
+    /** Also the cutoff: rentals due before this instant were swept. */
+    private LocalDateTime startedAt;
+    private int chunks;
+    private long rowsUpdated;
+    private long elapsedMillis;
+    /** Set when the run stopped early; rows updated before the failure stay updated. */
+    private String error;
+}
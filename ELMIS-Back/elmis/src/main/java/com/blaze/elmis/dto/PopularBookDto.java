@@ -0,0 +1,17 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class PopularBookDto {
+    private Long bookId;
+    private String title;
+    private String author;
+    private long rentals;
+}
@@ -0,0 +1,18 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ProjectionStatusDto {
+    private String name;
+    private long lastSeq;
+    /** Events in the log the projector has not applied yet. */
+    private long lag;
+    private LocalDateTime updatedAt;
+}
@@ -0,0 +1,21 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Outcome for one entry of a batch request, in request order. {@code id} echoes
+ * the requested book id (checkout) or rental id (return).
+ */
+@Data
+@Builder
+@AllArgsConstructor
+@NoArgsConstructor
+public class RentalBatchItemDto {
+    private Long id;
+    private boolean success;
+    private String error;
+    private RentalDto rental;
+}
@@ -1,11 +1,15 @@
 package com.blaze.elmis.dto;
 
 import com.blaze.elmis.model.RentalStatus;
+import lombok.AllArgsConstructor;
 import lombok.Data;
+import lombok.NoArgsConstructor;
 
 import java.time.LocalDateTime;
 
 @Data
+@NoArgsConstructor
+@AllArgsConstructor
 public class RentalDto {
     private Long id;
     private Long bookId;
@@ -16,4 +20,5 @@ public class RentalDto {
     private RentalStatus status;
     private LocalDateTime createdAt;
     private LocalDateTime updatedAt;
+    private Integer renewalCount;
 }
@@ -0,0 +1,22 @@
+package com.blaze.elmis.dto;
+
+import com.blaze.elmis.model.RentalStatus;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** One line of a rental export; flat, so exports never materialize entities. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class RentalReportRowDto {
+    private Long id;
+    private String bookTitle;
+    private String username;
+    private RentalStatus status;
+    private LocalDateTime rentalDate;
+    private LocalDateTime dueDate;
+    private LocalDateTime returnDate;
+}
@@ -0,0 +1,30 @@
+package com.blaze.elmis.dto;
+
+import com.blaze.elmis.model.ReportFormat;
+import com.blaze.elmis.model.ReportJobStatus;
+import com.blaze.elmis.model.ReportType;
+import com.blaze.elmis.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobDto {
+    private String id;
+    private ReportType type;
+    private ReportFormat format;
+    private Role role;
+    private ReportJobStatus status;
+    private long rowsWritten;
+    /** Row count taken when the job started; -1 until then. */
+    private long totalRows;
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime finishedAt;
+    private long sizeBytes;
+    private String error;
+}
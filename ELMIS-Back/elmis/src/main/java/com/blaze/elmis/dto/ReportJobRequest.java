@@ -0,0 +1,18 @@
+package com.blaze.elmis.dto;
+
+import com.blaze.elmis.model.ReportFormat;
+import com.blaze.elmis.model.ReportType;
+import com.blaze.elmis.model.Role;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+public class ReportJobRequest {
+    private ReportType type;
+    private ReportFormat format;
+    /** Only for EMPLOYEE_ACTIVITY; OPERATOR when missing. */
+    private Role role;
+}
@@ -0,0 +1,26 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.List;
+
+/**
+ * A page without an exact total. {@code approximateTotal} is filled from
+ * in-memory index statistics or a cached, asynchronously refreshed count,
+ * and is {@code null} while no estimate is available yet.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class SlicePage<T> {
+    private List<T> content;
+    private int page;
+    private int size;
+    private boolean hasNext;
+    private Long approximateTotal;
+    private String totalSource; // "index" or "cache"
+}
@@ -0,0 +1,20 @@
+package com.blaze.elmis.dto;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+public class TimeSeriesPointDto {
+    private LocalDateTime bucketStart;
+    private Long categoryId;    // null unless grouped by category or subcategory
+    private Long subcategoryId; // null unless grouped by subcategory
+    private long checkedOut;
+    private long returned;
+}
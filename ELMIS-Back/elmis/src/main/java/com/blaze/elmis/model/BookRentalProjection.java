@@ -0,0 +1,29 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Read model maintained from the rental event log; see {@code BookRentalsProjector}. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rental_projection_books", indexes = @Index(name = "idx_rental_projection_books_total", columnList = "total_rentals"))
+public class BookRentalProjection {
+
+    @Id
+    private Long bookId;
+
+    @Column(name = "total_rentals", nullable = false)
+    private Long totalRentals;
+
+    @Column(nullable = false)
+    private Long activeRentals;
+
+    @Column(nullable = false)
+    private Long renewals;
+}
@@ -0,0 +1,13 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.Entity;
+import jakarta.persistence.Table;
+import lombok.EqualsAndHashCode;
+import lombok.NoArgsConstructor;
+
+@Entity
+@Table(name = "rental_rollups_daily")
+@NoArgsConstructor
+@EqualsAndHashCode(callSuper = true)
+public class DailyRentalRollup extends RentalRollup {
+}
@@ -0,0 +1,34 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+/** Read model maintained from the rental event log; see {@code DailyVolumeProjector}. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rental_projection_daily")
+public class DailyRentalVolume {
+
+    @Id
+    private LocalDate volumeDate;
+
+    @Column(nullable = false)
+    private Long checkedOut;
+
+    @Column(nullable = false)
+    private Long returned;
+
+    @Column(nullable = false)
+    private Long renewed;
+
+    @Column(nullable = false)
+    private Long overdue;
+}
@@ -0,0 +1,9 @@
+package com.blaze.elmis.model;
+
+public enum HoldStatus {
+    WAITING,
+    READY,
+    FULFILLED,
+    CANCELLED,
+    EXPIRED
+}
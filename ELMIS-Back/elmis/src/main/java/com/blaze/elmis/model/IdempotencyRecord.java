@@ -0,0 +1,42 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * Stored response of a mutation sent with an Idempotency-Key header. Written with
+ * plain JDBC by {@link com.blaze.elmis.repository.IdempotencyRepository}; the entity
+ * only defines the table.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "idempotency_keys", indexes = @Index(name = "idx_idempotency_keys_expires_at", columnList = "expires_at"))
+public class IdempotencyRecord {
+
+    /** Scope and client key, e.g. "rental:5f0c...". */
+    @Id
+    @Column(length = 150)
+    private String id;
+
+    /** SHA-256 of the request body, to reject a key reused for a different request. */
+    @Column(nullable = false, length = 64)
+    private String fingerprint;
+
+    /** Null while the first request is still running. */
+    @Column(columnDefinition = "TEXT")
+    private String response;
+
+    @Column(nullable = false)
+    private LocalDateTime createdAt;
+
+    @Column(name = "expires_at", nullable = false)
+    private LocalDateTime expiresAt;
+}
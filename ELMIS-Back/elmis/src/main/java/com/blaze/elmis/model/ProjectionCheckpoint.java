@@ -0,0 +1,29 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/** Last rental event sequence number a projector has applied. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "projection_checkpoints")
+public class ProjectionCheckpoint {
+
+    @Id
+    @Column(length = 64)
+    private String name;
+
+    @Column(nullable = false)
+    private Long lastSeq;
+
+    @Column(nullable = false)
+    private LocalDateTime updatedAt;
+}
@@ -16,7 +16,12 @@ import java.time.LocalDateTime;
 @NoArgsConstructor
 @AllArgsConstructor
 @Entity
-@Table(name = "rentals")
+@Table(name = "rentals", indexes = {
+        @Index(name = "idx_rentals_status_due_date", columnList = "status, due_date"),
+        @Index(name = "idx_rentals_rental_date_book_id", columnList = "rental_date, book_id"),
+        @Index(name = "idx_rentals_return_date", columnList = "return_date"),
+        @Index(name = "idx_rentals_updated_at", columnList = "updated_at")
+})
 @EntityListeners(AuditingEntityListener.class)
 public class Rental {
 
@@ -32,18 +37,24 @@ public class Rental {
     @JoinColumn(name = "user_id", nullable = false)
     private User user;
 
+    @Column(name = "rental_date")
     private LocalDateTime rentalDate;
+    @Column(name = "due_date")
     private LocalDateTime dueDate;
+    @Column(name = "return_date")
     private LocalDateTime returnDate;
 
     @Enumerated(EnumType.STRING)
     private RentalStatus status;
 
+    @Builder.Default
+    private Integer renewalCount = 0;
+
     @CreatedDate
     @Column(nullable = false, updatable = false)
     private LocalDateTime createdAt;
 
     @LastModifiedDate
-    @Column(nullable = false)
+    @Column(name = "updated_at", nullable = false)
     private LocalDateTime updatedAt;
 }
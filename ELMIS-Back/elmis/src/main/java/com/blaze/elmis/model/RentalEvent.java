@@ -0,0 +1,43 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDateTime;
+
+/**
+ * One entry of the append-only rental event log. Rows are only ever inserted,
+ * in the same transaction as the rental change they describe; {@code seq}
+ * gives the order projectors consume them in.
+ */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rental_events", indexes = @Index(name = "idx_rental_events_rental_id", columnList = "rental_id"))
+public class RentalEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long seq;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false, length = 16)
+    private RentalEventType type;
+
+    @Column(name = "rental_id", nullable = false)
+    private Long rentalId;
+
+    @Column(nullable = false)
+    private Long bookId;
+
+    @Column(nullable = false)
+    private Long userId;
+
+    @Column(nullable = false)
+    private LocalDateTime occurredAt;
+}
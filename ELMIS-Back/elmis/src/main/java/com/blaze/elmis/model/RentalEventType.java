@@ -0,0 +1,10 @@
+package com.blaze.elmis.model;
+
+public enum RentalEventType {
+    CHECKED_OUT,
+    RETURNED,
+    OVERDUE,
+    RENEWED,
+    /** An unreturned rental was deleted; ends it like a return without counting as one. */
+    DELETED
+}
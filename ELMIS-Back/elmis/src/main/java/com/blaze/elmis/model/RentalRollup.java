@@ -0,0 +1,26 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.EmbeddedId;
+import jakarta.persistence.MappedSuperclass;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/**
+ * Checkouts and returns per time bucket and category. The hourly, daily and
+ * monthly tables share this layout; they are written by {@code RentalRollupService}.
+ */
+@Data
+@NoArgsConstructor
+@MappedSuperclass
+public abstract class RentalRollup {
+
+    @EmbeddedId
+    private RentalRollupKey id;
+
+    @Column(nullable = false)
+    private Long checkedOut;
+
+    @Column(nullable = false)
+    private Long returned;
+}
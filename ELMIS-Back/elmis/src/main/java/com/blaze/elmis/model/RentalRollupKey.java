@@ -0,0 +1,27 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Embeddable;
+import lombok.AllArgsConstructor;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.io.Serializable;
+import java.time.LocalDateTime;
+
+/** Bucket start plus category and subcategory ids, 0 when the book has none. */
+@Data
+@NoArgsConstructor
+@AllArgsConstructor
+@Embeddable
+public class RentalRollupKey implements Serializable {
+
+    @Column(nullable = false)
+    private LocalDateTime bucketStart;
+
+    @Column(nullable = false)
+    private Long categoryId;
+
+    @Column(nullable = false)
+    private Long subcategoryId;
+}
@@ -0,0 +1,8 @@
+package com.blaze.elmis.model;
+
+public enum ReportJobStatus {
+    QUEUED,
+    RUNNING,
+    DONE,
+    FAILED
+}
@@ -0,0 +1,18 @@
+package com.blaze.elmis.model;
+
+public enum ReportType {
+    RENTALS("Rental Report"),
+    OVERDUE_RENTALS("Overdue Rental Report"),
+    /** Rentals of users with a given role; the job's role parameter, OPERATOR by default. */
+    EMPLOYEE_ACTIVITY("Employee Rental Activity");
+
+    private final String title;
+
+    ReportType(String title) {
+        this.title = title;
+    }
+
+    public String getTitle() {
+        return title;
+    }
+}
@@ -0,0 +1,26 @@
+package com.blaze.elmis.model;
+
+import jakarta.persistence.*;
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+/** Read model maintained from the rental event log; see {@code UserRentalsProjector}. */
+@Data
+@Builder
+@NoArgsConstructor
+@AllArgsConstructor
+@Entity
+@Table(name = "rental_projection_users", indexes = @Index(name = "idx_rental_projection_users_active", columnList = "active_rentals"))
+public class UserRentalProjection {
+
+    @Id
+    private Long userId;
+
+    @Column(name = "active_rentals", nullable = false)
+    private Long activeRentals;
+
+    @Column(nullable = false)
+    private Long totalRentals;
+}
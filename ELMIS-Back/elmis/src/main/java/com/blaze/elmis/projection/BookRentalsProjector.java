@@ -0,0 +1,43 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/** Lifetime rentals, copies currently out and renewals per book. */
+@Component
+public class BookRentalsProjector extends CountingProjector {
+
+    public BookRentalsProjector(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate, "rental_projection_books", "book_id", "total_rentals", "active_rentals", "renewals");
+    }
+
+    @Override
+    public String name() {
+        return "book-rentals";
+    }
+
+    @Override
+    protected Object key(RentalEvent event) {
+        return event.getBookId();
+    }
+
+    @Override
+    protected void count(RentalEvent event, long[] deltas) {
+        switch (event.getType()) {
+            case CHECKED_OUT:
+                deltas[0]++;
+                deltas[1]++;
+                break;
+            case RETURNED:
+            case DELETED:
+                deltas[1]--;
+                break;
+            case RENEWED:
+                deltas[2]++;
+                break;
+            default:
+                break;
+        }
+    }
+}
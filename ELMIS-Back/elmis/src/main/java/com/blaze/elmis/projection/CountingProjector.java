@@ -0,0 +1,73 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Base for projections that are counters keyed by one column: a batch of
+ * events is folded into one delta row per key and written as a single
+ * batched upsert.
+ */
+abstract class CountingProjector implements RentalProjector {
+
+    private final JdbcTemplate jdbcTemplate;
+    private final String table;
+    private final int width;
+    private final String upsertSql;
+
+    protected CountingProjector(JdbcTemplate jdbcTemplate, String table, String keyColumn, String... counterColumns) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.table = table;
+        this.width = counterColumns.length;
+        StringBuilder sql = new StringBuilder("INSERT INTO ").append(table).append(" (").append(keyColumn);
+        StringBuilder values = new StringBuilder("?");
+        StringBuilder updates = new StringBuilder();
+        for (String column : counterColumns) {
+            sql.append(", ").append(column);
+            values.append(", ?");
+            updates.append(updates.length() == 0 ? "" : ", ").append(column).append(" = ").append(column)
+                    .append(" + VALUES(").append(column).append(')');
+        }
+        this.upsertSql = sql.append(") VALUES (").append(values).append(") ON DUPLICATE KEY UPDATE ").append(updates).toString();
+    }
+
+    /** Row the event belongs to, as a JDBC parameter value. */
+    protected abstract Object key(RentalEvent event);
+
+    /** Adds the event's effect to {@code deltas}, indexed like the counter columns. */
+    protected abstract void count(RentalEvent event, long[] deltas);
+
+    @Override
+    public void apply(List<RentalEvent> events) {
+        Map<Object, long[]> deltas = new LinkedHashMap<>();
+        for (RentalEvent event : events) {
+            count(event, deltas.computeIfAbsent(key(event), key -> new long[width]));
+        }
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((key, delta) -> {
+            boolean changed = false;
+            Object[] row = new Object[width + 1];
+            row[0] = key;
+            for (int i = 0; i < width; i++) {
+                row[i + 1] = delta[i];
+                changed |= delta[i] != 0;
+            }
+            if (changed) {
+                args.add(row);
+            }
+        });
+        if (!args.isEmpty()) {
+            jdbcTemplate.batchUpdate(upsertSql, args);
+        }
+    }
+
+    @Override
+    public void reset() {
+        jdbcTemplate.update("DELETE FROM " + table);
+    }
+}
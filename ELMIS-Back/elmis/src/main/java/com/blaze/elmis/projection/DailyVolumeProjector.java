@@ -0,0 +1,46 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.Date;
+
+/** Checkouts, returns, renewals and overdue transitions per calendar day. */
+@Component
+public class DailyVolumeProjector extends CountingProjector {
+
+    public DailyVolumeProjector(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate, "rental_projection_daily", "volume_date", "checked_out", "returned", "renewed", "overdue");
+    }
+
+    @Override
+    public String name() {
+        return "daily-volume";
+    }
+
+    @Override
+    protected Object key(RentalEvent event) {
+        return Date.valueOf(event.getOccurredAt().toLocalDate());
+    }
+
+    @Override
+    protected void count(RentalEvent event, long[] deltas) {
+        switch (event.getType()) {
+            case CHECKED_OUT:
+                deltas[0]++;
+                break;
+            case RETURNED:
+                deltas[1]++;
+                break;
+            case RENEWED:
+                deltas[2]++;
+                break;
+            case OVERDUE:
+                deltas[3]++;
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,211 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.dto.ProjectionStatusDto;
+import com.blaze.elmis.model.ProjectionCheckpoint;
+import com.blaze.elmis.model.RentalEvent;
+import com.blaze.elmis.repository.ProjectionCheckpointRepository;
+import com.blaze.elmis.repository.RentalEventRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Feeds the rental event log to every {@link RentalProjector}. Each step reads
+ * a batch after the projector's checkpoint, applies it and moves the checkpoint
+ * in one transaction, so events are applied exactly once.
+ * <p>
+ * Sequence numbers are handed out at insert, not at commit, so a later event
+ * can be visible before an earlier one. A gap in the sequence holds the
+ * projector back until the runner has seen it open for
+ * {@code elmis.projections.gap-timeout}; after that it is jumped, most likely
+ * a rolled-back insert. Jumped numbers are still looked up on every step for
+ * {@code elmis.projections.late-event-window}, and an event that commits late
+ * is applied then, which is sound because every projection is a sum of counters.
+ */
+@Slf4j
+@Service
+public class RentalProjectionRunner {
+
+    private static final String BACKFILL_LOCK = "rental-events-backfill";
+
+    private final List<RentalProjector> projectors;
+    private final RentalEventRepository rentalEventRepository;
+    private final ProjectionCheckpointRepository checkpointRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final Duration gapTimeout;
+    private final Duration lateEventWindow;
+
+    // First missing seq of a gap -> System.nanoTime() when the gap was first seen
+    private final Map<Long, Long> gapsSeenAt = new HashMap<>();
+    // Per projector: seqs jumped over -> System.nanoTime() when they were jumped
+    private final Map<String, Map<Long, Long>> jumpedSeqs = new HashMap<>();
+
+    public RentalProjectionRunner(List<RentalProjector> projectors,
+                                  RentalEventRepository rentalEventRepository,
+                                  ProjectionCheckpointRepository checkpointRepository,
+                                  TransactionTemplate transactionTemplate,
+                                  @Value("${elmis.projections.enabled:true}") boolean enabled,
+                                  @Value("${elmis.projections.batch-size:1000}") int batchSize,
+                                  @Value("${elmis.projections.gap-timeout:10s}") Duration gapTimeout,
+                                  @Value("${elmis.projections.late-event-window:1h}") Duration lateEventWindow) {
+        this.projectors = projectors;
+        this.rentalEventRepository = rentalEventRepository;
+        this.checkpointRepository = checkpointRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.batchSize = Math.max(1, batchSize);
+        this.gapTimeout = gapTimeout;
+        this.lateEventWindow = lateEventWindow;
+    }
+
+    /** Rentals that predate the log are turned into events once, then everything catches up. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        Integer seeded = transactionTemplate.execute(status -> {
+            checkpointRepository.lock(BACKFILL_LOCK);
+            return rentalEventRepository.isEmpty() ? rentalEventRepository.backfillFromRentals() : 0;
+        });
+        if (seeded != null && seeded > 0) {
+            log.info("Rental event log seeded with {} events from existing rentals", seeded);
+        }
+        catchUp();
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.projections.poll-interval:1000}")
+    public void poll() {
+        if (enabled) {
+            catchUp();
+        }
+    }
+
+    public synchronized void catchUp() {
+        for (RentalProjector projector : projectors) {
+            try {
+                while (step(projector) == batchSize) {
+                    // keep going while full batches come back
+                }
+            } catch (RuntimeException e) {
+                log.warn("Projector {} failed; it resumes from its checkpoint on the next poll", projector.name(), e);
+            }
+        }
+    }
+
+    /** Empties a projection and replays the whole log into it. */
+    public synchronized ProjectionStatusDto rebuild(String name) {
+        RentalProjector projector = projectors.stream()
+                .filter(candidate -> candidate.name().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Unknown projection: " + name));
+        transactionTemplate.execute(status -> {
+            checkpointRepository.lock(name);
+            projector.reset();
+            checkpointRepository.save(name, 0);
+            return null;
+        });
+        jumpedSeqs.remove(name);
+        long start = System.nanoTime();
+        int applied = 0;
+        int step;
+        do {
+            step = step(projector);
+            applied += step;
+        } while (step == batchSize);
+        log.info("Projection {} rebuilt from {} events in {} ms", name, applied, (System.nanoTime() - start) / 1_000_000);
+        return getStatus().stream()
+                .filter(status -> status.getName().equals(name))
+                .findFirst()
+                .orElseThrow(() -> new IllegalStateException("Projection vanished: " + name));
+    }
+
+    public List<ProjectionStatusDto> getStatus() {
+        long head = rentalEventRepository.findLastSeq();
+        Map<String, ProjectionCheckpoint> checkpoints = new HashMap<>();
+        for (ProjectionCheckpoint checkpoint : checkpointRepository.findAll()) {
+            checkpoints.put(checkpoint.getName(), checkpoint);
+        }
+        List<ProjectionStatusDto> statuses = new ArrayList<>(projectors.size());
+        for (RentalProjector projector : projectors) {
+            ProjectionCheckpoint checkpoint = checkpoints.get(projector.name());
+            long lastSeq = checkpoint != null ? checkpoint.getLastSeq() : 0;
+            statuses.add(new ProjectionStatusDto(projector.name(), lastSeq, Math.max(0, head - lastSeq),
+                    checkpoint != null ? checkpoint.getUpdatedAt() : null));
+        }
+        return statuses;
+    }
+
+    private int step(RentalProjector projector) {
+        Map<Long, Long> jumped = jumpedSeqs.computeIfAbsent(projector.name(), name -> new HashMap<>());
+        List<RentalEvent> late = new ArrayList<>();
+        List<Long> newlyJumped = new ArrayList<>();
+        Integer applied = transactionTemplate.execute(status -> {
+            long position = checkpointRepository.lock(projector.name());
+            late.addAll(rentalEventRepository.findBySeqs(jumped.keySet()));
+            List<RentalEvent> events = settled(rentalEventRepository.findAfter(position, batchSize), position, newlyJumped);
+            if (events.isEmpty() && late.isEmpty()) {
+                return 0;
+            }
+            List<RentalEvent> batch = new ArrayList<>(late);
+            batch.addAll(events);
+            projector.apply(batch);
+            if (!events.isEmpty()) {
+                checkpointRepository.save(projector.name(), events.get(events.size() - 1).getSeq());
+            }
+            return events.size();
+        });
+
+        // Committed: only now is it safe to stop looking for the late events and start looking for the jumped ones
+        long now = System.nanoTime();
+        for (RentalEvent event : late) {
+            jumped.remove(event.getSeq());
+        }
+        if (!late.isEmpty()) {
+            log.info("Projector {} applied {} events that committed after their gap was jumped", projector.name(), late.size());
+        }
+        for (Long seq : newlyJumped) {
+            jumped.put(seq, now);
+        }
+        long window = lateEventWindow.toNanos();
+        jumped.values().removeIf(jumpedAt -> now - jumpedAt > window);
+        gapsSeenAt.values().removeIf(seenAt -> now - seenAt > window);
+        return applied != null ? applied : 0;
+    }
+
+    /**
+     * The prefix of {@code events} that can be applied without jumping a gap that may still
+     * fill. Gaps are timed from when this runner first saw them, not from the events' business
+     * time, since a slow transaction can hold a low sequence number long after it was stamped.
+     */
+    private List<RentalEvent> settled(List<RentalEvent> events, long position, List<Long> jumped) {
+        long now = System.nanoTime();
+        long expected = position + 1;
+        for (int i = 0; i < events.size(); i++) {
+            RentalEvent event = events.get(i);
+            if (event.getSeq() != expected) {
+                long seenAt = gapsSeenAt.computeIfAbsent(expected, seq -> now);
+                if (now - seenAt < gapTimeout.toNanos()) {
+                    return events.subList(0, i);
+                }
+                for (long seq = expected; seq < event.getSeq(); seq++) {
+                    jumped.add(seq);
+                }
+            }
+            expected = event.getSeq() + 1;
+        }
+        return events;
+    }
+}
@@ -0,0 +1,23 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+
+import java.util.List;
+
+/**
+ * A read model fed from the rental event log. {@link RentalProjectionRunner}
+ * hands each projector the events after its checkpoint, in sequence order,
+ * and stores the new checkpoint in the same transaction as {@link #apply}.
+ * An event that commits after its gap was jumped arrives out of order, so
+ * applying events must not depend on their order.
+ */
+public interface RentalProjector {
+
+    /** Checkpoint key; changing it makes the projector start over. */
+    String name();
+
+    void apply(List<RentalEvent> events);
+
+    /** Empties the read model before a replay from the start of the log. */
+    void reset();
+}
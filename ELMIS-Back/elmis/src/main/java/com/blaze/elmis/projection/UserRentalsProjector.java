@@ -0,0 +1,40 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+/** Active and lifetime rentals per user. */
+@Component
+public class UserRentalsProjector extends CountingProjector {
+
+    public UserRentalsProjector(JdbcTemplate jdbcTemplate) {
+        super(jdbcTemplate, "rental_projection_users", "user_id", "active_rentals", "total_rentals");
+    }
+
+    @Override
+    public String name() {
+        return "user-rentals";
+    }
+
+    @Override
+    protected Object key(RentalEvent event) {
+        return event.getUserId();
+    }
+
+    @Override
+    protected void count(RentalEvent event, long[] deltas) {
+        switch (event.getType()) {
+            case CHECKED_OUT:
+                deltas[0]++;
+                deltas[1]++;
+                break;
+            case RETURNED:
+            case DELETED:
+                deltas[0]--;
+                break;
+            default:
+                break;
+        }
+    }
+}
@@ -0,0 +1,89 @@
+package com.blaze.elmis.repository;
+
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Plain JDBC access to {@code books.available_quantity} for the in-memory
+ * inventory counters and batch circulation, which work in deltas and never
+ * need the entity.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookInventoryRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public Integer findAvailableQuantity(Long bookId) {
+        List<Integer> rows = jdbcTemplate.queryForList(
+                "SELECT available_quantity FROM books WHERE id = ?", Integer.class, bookId);
+        if (rows.isEmpty()) {
+            return null;
+        }
+        Integer available = rows.get(0);
+        return available != null ? available : 0;
+    }
+
+    /** Batched form of {@link BookRepository#checkOutCopy}; one update count per entry, 0 when no copy was left. */
+    public int[] checkOutCopies(List<Long> bookIds) {
+        return batchById("UPDATE books SET available_quantity = available_quantity - 1, updated_at = ? " +
+                "WHERE id = ? AND available_quantity > 0", bookIds);
+    }
+
+    /** Batched form of {@link BookRepository#returnCopy}. */
+    public int[] returnCopies(List<Long> bookIds) {
+        return batchById("UPDATE books SET available_quantity = available_quantity + 1, updated_at = ? " +
+                "WHERE id = ? AND (quantity IS NULL OR available_quantity < quantity)", bookIds);
+    }
+
+    private int[] batchById(String sql, List<Long> bookIds) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(bookIds.size());
+        for (Long bookId : bookIds) {
+            args.add(new Object[]{now, bookId});
+        }
+        return jdbcTemplate.batchUpdate(sql, args);
+    }
+
+    /** Applies all deltas as one JDBC batch. */
+    public void applyDeltas(Map<Long, Integer> deltas) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((bookId, delta) -> args.add(new Object[]{delta, now, bookId}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE books SET available_quantity = available_quantity + ?, updated_at = ? WHERE id = ?", args);
+    }
+
+    /**
+     * Ground truth after a crash: every copy not tied to an unreturned rental or set
+     * aside for a READY hold is on the shelf.
+     */
+    public Map<Long, Integer> computeAvailabilityFromCirculation() {
+        Map<Long, Integer> available = new HashMap<>();
+        jdbcTemplate.query(
+                "SELECT b.id, COALESCE(b.quantity, 0) " +
+                        "- (SELECT COUNT(*) FROM rentals r WHERE r.book_id = b.id AND r.status <> 'RETURNED') " +
+                        "- (SELECT COUNT(*) FROM holds h WHERE h.book_id = b.id AND h.status = 'READY') AS available " +
+                        "FROM books b",
+                rs -> {
+                    available.put(rs.getLong(1), Math.max(0, rs.getInt(2)));
+                });
+        return available;
+    }
+
+    public void overwriteAvailability(Map<Long, Integer> available) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(available.size());
+        available.forEach((bookId, quantity) -> args.add(new Object[]{quantity, now, bookId, quantity}));
+        jdbcTemplate.batchUpdate(
+                "UPDATE books SET available_quantity = ?, updated_at = ? WHERE id = ? AND NOT available_quantity <=> ?", args);
+    }
+}
@@ -0,0 +1,140 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.dto.BookDto;
+import com.blaze.elmis.dto.CategoryDto;
+import com.blaze.elmis.dto.SubcategoryDto;
+import com.blaze.elmis.model.Book;
+import com.blaze.elmis.model.Category;
+import com.blaze.elmis.model.Subcategory;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.Tuple;
+import jakarta.persistence.TypedQuery;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Join;
+import jakarta.persistence.criteria.JoinType;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.SliceImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.data.support.PageableExecutionUtils;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Read-only book listings that select exactly the columns of {@link BookDto},
+ * with category and subcategory joined in the same statement. Nothing is
+ * attached to the persistence context, so a page costs one select (plus the
+ * count when Spring Data needs it) whatever its size.
+ */
+@Repository
+@RequiredArgsConstructor
+public class BookProjectionRepository {
+
+    private final EntityManager entityManager;
+
+    public Page<BookDto> findAll(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(spec, pageable.getSort());
+        if (pageable.isPaged()) {
+            query.setFirstResult((int) pageable.getOffset());
+            query.setMaxResults(pageable.getPageSize());
+        }
+        List<BookDto> content = toDtos(query.getResultList());
+        return PageableExecutionUtils.getPage(content, pageable, () -> count(spec));
+    }
+
+    /** One row more than the page is read to learn whether a next page exists; no count query. */
+    public Slice<BookDto> findSlice(Specification<Book> spec, Pageable pageable) {
+        TypedQuery<Tuple> query = createQuery(spec, pageable.getSort());
+        query.setFirstResult((int) pageable.getOffset());
+        query.setMaxResults(pageable.getPageSize() + 1);
+        List<BookDto> rows = toDtos(query.getResultList());
+        boolean hasNext = rows.size() > pageable.getPageSize();
+        return new SliceImpl<>(hasNext ? rows.subList(0, pageable.getPageSize()) : rows, pageable, hasNext);
+    }
+
+    public long count(Specification<Book> spec) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Long> query = cb.createQuery(Long.class);
+        Root<Book> book = query.from(Book.class);
+        Predicate predicate = spec != null ? spec.toPredicate(book, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        query.select(query.isDistinct() ? cb.countDistinct(book) : cb.count(book));
+        return entityManager.createQuery(query).getSingleResult();
+    }
+
+    public List<BookDto> findAll(Specification<Book> spec) {
+        return toDtos(createQuery(spec, Sort.unsorted()).getResultList());
+    }
+
+    private TypedQuery<Tuple> createQuery(Specification<Book> spec, Sort sort) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<Tuple> query = cb.createTupleQuery();
+        Root<Book> book = query.from(Book.class);
+        Join<Book, Category> category = book.join("category", JoinType.LEFT);
+        Join<Book, Subcategory> subcategory = book.join("subcategory", JoinType.LEFT);
+        query.multiselect(
+                book.get("id").alias("id"),
+                book.get("title").alias("title"),
+                book.get("author").alias("author"),
+                book.get("isbn").alias("isbn"),
+                book.get("publisher").alias("publisher"),
+                book.get("publicationYear").alias("publicationYear"),
+                book.get("quantity").alias("quantity"),
+                book.get("availableQuantity").alias("availableQuantity"),
+                book.get("avgRating").alias("avgRating"),
+                book.get("totalReviews").alias("totalReviews"),
+                category.get("id").alias("categoryId"),
+                category.get("name").alias("categoryName"),
+                subcategory.get("id").alias("subcategoryId"),
+                subcategory.get("name").alias("subcategoryName"));
+        Predicate predicate = spec != null ? spec.toPredicate(book, query, cb) : null;
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        if (sort.isSorted()) {
+            query.orderBy(QueryUtils.toOrders(sort, book, cb));
+        }
+        return entityManager.createQuery(query);
+    }
+
+    private static List<BookDto> toDtos(List<Tuple> rows) {
+        return rows.stream().map(BookProjectionRepository::toDto).collect(Collectors.toList());
+    }
+
+    private static BookDto toDto(Tuple row) {
+        Long categoryId = row.get("categoryId", Long.class);
+        Long subcategoryId = row.get("subcategoryId", Long.class);
+        return BookDto.builder()
+                .id(row.get("id", Long.class))
+                .title(row.get("title", String.class))
+                .author(row.get("author", String.class))
+                .isbn(row.get("isbn", String.class))
+                .publisher(row.get("publisher", String.class))
+                .publicationYear(row.get("publicationYear", Integer.class))
+                .quantity(row.get("quantity", Integer.class))
+                .availableQuantity(row.get("availableQuantity", Integer.class))
+                .avgRating(row.get("avgRating", Double.class))
+                .totalReviews(row.get("totalReviews", Integer.class))
+                .category(categoryId == null ? null : CategoryDto.builder()
+                        .id(categoryId)
+                        .name(row.get("categoryName", String.class))
+                        .build())
+                .subcategory(subcategoryId == null ? null : SubcategoryDto.builder()
+                        .id(subcategoryId)
+                        .name(row.get("subcategoryName", String.class))
+                        .categoryId(categoryId)
+                        .build())
+                .build();
+    }
+}
@@ -0,0 +1,12 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.BookRentalProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface BookRentalProjectionRepository extends JpaRepository<BookRentalProjection, Long> {
+
+    List<BookRentalProjection> findAllByOrderByTotalRentalsDesc(Pageable pageable);
+}
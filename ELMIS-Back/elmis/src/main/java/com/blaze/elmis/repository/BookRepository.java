@@ -1,10 +1,36 @@
 package com.blaze.elmis.repository;
 
 import com.blaze.elmis.model.Book;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+
 @Repository
 public interface BookRepository extends JpaRepository<Book, Long>, JpaSpecificationExecutor<Book> {
+
+    // Keyset-paged scan used to (re)build the in-memory catalog indexes
+    @Query("SELECT b FROM Book b LEFT JOIN FETCH b.category LEFT JOIN FETCH b.subcategory WHERE b.id > :afterId ORDER BY b.id")
+    List<Book> findCatalogChunk(@Param("afterId") Long afterId, Pageable pageable);
+
+    @Query("SELECT b.id FROM Book b WHERE b.id IN :ids")
+    List<Long> findExistingIds(@Param("ids") Collection<Long> ids);
+
+    // Check-out and return are single conditional UPDATEs, so concurrent desks can never oversell a copy.
+    // Both return the number of rows changed: 0 means the guard did not hold.
+    @Modifying
+    @Query("UPDATE Book b SET b.availableQuantity = b.availableQuantity - 1, b.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.id = :id AND b.availableQuantity > 0")
+    int checkOutCopy(@Param("id") Long id);
+
+    @Modifying
+    @Query("UPDATE Book b SET b.availableQuantity = b.availableQuantity + 1, b.updatedAt = CURRENT_TIMESTAMP " +
+            "WHERE b.id = :id AND (b.quantity IS NULL OR b.availableQuantity < b.quantity)")
+    int returnCopy(@Param("id") Long id);
 }
@@ -1,8 +1,12 @@
 package com.blaze.elmis.repository;
 
+import com.blaze.elmis.dto.BookReviewDto;
 import com.blaze.elmis.model.BookReview;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.JpaSpecificationExecutor;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
 import java.util.List;
@@ -11,5 +15,9 @@ import java.util.Optional;
 @Repository
 public interface BookReviewRepository extends JpaRepository<BookReview, Long>, JpaSpecificationExecutor<BookReview> {
     List<BookReview> findByBookId(Long bookId);
+
+    @Query(value = "SELECT new com.blaze.elmis.dto.BookReviewDto(r.id, r.book.id, r.user.id, r.rating, r.comment, r.createdAt, r.updatedAt) FROM BookReview r",
+            countQuery = "SELECT count(r) FROM BookReview r")
+    Page<BookReviewDto> findAllAsDto(Pageable pageable);
     Optional<BookReview> findByBookIdAndUserId(Long bookId, Long userId);
 }
@@ -0,0 +1,12 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.DailyRentalVolume;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.time.LocalDate;
+import java.util.List;
+
+public interface DailyRentalVolumeRepository extends JpaRepository<DailyRentalVolume, LocalDate> {
+
+    List<DailyRentalVolume> findByVolumeDateBetweenOrderByVolumeDate(LocalDate from, LocalDate to);
+}
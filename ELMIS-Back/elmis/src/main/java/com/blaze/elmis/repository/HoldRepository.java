@@ -0,0 +1,34 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.Hold;
+import com.blaze.elmis.model.HoldStatus;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface HoldRepository extends JpaRepository<Hold, Long> {
+
+    List<Hold> findByStatusInOrderById(Collection<HoldStatus> statuses);
+
+    @Query("SELECT h FROM Hold h WHERE h.status = com.blaze.elmis.model.HoldStatus.READY AND h.expiresAt < :now ORDER BY h.expiresAt")
+    List<Hold> findExpiredReady(@Param("now") LocalDateTime now, Pageable pageable);
+
+    // Every transition is conditional on the current status, so racing handoffs, pickups and cancels cannot both win
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = com.blaze.elmis.model.HoldStatus.READY, h.readyAt = :now, h.expiresAt = :expiresAt, h.updatedAt = :now " +
+            "WHERE h.id = :id AND h.status = com.blaze.elmis.model.HoldStatus.WAITING")
+    int markReady(@Param("id") Long id, @Param("now") LocalDateTime now, @Param("expiresAt") LocalDateTime expiresAt);
+
+    @Modifying
+    @Query("UPDATE Hold h SET h.status = :to, h.updatedAt = :now WHERE h.id = :id AND h.status = :from")
+    int transition(@Param("id") Long id, @Param("from") HoldStatus from, @Param("to") HoldStatus to,
+                   @Param("now") LocalDateTime now);
+}
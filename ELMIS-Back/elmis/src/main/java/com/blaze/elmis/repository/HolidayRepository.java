@@ -2,8 +2,15 @@ package com.blaze.elmis.repository;
 
 import com.blaze.elmis.model.Holiday;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import org.springframework.stereotype.Repository;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @Repository
 public interface HolidayRepository extends JpaRepository<Holiday, Long> {
+
+    @Query("SELECT h.date FROM Holiday h")
+    List<LocalDate> findAllDates();
 }
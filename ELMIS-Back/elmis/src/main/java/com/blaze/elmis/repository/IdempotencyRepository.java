@@ -0,0 +1,66 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.IdempotencyRecord;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Optional;
+
+/**
+ * JDBC access to idempotency_keys. A key is reserved by inserting a row without a
+ * response; the insert is the uniqueness check, as a second insert of the same id
+ * fails with a DuplicateKeyException. The reservation's created_at identifies its
+ * owner when the response is stored or the reservation released.
+ */
+@Repository
+@RequiredArgsConstructor
+public class IdempotencyRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** Inserts a pending row; throws DuplicateKeyException when the key is taken. */
+    public void insertPending(String id, String fingerprint, LocalDateTime createdAt, LocalDateTime expiresAt) {
+        jdbcTemplate.update("INSERT INTO idempotency_keys (id, fingerprint, created_at, expires_at) VALUES (?, ?, ?, ?)",
+                id, fingerprint, Timestamp.valueOf(createdAt), Timestamp.valueOf(expiresAt));
+    }
+
+    /** Stores the response of the reservation made at {@code createdAt}; 0 if that reservation is gone. */
+    public int complete(String id, LocalDateTime createdAt, String response) {
+        return jdbcTemplate.update("UPDATE idempotency_keys SET response = ? WHERE id = ? AND created_at = ? AND response IS NULL",
+                response, id, Timestamp.valueOf(createdAt));
+    }
+
+    /** Moves a pending reservation to a new owner; 0 if it completed or was taken over meanwhile. */
+    public int takeOver(String id, LocalDateTime createdAt, LocalDateTime newCreatedAt, LocalDateTime expiresAt) {
+        return jdbcTemplate.update("UPDATE idempotency_keys SET created_at = ?, expires_at = ? " +
+                        "WHERE id = ? AND created_at = ? AND response IS NULL",
+                Timestamp.valueOf(newCreatedAt), Timestamp.valueOf(expiresAt), id, Timestamp.valueOf(createdAt));
+    }
+
+    public void deletePending(String id, LocalDateTime createdAt) {
+        jdbcTemplate.update("DELETE FROM idempotency_keys WHERE id = ? AND created_at = ? AND response IS NULL",
+                id, Timestamp.valueOf(createdAt));
+    }
+
+    public Optional<IdempotencyRecord> find(String id) {
+        List<IdempotencyRecord> rows = jdbcTemplate.query(
+                "SELECT id, fingerprint, response, created_at, expires_at FROM idempotency_keys WHERE id = ?",
+                (rs, rowNum) -> IdempotencyRecord.builder()
+                        .id(rs.getString(1))
+                        .fingerprint(rs.getString(2))
+                        .response(rs.getString(3))
+                        .createdAt(rs.getTimestamp(4).toLocalDateTime())
+                        .expiresAt(rs.getTimestamp(5).toLocalDateTime())
+                        .build(),
+                id);
+        return rows.stream().findFirst();
+    }
+
+    public int deleteExpired(LocalDateTime now, int limit) {
+        return jdbcTemplate.update("DELETE FROM idempotency_keys WHERE expires_at < ? LIMIT ?", Timestamp.valueOf(now), limit);
+    }
+}
@@ -0,0 +1,141 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.dto.CursorPage;
+import com.blaze.elmis.util.KeysetCursor;
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.BeanWrapperImpl;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
+import org.springframework.data.jpa.repository.query.QueryUtils;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.function.Function;
+import java.util.stream.Collectors;
+
+/**
+ * Seek-method pagination over any entity: instead of OFFSET it filters on
+ * "(sortColumn, id) after the last row sent", orders by the same pair and
+ * fetches one extra row to learn whether there is a next window. No count
+ * query is issued, so the cost of a window does not depend on its depth.
+ */
+@Component
+@RequiredArgsConstructor
+public class KeysetQueryExecutor {
+
+    public static final int MAX_WINDOW_SIZE = 100;
+
+    private final EntityManager entityManager;
+
+    /**
+     * @param sortable whitelist of sortable attributes and their Java types
+     */
+    public <T, D> CursorPage<D> scroll(Class<T> type, Specification<T> filter, Map<String, Class<?>> sortable,
+                                       String sortField, Sort.Direction direction, String cursor, int size,
+                                       Function<T, D> mapper) {
+        Class<?> valueType = sortable.get(sortField);
+        if (valueType == null) {
+            throw new IllegalArgumentException("Unsupported sort field: " + sortField);
+        }
+        int windowSize = Math.max(1, Math.min(size, MAX_WINDOW_SIZE));
+
+        Specification<T> spec = filter != null ? filter : Specification.where(null);
+        if (cursor != null && !cursor.isEmpty()) {
+            KeysetCursor position = KeysetCursor.decode(cursor);
+            if (!position.getSortField().equals(sortField) || position.getDirection() != direction) {
+                throw new IllegalArgumentException("Cursor was issued for a different sort order");
+            }
+            spec = spec.and(after(sortField, direction, parse(position.getValue(), valueType), position.getId()));
+        }
+
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<T> query = cb.createQuery(type);
+        Root<T> root = query.from(type);
+        Predicate predicate = spec.toPredicate(root, query, cb);
+        if (predicate != null) {
+            query.where(predicate);
+        }
+        Sort sort = "id".equals(sortField)
+                ? Sort.by(direction, "id")
+                : Sort.by(direction, sortField).and(Sort.by(direction, "id"));
+        query.orderBy(QueryUtils.toOrders(sort, root, cb));
+
+        List<T> rows = entityManager.createQuery(query)
+                .setMaxResults(windowSize + 1)
+                .getResultList();
+        boolean hasNext = rows.size() > windowSize;
+        List<T> window = hasNext ? rows.subList(0, windowSize) : rows;
+
+        String nextCursor = null;
+        if (hasNext) {
+            BeanWrapperImpl last = new BeanWrapperImpl(window.get(window.size() - 1));
+            Object value = last.getPropertyValue(sortField);
+            nextCursor = new KeysetCursor(sortField, direction, value != null ? value.toString() : null,
+                    (Long) last.getPropertyValue("id")).encode();
+        }
+        return CursorPage.<D>builder()
+                .content(window.stream().map(mapper).collect(Collectors.toList()))
+                .size(windowSize)
+                .hasNext(hasNext)
+                .nextCursor(nextCursor)
+                .build();
+    }
+
+    // (value, id) > (lastValue, lastId) for ascending order, mirrored for descending.
+    // MySQL sorts NULLs first ascending, which the null branches reproduce.
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    private static <T> Specification<T> after(String sortField, Sort.Direction direction, Comparable lastValue, Long lastId) {
+        return (root, query, cb) -> {
+            Path<Long> id = root.get("id");
+            Predicate idAfter = direction.isAscending() ? cb.greaterThan(id, lastId) : cb.lessThan(id, lastId);
+            if ("id".equals(sortField)) {
+                return idAfter;
+            }
+            Path<Comparable> value = root.get(sortField);
+            if (lastValue == null) {
+                return direction.isAscending()
+                        ? cb.or(cb.isNotNull(value), cb.and(cb.isNull(value), idAfter))
+                        : cb.and(cb.isNull(value), idAfter);
+            }
+            Predicate valueAfter = direction.isAscending() ? cb.greaterThan(value, lastValue) : cb.lessThan(value, lastValue);
+            Predicate tie = cb.and(cb.equal(value, lastValue), idAfter);
+            Predicate beyond = cb.or(valueAfter, tie);
+            return direction.isAscending() ? beyond : cb.or(beyond, cb.isNull(value));
+        };
+    }
+
+    @SuppressWarnings("rawtypes")
+    private static Comparable parse(String value, Class<?> type) {
+        if (value == null) {
+            return null;
+        }
+        if (type == String.class) {
+            return value;
+        }
+        if (type == Long.class) {
+            return Long.valueOf(value);
+        }
+        if (type == Integer.class) {
+            return Integer.valueOf(value);
+        }
+        if (type == Double.class) {
+            return Double.valueOf(value);
+        }
+        if (type == LocalDateTime.class) {
+            return LocalDateTime.parse(value);
+        }
+        if (type == LocalDate.class) {
+            return LocalDate.parse(value);
+        }
+        throw new IllegalArgumentException("Unsupported cursor type: " + type.getSimpleName());
+    }
+}
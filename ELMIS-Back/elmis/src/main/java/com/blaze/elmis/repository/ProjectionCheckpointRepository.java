@@ -0,0 +1,38 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.ProjectionCheckpoint;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.List;
+
+@Repository
+@RequiredArgsConstructor
+public class ProjectionCheckpointRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Position of a projector, row-locked until the transaction ends so only
+     * one thread or instance advances a projector at a time.
+     */
+    public long lock(String name) {
+        jdbcTemplate.update("INSERT IGNORE INTO projection_checkpoints (name, last_seq, updated_at) VALUES (?, 0, ?)",
+                name, Timestamp.valueOf(LocalDateTime.now()));
+        return jdbcTemplate.queryForObject("SELECT last_seq FROM projection_checkpoints WHERE name = ? FOR UPDATE",
+                Long.class, name);
+    }
+
+    public void save(String name, long lastSeq) {
+        jdbcTemplate.update("UPDATE projection_checkpoints SET last_seq = ?, updated_at = ? WHERE name = ?",
+                lastSeq, Timestamp.valueOf(LocalDateTime.now()), name);
+    }
+
+    public List<ProjectionCheckpoint> findAll() {
+        return jdbcTemplate.query("SELECT name, last_seq, updated_at FROM projection_checkpoints ORDER BY name",
+                (rs, rowNum) -> new ProjectionCheckpoint(rs.getString(1), rs.getLong(2), rs.getTimestamp(3).toLocalDateTime()));
+    }
+}
@@ -0,0 +1,154 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.RentalStatus;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * JDBC batches for multi-item circulation. Rental ids are IDENTITY columns,
+ * which stops Hibernate from batching inserts, so they are written here.
+ */
+@Repository
+@RequiredArgsConstructor
+public class RentalBatchRepository {
+
+    private static final String INSERT_SQL = "INSERT INTO rentals " +
+            "(book_id, user_id, rental_date, due_date, status, renewal_count, created_at, updated_at) VALUES (?, ?, ?, ?, ?, 0, ?, ?)";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    /** Inserts one RENTED row per book id and returns the generated ids in the same order. */
+    public List<Long> insertRentals(Long userId, List<Long> bookIds, LocalDateTime rentalDate, LocalDateTime dueDate) {
+        Timestamp rentedAt = Timestamp.valueOf(rentalDate);
+        Timestamp due = Timestamp.valueOf(dueDate);
+        return jdbcTemplate.execute((ConnectionCallback<List<Long>>) connection -> {
+            try (PreparedStatement statement = connection.prepareStatement(INSERT_SQL, Statement.RETURN_GENERATED_KEYS)) {
+                for (Long bookId : bookIds) {
+                    statement.setLong(1, bookId);
+                    statement.setLong(2, userId);
+                    statement.setTimestamp(3, rentedAt);
+                    statement.setTimestamp(4, due);
+                    statement.setString(5, RentalStatus.RENTED.name());
+                    statement.setTimestamp(6, rentedAt);
+                    statement.setTimestamp(7, rentedAt);
+                    statement.addBatch();
+                }
+                statement.executeBatch();
+                List<Long> ids = new ArrayList<>(bookIds.size());
+                try (ResultSet keys = statement.getGeneratedKeys()) {
+                    while (keys.next()) {
+                        ids.add(keys.getLong(1));
+                    }
+                }
+                return ids;
+            }
+        });
+    }
+
+    /** Batched form of {@link RentalRepository#markReturned}; one update count per id. */
+    public int[] markReturned(List<Long> rentalIds, LocalDateTime now) {
+        Timestamp returnedAt = Timestamp.valueOf(now);
+        List<Object[]> args = new ArrayList<>(rentalIds.size());
+        for (Long rentalId : rentalIds) {
+            args.add(new Object[]{returnedAt, returnedAt, rentalId});
+        }
+        return jdbcTemplate.batchUpdate("UPDATE rentals SET status = 'RETURNED', return_date = ?, updated_at = ? " +
+                "WHERE id = ? AND status <> 'RETURNED'", args);
+    }
+
+    /** Walks the (status, due_date) index from the oldest due date. */
+    public List<Long> findOverdueIds(LocalDateTime cutoff, int limit) {
+        return jdbcTemplate.queryForList("SELECT id FROM rentals WHERE status = 'RENTED' AND due_date < ? " +
+                "ORDER BY due_date, id LIMIT ?", Long.class, Timestamp.valueOf(cutoff), limit);
+    }
+
+    /**
+     * Re-checks status and due date so a rental returned or renewed since it was
+     * picked (by {@link #findOverdueIds} or a due timer) is left alone, and returns
+     * the rows actually moved. Needs a transaction: the rows are locked between
+     * reading and updating them.
+     */
+    public List<RentalRef> markOverdue(Collection<Long> rentalIds, LocalDateTime now) {
+        List<RentalRef> rented = namedParameterJdbcTemplate.query("SELECT id, book_id, user_id FROM rentals " +
+                        "WHERE id IN (:ids) AND status = 'RENTED' AND due_date < :now FOR UPDATE",
+                new MapSqlParameterSource("ids", rentalIds).addValue("now", Timestamp.valueOf(now)),
+                (rs, rowNum) -> new RentalRef(rs.getLong(1), rs.getLong(2), rs.getLong(3)));
+        if (rented.isEmpty()) {
+            return rented;
+        }
+        List<Long> ids = new ArrayList<>(rented.size());
+        for (RentalRef rental : rented) {
+            ids.add(rental.getId());
+        }
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("ids", ids)
+                .addValue("now", Timestamp.valueOf(now));
+        namedParameterJdbcTemplate.update("UPDATE rentals SET status = 'OVERDUE', updated_at = :now WHERE id IN (:ids)", params);
+        return rented;
+    }
+
+    /**
+     * Streams (id, due_date) of every unreturned, not yet overdue rental; MySQL
+     * only streams rows instead of buffering them with a fetch size of MIN_VALUE.
+     */
+    public void streamActiveDueDates(BiConsumer<Long, LocalDateTime> consumer) {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    "SELECT id, due_date FROM rentals WHERE status = 'RENTED' AND due_date IS NOT NULL",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            return statement;
+        }, rs -> {
+            consumer.accept(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime());
+        });
+    }
+
+    /** One keyset chunk of RENTED rentals, ordered by id. */
+    public List<ActiveRentalDates> findActiveRentalDates(long afterId, int limit) {
+        return jdbcTemplate.query("SELECT id, rental_date, due_date, renewal_count FROM rentals " +
+                "WHERE status = 'RENTED' AND id > ? AND rental_date IS NOT NULL ORDER BY id LIMIT ?", (rs, rowNum) -> {
+            Timestamp due = rs.getTimestamp(3);
+            return new ActiveRentalDates(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                    due != null ? due.toLocalDateTime() : null, rs.getInt(4));
+        }, afterId, limit);
+    }
+
+    public void updateDueDates(Map<Long, LocalDateTime> dueDates) {
+        Timestamp now = Timestamp.valueOf(LocalDateTime.now());
+        List<Object[]> args = new ArrayList<>(dueDates.size());
+        dueDates.forEach((rentalId, dueDate) -> args.add(new Object[]{Timestamp.valueOf(dueDate), now, rentalId}));
+        jdbcTemplate.batchUpdate("UPDATE rentals SET due_date = ?, updated_at = ? WHERE id = ? AND status = 'RENTED'", args);
+    }
+
+    @Value
+    public static class RentalRef {
+        long id;
+        long bookId;
+        long userId;
+    }
+
+    @Value
+    public static class ActiveRentalDates {
+        long id;
+        LocalDateTime rentalDate;
+        LocalDateTime dueDate;
+        int renewalCount;
+    }
+}
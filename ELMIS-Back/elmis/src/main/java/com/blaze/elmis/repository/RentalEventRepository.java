@@ -0,0 +1,80 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.RentalEvent;
+import com.blaze.elmis.model.RentalEventType;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowMapper;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/** Append and read access to rental_events. There is deliberately no update or delete. */
+@Repository
+@RequiredArgsConstructor
+public class RentalEventRepository {
+
+    private static final RowMapper<RentalEvent> EVENT_MAPPER = (rs, rowNum) -> RentalEvent.builder()
+            .seq(rs.getLong(1))
+            .type(RentalEventType.valueOf(rs.getString(2)))
+            .rentalId(rs.getLong(3))
+            .bookId(rs.getLong(4))
+            .userId(rs.getLong(5))
+            .occurredAt(rs.getTimestamp(6).toLocalDateTime())
+            .build();
+
+    private final JdbcTemplate jdbcTemplate;
+    private final NamedParameterJdbcTemplate namedParameterJdbcTemplate;
+
+    public void append(List<RentalEvent> events) {
+        List<Object[]> args = new ArrayList<>(events.size());
+        for (RentalEvent event : events) {
+            args.add(new Object[]{event.getType().name(), event.getRentalId(), event.getBookId(), event.getUserId(),
+                    Timestamp.valueOf(event.getOccurredAt())});
+        }
+        jdbcTemplate.batchUpdate("INSERT INTO rental_events (type, rental_id, book_id, user_id, occurred_at) " +
+                "VALUES (?, ?, ?, ?, ?)", args);
+    }
+
+    /** Events with a sequence number above {@code afterSeq}, in order. */
+    public List<RentalEvent> findAfter(long afterSeq, int limit) {
+        return jdbcTemplate.query("SELECT seq, type, rental_id, book_id, user_id, occurred_at FROM rental_events " +
+                "WHERE seq > ? ORDER BY seq LIMIT ?", EVENT_MAPPER, afterSeq, limit);
+    }
+
+    /** Whichever of {@code seqs} exist by now, in order. */
+    public List<RentalEvent> findBySeqs(Collection<Long> seqs) {
+        if (seqs.isEmpty()) {
+            return Collections.emptyList();
+        }
+        return namedParameterJdbcTemplate.query("SELECT seq, type, rental_id, book_id, user_id, occurred_at FROM rental_events " +
+                "WHERE seq IN (:seqs) ORDER BY seq", Collections.singletonMap("seqs", seqs), EVENT_MAPPER);
+    }
+
+    public long findLastSeq() {
+        Long last = jdbcTemplate.queryForObject("SELECT MAX(seq) FROM rental_events", Long.class);
+        return last != null ? last : 0;
+    }
+
+    public boolean isEmpty() {
+        return jdbcTemplate.queryForList("SELECT seq FROM rental_events LIMIT 1", Long.class).isEmpty();
+    }
+
+    /**
+     * Seeds an empty log from the rentals table: a checkout per rental, then an
+     * overdue or return event for rentals already in that state, in time order.
+     */
+    public int backfillFromRentals() {
+        return jdbcTemplate.update("INSERT INTO rental_events (type, rental_id, book_id, user_id, occurred_at) " +
+                "SELECT type, rental_id, book_id, user_id, occurred_at FROM (" +
+                "SELECT 'CHECKED_OUT' AS type, id AS rental_id, book_id, user_id, COALESCE(rental_date, created_at) AS occurred_at, 0 AS ord FROM rentals " +
+                "UNION ALL SELECT 'OVERDUE', id, book_id, user_id, COALESCE(due_date, updated_at), 1 FROM rentals WHERE status = 'OVERDUE' " +
+                "UNION ALL SELECT 'RETURNED', id, book_id, user_id, COALESCE(return_date, updated_at), 2 FROM rentals WHERE status = 'RETURNED'" +
+                ") e ORDER BY occurred_at, rental_id, ord");
+    }
+}
@@ -0,0 +1,134 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.dto.PopularBookDto;
+import com.blaze.elmis.dto.RentalReportRowDto;
+import com.blaze.elmis.model.RentalStatus;
+import com.blaze.elmis.model.ReportType;
+import com.blaze.elmis.model.Role;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.function.BiConsumer;
+import java.util.stream.Stream;
+
+/** Report aggregates computed in the database, returning only the rows a report shows. */
+@Repository
+@RequiredArgsConstructor
+public class RentalReportRepository {
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /**
+     * Most rented books with a rental date in {@code [from, to)}. Counting runs on the
+     * (rental_date, book_id) index alone; only the top {@code limit} rows join books.
+     */
+    public List<PopularBookDto> findMostRentedBooks(LocalDateTime from, LocalDateTime to, int limit) {
+        return jdbcTemplate.query("SELECT b.id, b.title, b.author, t.rentals FROM (" +
+                        "SELECT book_id, COUNT(*) AS rentals FROM rentals WHERE rental_date >= ? AND rental_date < ? " +
+                        "GROUP BY book_id ORDER BY rentals DESC, book_id LIMIT ?) t " +
+                        "JOIN books b ON b.id = t.book_id ORDER BY t.rentals DESC, b.id",
+                (rs, rowNum) -> new PopularBookDto(rs.getLong(1), rs.getString(2), rs.getString(3), rs.getLong(4)),
+                Timestamp.valueOf(from), Timestamp.valueOf(to), limit);
+    }
+
+    public long countBooks() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM books", Long.class);
+    }
+
+    /** Unreturned rentals; both ranges are read off the (status, due_date) index. */
+    public long countActiveRentals() {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rentals WHERE status IN ('RENTED', 'OVERDUE')", Long.class);
+    }
+
+    /** Rentals marked overdue plus rentals past due that no job has moved yet. */
+    public long countOverdueRentals(LocalDateTime now) {
+        return jdbcTemplate.queryForObject("SELECT (SELECT COUNT(*) FROM rentals WHERE status = 'OVERDUE') + " +
+                "(SELECT COUNT(*) FROM rentals WHERE status = 'RENTED' AND due_date < ?)", Long.class, Timestamp.valueOf(now));
+    }
+
+    public long countReturnedSince(LocalDateTime since) {
+        return jdbcTemplate.queryForObject("SELECT COUNT(*) FROM rentals WHERE return_date >= ?", Long.class,
+                Timestamp.valueOf(since));
+    }
+
+    /** Unreturned rentals per category id; books without a category are counted under 0. */
+    public Map<Long, Long> countActiveRentalsByCategory() {
+        Map<Long, Long> counts = new HashMap<>();
+        jdbcTemplate.query("SELECT COALESCE(b.category_id, 0), COUNT(*) FROM rentals r JOIN books b ON b.id = r.book_id " +
+                "WHERE r.status IN ('RENTED', 'OVERDUE') GROUP BY COALESCE(b.category_id, 0)", rs -> {
+            counts.put(rs.getLong(1), rs.getLong(2));
+        });
+        return counts;
+    }
+
+    /** (book id, category id or 0) for every book. */
+    public void streamBookCategories(BiConsumer<Long, Long> consumer) {
+        jdbcTemplate.query("SELECT id, COALESCE(category_id, 0) FROM books", rs -> {
+            consumer.accept(rs.getLong(1), rs.getLong(2));
+        });
+    }
+
+    /** Category id of a book, 0 without a category, null for an unknown book. */
+    public Long findCategoryId(Long bookId) {
+        List<Long> rows = jdbcTemplate.queryForList("SELECT COALESCE(category_id, 0) FROM books WHERE id = ?", Long.class, bookId);
+        return rows.isEmpty() ? null : rows.get(0);
+    }
+
+    /**
+     * Rows of a rental report in id order. The statement is forward-only with MySQL's
+     * streaming fetch size, so rows arrive one at a time instead of being buffered;
+     * the stream must be closed, and consumed inside a transaction that keeps the
+     * connection open. {@code role} only applies to {@link ReportType#EMPLOYEE_ACTIVITY}.
+     */
+    public Stream<RentalReportRowDto> streamRentalRows(ReportType type, Role role, LocalDateTime now) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT r.id, b.title, u.username, r.status, r.rental_date, r.due_date, r.return_date FROM rentals r " +
+                "JOIN books b ON b.id = r.book_id JOIN users u ON u.id = r.user_id" + reportFilter(type, role, now, args) +
+                " ORDER BY r.id";
+        return jdbcTemplate.queryForStream(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql, ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(Integer.MIN_VALUE);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (rs, rowNum) -> {
+            String status = rs.getString(4);
+            return new RentalReportRowDto(rs.getLong(1), rs.getString(2), rs.getString(3),
+                    status != null ? RentalStatus.valueOf(status) : null,
+                    toLocalDateTime(rs.getTimestamp(5)), toLocalDateTime(rs.getTimestamp(6)), toLocalDateTime(rs.getTimestamp(7)));
+        });
+    }
+
+    public long countRentalRows(ReportType type, Role role, LocalDateTime now) {
+        List<Object> args = new ArrayList<>();
+        String sql = "SELECT COUNT(*) FROM rentals r JOIN users u ON u.id = r.user_id" + reportFilter(type, role, now, args);
+        return jdbcTemplate.queryForObject(sql, Long.class, args.toArray());
+    }
+
+    private static String reportFilter(ReportType type, Role role, LocalDateTime now, List<Object> args) {
+        switch (type) {
+            case OVERDUE_RENTALS:
+                args.add(Timestamp.valueOf(now));
+                return " WHERE (r.status = 'OVERDUE' OR (r.status = 'RENTED' AND r.due_date < ?))";
+            case EMPLOYEE_ACTIVITY:
+                args.add(role.name());
+                return " WHERE u.role = ?";
+            default:
+                return "";
+        }
+    }
+
+    private static LocalDateTime toLocalDateTime(Timestamp timestamp) {
+        return timestamp != null ? timestamp.toLocalDateTime() : null;
+    }
+}
@@ -1,20 +1,54 @@
 package com.blaze.elmis.repository;
 
+import com.blaze.elmis.dto.RentalDto;
 import com.blaze.elmis.model.Rental;
 import com.blaze.elmis.model.RentalStatus; // Ensure RentalStatus is imported
 import com.blaze.elmis.model.Role; // Import Role enum
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query; // Import Query annotation
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
 
 @Repository
 public interface RentalRepository extends JpaRepository<Rental, Long> {
 
+    // Projection for listings: reads the foreign keys directly instead of hydrating Book and User per row
+    @Query(value = "SELECT new com.blaze.elmis.dto.RentalDto(r.id, r.book.id, r.user.id, r.rentalDate, r.dueDate, r.returnDate, r.status, r.createdAt, r.updatedAt, r.renewalCount) FROM Rental r",
+            countQuery = "SELECT count(r) FROM Rental r")
+    Page<RentalDto> findAllAsDto(Pageable pageable);
+
+    // Only the first of two concurrent returns of the same rental gets 1 back
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Rental r SET r.status = com.blaze.elmis.model.RentalStatus.RETURNED, r.returnDate = :now, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status <> com.blaze.elmis.model.RentalStatus.RETURNED")
+    int markReturned(@Param("id") Long id, @Param("now") LocalDateTime now);
+
+    @Query("SELECT r FROM Rental r JOIN FETCH r.book JOIN FETCH r.user WHERE r.id IN :ids")
+    List<Rental> findAllWithBookAndUserByIdIn(@Param("ids") Collection<Long> ids);
+
+    // Renewal is one conditional UPDATE; a concurrent renewal or return makes it affect no row
+    @Modifying(clearAutomatically = true)
+    @Query("UPDATE Rental r SET r.dueDate = :dueDate, r.renewalCount = :renewalCount + 1, r.updatedAt = :now " +
+            "WHERE r.id = :id AND r.status = com.blaze.elmis.model.RentalStatus.RENTED " +
+            "AND COALESCE(r.renewalCount, 0) = :renewalCount")
+    int renew(@Param("id") Long id, @Param("renewalCount") int renewalCount,
+              @Param("dueDate") LocalDateTime dueDate, @Param("now") LocalDateTime now);
+
+    long countByUserIdAndStatusNot(Long userId, RentalStatus status);
+
     List<Rental> findByStatusAndDueDateBefore(RentalStatus status, LocalDateTime dueDate);
 
+    @Query("SELECT r FROM Rental r WHERE r.status = com.blaze.elmis.model.RentalStatus.OVERDUE " +
+            "OR (r.status = com.blaze.elmis.model.RentalStatus.RENTED AND r.dueDate < :now)")
+    List<Rental> findOverdue(@Param("now") LocalDateTime now);
+
     // Method to find rentals processed by users with a specific role (e.g., EMPLOYEE)
     @Query("SELECT r FROM Rental r JOIN User u ON r.user.id = u.id WHERE u.role = :role")
     List<Rental> findByEmployeeRole(Role role);
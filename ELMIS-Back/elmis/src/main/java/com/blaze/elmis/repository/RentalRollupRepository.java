@@ -0,0 +1,130 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.dto.TimeSeriesPointDto;
+import lombok.RequiredArgsConstructor;
+import lombok.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.Timestamp;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+/** JDBC access to the rental rollup tables and the rollup job's watermark. */
+@Repository
+@RequiredArgsConstructor
+public class RentalRollupRepository {
+
+    public static final String HOURLY = "rental_rollups_hourly";
+    public static final String DAILY = "rental_rollups_daily";
+    public static final String MONTHLY = "rental_rollups_monthly";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    /** The job's watermark, row-locked until the transaction ends; the epoch before the first run. */
+    public Watermark lockWatermark(String name) {
+        jdbcTemplate.update("INSERT IGNORE INTO rollup_watermarks (name, updated_at, rental_id) VALUES (?, ?, 0)",
+                name, Timestamp.valueOf(Watermark.START.getUpdatedAt()));
+        return jdbcTemplate.queryForObject("SELECT updated_at, rental_id FROM rollup_watermarks WHERE name = ? FOR UPDATE",
+                (rs, rowNum) -> new Watermark(rs.getTimestamp(1).toLocalDateTime(), rs.getLong(2)), name);
+    }
+
+    public void saveWatermark(String name, Watermark watermark) {
+        jdbcTemplate.update("UPDATE rollup_watermarks SET updated_at = ?, rental_id = ? WHERE name = ?",
+                Timestamp.valueOf(watermark.getUpdatedAt()), watermark.getRentalId(), name);
+    }
+
+    /** Rentals changed after {@code after} and no later than {@code upTo}, in (updated_at, id) order. */
+    public List<ChangedRental> findChangedRentals(Watermark after, LocalDateTime upTo, int limit) {
+        Timestamp afterTime = Timestamp.valueOf(after.getUpdatedAt());
+        return jdbcTemplate.query("SELECT r.id, r.updated_at, r.created_at, COALESCE(r.rental_date, r.created_at), r.return_date, " +
+                        "COALESCE(b.category_id, 0), COALESCE(b.subcategory_id, 0) FROM rentals r JOIN books b ON b.id = r.book_id " +
+                        "WHERE (r.updated_at > ? OR (r.updated_at = ? AND r.id > ?)) AND r.updated_at <= ? " +
+                        "ORDER BY r.updated_at, r.id LIMIT ?",
+                (rs, rowNum) -> {
+                    Timestamp returnDate = rs.getTimestamp(5);
+                    return new ChangedRental(rs.getLong(1), rs.getTimestamp(2).toLocalDateTime(),
+                            rs.getTimestamp(3).toLocalDateTime(), rs.getTimestamp(4).toLocalDateTime(),
+                            returnDate != null ? returnDate.toLocalDateTime() : null, rs.getLong(6), rs.getLong(7));
+                },
+                afterTime, afterTime, after.getRentalId(), Timestamp.valueOf(upTo), limit);
+    }
+
+    /** Adds the deltas to {@code table}; each value is {checked out, returned}. */
+    public void addDeltas(String table, Map<RollupBucket, long[]> deltas) {
+        List<Object[]> args = new ArrayList<>(deltas.size());
+        deltas.forEach((bucket, delta) -> args.add(new Object[]{Timestamp.valueOf(bucket.getBucketStart()),
+                bucket.getCategoryId(), bucket.getSubcategoryId(), delta[0], delta[1]}));
+        jdbcTemplate.batchUpdate("INSERT INTO " + table + " (bucket_start, category_id, subcategory_id, checked_out, returned) " +
+                "VALUES (?, ?, ?, ?, ?) ON DUPLICATE KEY UPDATE checked_out = checked_out + VALUES(checked_out), " +
+                "returned = returned + VALUES(returned)", args);
+    }
+
+    /**
+     * Sums of {@code table} for buckets in {@code [from, to)}, optionally restricted to
+     * one category or subcategory and broken down by category, or by category and subcategory.
+     */
+    public List<TimeSeriesPointDto> findSeries(String table, LocalDateTime from, LocalDateTime to,
+                                               Long categoryId, Long subcategoryId, boolean byCategory, boolean bySubcategory) {
+        String groupColumns = "bucket_start"
+                + (byCategory || bySubcategory ? ", category_id" : "")
+                + (bySubcategory ? ", subcategory_id" : "");
+        StringBuilder sql = new StringBuilder("SELECT ").append(groupColumns)
+                .append(", SUM(checked_out), SUM(returned) FROM ").append(table)
+                .append(" WHERE bucket_start >= ? AND bucket_start < ?");
+        List<Object> args = new ArrayList<>();
+        args.add(Timestamp.valueOf(from));
+        args.add(Timestamp.valueOf(to));
+        if (categoryId != null) {
+            sql.append(" AND category_id = ?");
+            args.add(categoryId);
+        }
+        if (subcategoryId != null) {
+            sql.append(" AND subcategory_id = ?");
+            args.add(subcategoryId);
+        }
+        sql.append(" GROUP BY ").append(groupColumns).append(" ORDER BY ").append(groupColumns);
+        return jdbcTemplate.query(sql.toString(), (rs, rowNum) -> {
+            int column = 1;
+            TimeSeriesPointDto point = new TimeSeriesPointDto();
+            point.setBucketStart(rs.getTimestamp(column++).toLocalDateTime());
+            if (byCategory || bySubcategory) {
+                point.setCategoryId(rs.getLong(column++));
+            }
+            if (bySubcategory) {
+                point.setSubcategoryId(rs.getLong(column++));
+            }
+            point.setCheckedOut(rs.getLong(column++));
+            point.setReturned(rs.getLong(column));
+            return point;
+        }, args.toArray());
+    }
+
+    @Value
+    public static class Watermark {
+        public static final Watermark START = new Watermark(LocalDateTime.of(1970, 1, 1, 0, 0), 0);
+
+        LocalDateTime updatedAt;
+        long rentalId;
+    }
+
+    @Value
+    public static class ChangedRental {
+        long id;
+        LocalDateTime updatedAt;
+        LocalDateTime createdAt;
+        LocalDateTime rentalDate;
+        LocalDateTime returnDate;
+        long categoryId;
+        long subcategoryId;
+    }
+
+    @Value
+    public static class RollupBucket {
+        LocalDateTime bucketStart;
+        long categoryId;
+        long subcategoryId;
+    }
+}
@@ -0,0 +1,12 @@
+package com.blaze.elmis.repository;
+
+import com.blaze.elmis.model.UserRentalProjection;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import java.util.List;
+
+public interface UserRentalProjectionRepository extends JpaRepository<UserRentalProjection, Long> {
+
+    List<UserRentalProjection> findByActiveRentalsGreaterThanOrderByActiveRentalsDesc(Long activeRentals, Pageable pageable);
+}
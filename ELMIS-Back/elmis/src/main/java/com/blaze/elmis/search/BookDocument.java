@@ -0,0 +1,47 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.model.Book;
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Immutable, detached snapshot of the searchable parts of a {@link Book}.
+ * The in-memory catalog indexes only ever see these, never managed entities.
+ */
+@Value
+@Builder(toBuilder = true)
+public class BookDocument {
+    Long id;
+    String title;
+    String author;
+    String publisher;
+    String isbn;
+    Integer publicationYear;
+    Long categoryId;
+    String categoryName;
+    Long subcategoryId;
+    String subcategoryName;
+    int quantity;
+    int availableQuantity;
+    double avgRating;
+    int totalReviews;
+
+    public static BookDocument from(Book book) {
+        return BookDocument.builder()
+                .id(book.getId())
+                .title(book.getTitle())
+                .author(book.getAuthor())
+                .publisher(book.getPublisher())
+                .isbn(book.getIsbn())
+                .publicationYear(book.getPublicationYear())
+                .categoryId(book.getCategory() != null ? book.getCategory().getId() : null)
+                .categoryName(book.getCategory() != null ? book.getCategory().getName() : null)
+                .subcategoryId(book.getSubcategory() != null ? book.getSubcategory().getId() : null)
+                .subcategoryName(book.getSubcategory() != null ? book.getSubcategory().getName() : null)
+                .quantity(book.getQuantity() != null ? book.getQuantity() : 0)
+                .availableQuantity(book.getAvailableQuantity() != null ? book.getAvailableQuantity() : 0)
+                .avgRating(book.getAvgRating() != null ? book.getAvgRating() : 0.0)
+                .totalReviews(book.getTotalReviews() != null ? book.getTotalReviews() : 0)
+                .build();
+    }
+}
@@ -0,0 +1,243 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.dto.BookFacetsDto;
+import com.blaze.elmis.dto.FacetValueDto;
+import org.roaringbitmap.RoaringBitmap;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.Function;
+
+/**
+ * Compressed bitmaps of book ids per category, subcategory, publisher,
+ * publication decade and availability. Facet counts for any filter are
+ * bitmap intersections, so the catalog screen gets all of them from memory.
+ */
+@Component
+@Order(3)
+public class BookFacetIndex implements CatalogIndex {
+
+    public static final String AVAILABLE = "available";
+    public static final String UNAVAILABLE = "unavailable";
+    private static final String UNKNOWN_YEAR = "unknown";
+
+    private final RoaringBitmap all = new RoaringBitmap();
+    private final Map<Long, RoaringBitmap> byCategory = new HashMap<>();
+    private final Map<Long, RoaringBitmap> bySubcategory = new HashMap<>();
+    private final Map<String, RoaringBitmap> byPublisher = new HashMap<>();
+    private final Map<String, RoaringBitmap> byYearBucket = new HashMap<>();
+    private final Map<String, RoaringBitmap> byAvailability = new HashMap<>();
+
+    private final Map<Long, String> categoryNames = new HashMap<>();
+    private final Map<Long, String> subcategoryNames = new HashMap<>();
+    private final Map<String, String> publisherNames = new HashMap<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(Collection<BookDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            all.clear();
+            byCategory.clear();
+            bySubcategory.clear();
+            byPublisher.clear();
+            byYearBucket.clear();
+            byAvailability.clear();
+            categoryNames.clear();
+            subcategoryNames.clear();
+            publisherNames.clear();
+            for (BookDocument document : documents) {
+                add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(BookDocument previous, BookDocument current) {
+        if (previous != null && sameFacets(previous, current)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                delete(previous);
+            }
+            add(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(BookDocument previous) {
+        lock.writeLock().lock();
+        try {
+            delete(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /**
+     * Books matching every given criterion; {@code null} arguments are ignored.
+     * {@code candidates} usually comes from the text index.
+     */
+    public RoaringBitmap filter(Set<Long> candidates, Long categoryId, Long subcategoryId, Boolean available) {
+        lock.readLock().lock();
+        try {
+            RoaringBitmap result = all.clone();
+            if (candidates != null) {
+                result.and(toBitmap(candidates));
+            }
+            if (categoryId != null) {
+                result.and(byCategory.getOrDefault(categoryId, new RoaringBitmap()));
+            }
+            if (subcategoryId != null) {
+                result.and(bySubcategory.getOrDefault(subcategoryId, new RoaringBitmap()));
+            }
+            if (available != null) {
+                result.and(byAvailability.getOrDefault(available ? AVAILABLE : UNAVAILABLE, new RoaringBitmap()));
+            }
+            return result;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public BookFacetsDto facets(RoaringBitmap filter) {
+        lock.readLock().lock();
+        try {
+            return BookFacetsDto.builder()
+                    .total(filter.getLongCardinality())
+                    .categories(counts(byCategory, filter, categoryNames::get))
+                    .subcategories(counts(bySubcategory, filter, subcategoryNames::get))
+                    .publishers(counts(byPublisher, filter, publisherNames::get))
+                    .publicationYears(counts(byYearBucket, filter, bucket -> bucket))
+                    .availability(counts(byAvailability, filter, status -> status))
+                    .build();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static <K> List<FacetValueDto> counts(Map<K, RoaringBitmap> bitmaps, RoaringBitmap filter, Function<K, String> label) {
+        List<FacetValueDto> values = new ArrayList<>();
+        for (Map.Entry<K, RoaringBitmap> entry : bitmaps.entrySet()) {
+            long count = RoaringBitmap.andCardinality(entry.getValue(), filter);
+            if (count > 0) {
+                values.add(FacetValueDto.builder()
+                        .key(String.valueOf(entry.getKey()))
+                        .label(label.apply(entry.getKey()))
+                        .count(count)
+                        .build());
+            }
+        }
+        values.sort(Comparator.comparingLong(FacetValueDto::getCount).reversed()
+                .thenComparing(FacetValueDto::getKey));
+        return values;
+    }
+
+    public static RoaringBitmap toBitmap(Collection<Long> ids) {
+        RoaringBitmap bitmap = new RoaringBitmap();
+        for (Long id : ids) {
+            bitmap.add(ordinal(id));
+        }
+        return bitmap;
+    }
+
+    private static int ordinal(Long id) {
+        return Math.toIntExact(id);
+    }
+
+    // Decade buckets keep the year facet short: "1990s", "2000s", ...
+    private static String yearBucket(Integer year) {
+        return year == null ? UNKNOWN_YEAR : (year / 10 * 10) + "s";
+    }
+
+    private static String publisherKey(String publisher) {
+        return TextAnalyzer.normalize(publisher);
+    }
+
+    private void add(BookDocument document) {
+        int ordinal = ordinal(document.getId());
+        all.add(ordinal);
+        if (document.getCategoryId() != null) {
+            byCategory.computeIfAbsent(document.getCategoryId(), k -> new RoaringBitmap()).add(ordinal);
+            if (document.getCategoryName() != null) {
+                categoryNames.put(document.getCategoryId(), document.getCategoryName());
+            }
+        }
+        if (document.getSubcategoryId() != null) {
+            bySubcategory.computeIfAbsent(document.getSubcategoryId(), k -> new RoaringBitmap()).add(ordinal);
+            if (document.getSubcategoryName() != null) {
+                subcategoryNames.put(document.getSubcategoryId(), document.getSubcategoryName());
+            }
+        }
+        String publisher = publisherKey(document.getPublisher());
+        if (!publisher.isEmpty()) {
+            byPublisher.computeIfAbsent(publisher, k -> new RoaringBitmap()).add(ordinal);
+            publisherNames.put(publisher, document.getPublisher().trim());
+        }
+        byYearBucket.computeIfAbsent(yearBucket(document.getPublicationYear()), k -> new RoaringBitmap()).add(ordinal);
+        byAvailability.computeIfAbsent(availability(document), k -> new RoaringBitmap()).add(ordinal);
+    }
+
+    private void delete(BookDocument document) {
+        int ordinal = ordinal(document.getId());
+        all.remove(ordinal);
+        if (removeFrom(byCategory, document.getCategoryId(), ordinal)) {
+            categoryNames.remove(document.getCategoryId());
+        }
+        if (removeFrom(bySubcategory, document.getSubcategoryId(), ordinal)) {
+            subcategoryNames.remove(document.getSubcategoryId());
+        }
+        String publisher = publisherKey(document.getPublisher());
+        if (removeFrom(byPublisher, publisher, ordinal)) {
+            publisherNames.remove(publisher);
+        }
+        removeFrom(byYearBucket, yearBucket(document.getPublicationYear()), ordinal);
+        removeFrom(byAvailability, availability(document), ordinal);
+    }
+
+    /** Returns true when that was the last book under {@code key}, so its label can go too. */
+    private static <K> boolean removeFrom(Map<K, RoaringBitmap> bitmaps, K key, int ordinal) {
+        if (key == null) {
+            return false;
+        }
+        RoaringBitmap bitmap = bitmaps.get(key);
+        if (bitmap != null) {
+            bitmap.remove(ordinal);
+            if (bitmap.isEmpty()) {
+                bitmaps.remove(key);
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private static String availability(BookDocument document) {
+        return document.getAvailableQuantity() > 0 ? AVAILABLE : UNAVAILABLE;
+    }
+
+    private static boolean sameFacets(BookDocument a, BookDocument b) {
+        return Objects.equals(a.getCategoryId(), b.getCategoryId())
+                && Objects.equals(a.getSubcategoryId(), b.getSubcategoryId())
+                && Objects.equals(a.getCategoryName(), b.getCategoryName())
+                && Objects.equals(a.getSubcategoryName(), b.getSubcategoryName())
+                && Objects.equals(a.getPublisher(), b.getPublisher())
+                && Objects.equals(yearBucket(a.getPublicationYear()), yearBucket(b.getPublicationYear()))
+                && availability(a).equals(availability(b));
+    }
+}
@@ -0,0 +1,128 @@
+package com.blaze.elmis.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.function.Predicate;
+
+/**
+ * BM25 relevance over the inverted index. Each query token is scored per
+ * field (title weighs most, then author, then publisher), ties are broken by
+ * average rating and then by review count, and only the best K books are
+ * kept in a bounded heap instead of sorting every match.
+ */
+@Component
+@RequiredArgsConstructor
+public class BookRelevanceRanker {
+
+    private static final double K1 = 1.2;
+    private static final double B = 0.75;
+    private static final Map<BookSearchIndex.Field, Double> FIELD_WEIGHTS = new EnumMap<>(BookSearchIndex.Field.class);
+
+    static {
+        FIELD_WEIGHTS.put(BookSearchIndex.Field.TITLE, 3.0);
+        FIELD_WEIGHTS.put(BookSearchIndex.Field.AUTHOR, 2.0);
+        FIELD_WEIGHTS.put(BookSearchIndex.Field.PUBLISHER, 1.0);
+    }
+
+    private static final Comparator<Scored> ORDER = Comparator
+            .comparingDouble(Scored::getScore)
+            .thenComparingDouble(scored -> scored.getDocument().getAvgRating())
+            .thenComparingInt(scored -> scored.getDocument().getTotalReviews())
+            .thenComparing(scored -> scored.getDocument().getId(), Comparator.reverseOrder());
+
+    private final BookSearchIndex bookSearchIndex;
+    private final CatalogIndexer catalogIndexer;
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Result {
+        private final List<Long> topIds;   // best first, at most K
+        private final int totalMatches;    // every match that passed the filter
+    }
+
+    @Getter
+    @RequiredArgsConstructor
+    private static class Scored {
+        private final BookDocument document;
+        private final double score;
+    }
+
+    public Result rank(String text, int topK, Predicate<BookDocument> filter) {
+        List<String> queryTokens = TextAnalyzer.tokenize(text);
+        if (queryTokens.isEmpty() || topK <= 0) {
+            return new Result(Collections.<Long>emptyList(), 0);
+        }
+        Set<Long> candidates = bookSearchIndex.matchAnyField(text);
+        int totalDocuments = catalogIndexer.documents().size();
+
+        // Collection statistics are looked up once per query, not per candidate
+        Map<BookSearchIndex.Field, double[]> idf = new EnumMap<>(BookSearchIndex.Field.class);
+        Map<BookSearchIndex.Field, Double> averageLength = new EnumMap<>(BookSearchIndex.Field.class);
+        for (BookSearchIndex.Field field : FIELD_WEIGHTS.keySet()) {
+            double[] fieldIdf = new double[queryTokens.size()];
+            for (int i = 0; i < queryTokens.size(); i++) {
+                int df = bookSearchIndex.documentFrequency(field, queryTokens.get(i));
+                fieldIdf[i] = Math.log(1 + (totalDocuments - df + 0.5) / (df + 0.5));
+            }
+            idf.put(field, fieldIdf);
+            averageLength.put(field, Math.max(1.0, bookSearchIndex.averageLength(field)));
+        }
+
+        PriorityQueue<Scored> best = new PriorityQueue<>(topK + 1, ORDER);
+        int totalMatches = 0;
+        for (Long id : candidates) {
+            BookDocument document = catalogIndexer.get(id);
+            if (document == null || !filter.test(document)) {
+                continue;
+            }
+            totalMatches++;
+            best.offer(new Scored(document, score(document, queryTokens, idf, averageLength)));
+            if (best.size() > topK) {
+                best.poll();
+            }
+        }
+
+        List<Scored> ranked = new ArrayList<>(best);
+        ranked.sort(ORDER.reversed());
+        List<Long> topIds = new ArrayList<>(ranked.size());
+        for (Scored scored : ranked) {
+            topIds.add(scored.getDocument().getId());
+        }
+        return new Result(topIds, totalMatches);
+    }
+
+    private static double score(BookDocument document, List<String> queryTokens,
+                                Map<BookSearchIndex.Field, double[]> idf, Map<BookSearchIndex.Field, Double> averageLength) {
+        double score = 0.0;
+        for (Map.Entry<BookSearchIndex.Field, Double> weight : FIELD_WEIGHTS.entrySet()) {
+            BookSearchIndex.Field field = weight.getKey();
+            List<String> fieldTokens = BookSearchIndex.tokens(field, document);
+            if (fieldTokens.isEmpty()) {
+                continue;
+            }
+            double lengthNorm = 1 - B + B * fieldTokens.size() / averageLength.get(field);
+            for (int i = 0; i < queryTokens.size(); i++) {
+                int tf = 0;
+                for (String token : fieldTokens) {
+                    if (token.startsWith(queryTokens.get(i))) {
+                        tf++;
+                    }
+                }
+                if (tf > 0) {
+                    score += weight.getValue() * idf.get(field)[i] * tf * (K1 + 1) / (tf + K1 * lengthNorm);
+                }
+            }
+        }
+        return score;
+    }
+}
@@ -0,0 +1,247 @@
+package com.blaze.elmis.search;
+
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Objects;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.regex.Pattern;
+
+/**
+ * Tokenized inverted index over title, author, publisher and ISBN.
+ * Each query token matches every indexed token it is a prefix of, so
+ * "tolk" finds "Tolkien" without scanning the books table; "kien" does not,
+ * as it starts no word. {@link com.blaze.elmis.spec.BookSpecification} has the
+ * SQL form of the same matching for when the index cannot answer.
+ */
+@Component
+@Order(0)
+public class BookSearchIndex implements CatalogIndex {
+
+    public enum Field {
+        TITLE, AUTHOR, PUBLISHER, ISBN
+    }
+
+    private static final Pattern ISBN_QUERY = Pattern.compile("[0-9][0-9 -]*[0-9Xx]");
+    private static final int MIN_ISBN_PREFIX = 4;
+
+    private final Map<Field, NavigableMap<String, Set<Long>>> postings = new EnumMap<>(Field.class);
+    private final Map<Field, long[]> fieldLengths = new EnumMap<>(Field.class); // {total tokens, documents}
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    public BookSearchIndex() {
+        for (Field field : Field.values()) {
+            postings.put(field, new TreeMap<>());
+            fieldLengths.put(field, new long[2]);
+        }
+    }
+
+    @Override
+    public void rebuild(Collection<BookDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            postings.values().forEach(Map::clear);
+            fieldLengths.values().forEach(lengths -> Arrays.fill(lengths, 0L));
+            for (BookDocument document : documents) {
+                add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(BookDocument previous, BookDocument current) {
+        if (previous != null && sameText(previous, current)) {
+            return; // only stock or rating changed
+        }
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                delete(previous);
+            }
+            add(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(BookDocument previous) {
+        lock.writeLock().lock();
+        try {
+            delete(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Books whose given field contains every token of {@code text}. */
+    public Set<Long> match(Field field, String text) {
+        List<String> tokens = queryTokens(field, text);
+        lock.readLock().lock();
+        try {
+            Set<Long> result = null;
+            for (String token : tokens) {
+                Set<Long> hits = prefixUnion(postings.get(field), token, null);
+                result = intersect(result, hits);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            return result != null ? result : Collections.emptySet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /**
+     * Books where every token of {@code text} appears in at least one indexed field.
+     * A query that is an ISBN as a whole (digits, hyphens, spaces) also matches the
+     * ISBN it spells out, which its hyphen-split tokens alone would not.
+     */
+    public Set<Long> matchAnyField(String text) {
+        List<String> tokens = TextAnalyzer.tokenize(text);
+        String isbn = isIsbnQuery(text) ? TextAnalyzer.normalizeIsbn(text) : null;
+        lock.readLock().lock();
+        try {
+            Set<Long> result = null;
+            for (String token : tokens) {
+                Set<Long> hits = new HashSet<>();
+                for (Field field : Field.values()) {
+                    prefixUnion(postings.get(field), token, hits);
+                }
+                result = intersect(result, hits);
+                if (result.isEmpty()) {
+                    break;
+                }
+            }
+            if (isbn != null) {
+                Set<Long> isbnHits = prefixUnion(postings.get(Field.ISBN), isbn, null);
+                if (result == null) {
+                    result = isbnHits;
+                } else {
+                    result.addAll(isbnHits);
+                }
+            }
+            return result != null ? result : Collections.emptySet();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Number of books with at least one token in {@code field} starting with {@code prefix}. */
+    public int documentFrequency(Field field, String prefix) {
+        lock.readLock().lock();
+        try {
+            return prefixUnion(postings.get(field), prefix, null).size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    /** Average number of tokens in {@code field} over the books that have the field at all. */
+    public double averageLength(Field field) {
+        lock.readLock().lock();
+        try {
+            long[] lengths = fieldLengths.get(field);
+            return lengths[1] == 0 ? 0.0 : (double) lengths[0] / lengths[1];
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    public static List<String> tokens(Field field, BookDocument document) {
+        switch (field) {
+            case TITLE:
+                return TextAnalyzer.tokenize(document.getTitle());
+            case AUTHOR:
+                return TextAnalyzer.tokenize(document.getAuthor());
+            case PUBLISHER:
+                return TextAnalyzer.tokenize(document.getPublisher());
+            default:
+                String isbn = TextAnalyzer.normalizeIsbn(document.getIsbn());
+                return isbn.isEmpty() ? Collections.<String>emptyList() : Collections.singletonList(isbn);
+        }
+    }
+
+    public static boolean isIsbnQuery(String text) {
+        return text != null && ISBN_QUERY.matcher(text.trim()).matches()
+                && TextAnalyzer.normalizeIsbn(text).length() >= MIN_ISBN_PREFIX;
+    }
+
+    private static List<String> queryTokens(Field field, String text) {
+        if (field == Field.ISBN) {
+            String isbn = TextAnalyzer.normalizeIsbn(text);
+            return isbn.isEmpty() ? Collections.<String>emptyList() : Collections.singletonList(isbn);
+        }
+        return TextAnalyzer.tokenize(text);
+    }
+
+    private void add(BookDocument document) {
+        for (Field field : Field.values()) {
+            NavigableMap<String, Set<Long>> fieldPostings = postings.get(field);
+            List<String> tokens = tokens(field, document);
+            for (String token : tokens) {
+                fieldPostings.computeIfAbsent(token, t -> new HashSet<>()).add(document.getId());
+            }
+            updateLengths(field, tokens.size(), 1);
+        }
+    }
+
+    private void updateLengths(Field field, int tokenCount, int sign) {
+        if (tokenCount > 0) {
+            long[] lengths = fieldLengths.get(field);
+            lengths[0] += sign * tokenCount;
+            lengths[1] += sign;
+        }
+    }
+
+    private void delete(BookDocument document) {
+        for (Field field : Field.values()) {
+            NavigableMap<String, Set<Long>> fieldPostings = postings.get(field);
+            List<String> tokens = tokens(field, document);
+            updateLengths(field, tokens.size(), -1);
+            for (String token : tokens) {
+                Set<Long> ids = fieldPostings.get(token);
+                if (ids != null && ids.remove(document.getId()) && ids.isEmpty()) {
+                    fieldPostings.remove(token);
+                }
+            }
+        }
+    }
+
+    private static Set<Long> prefixUnion(NavigableMap<String, Set<Long>> fieldPostings, String prefix, Set<Long> into) {
+        Set<Long> result = into != null ? into : new HashSet<>();
+        for (Set<Long> ids : fieldPostings.subMap(prefix, true, prefix + Character.MAX_VALUE, false).values()) {
+            result.addAll(ids);
+        }
+        return result;
+    }
+
+    private static Set<Long> intersect(Set<Long> accumulated, Set<Long> hits) {
+        if (accumulated == null) {
+            return hits;
+        }
+        accumulated.retainAll(hits);
+        return accumulated;
+    }
+
+    private static boolean sameText(BookDocument a, BookDocument b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getAuthor(), b.getAuthor())
+                && Objects.equals(a.getPublisher(), b.getPublisher())
+                && Objects.equals(a.getIsbn(), b.getIsbn());
+    }
+}
@@ -0,0 +1,22 @@
+package com.blaze.elmis.search;
+
+import java.util.Collection;
+
+/**
+ * An in-memory structure derived from the book catalog. Implementations are
+ * discovered by {@link CatalogIndexer}, which feeds them the full catalog at
+ * startup and every committed change afterwards. Calls are serialized by the
+ * indexer, so implementations only need to make their reads thread-safe.
+ */
+public interface CatalogIndex {
+
+    void rebuild(Collection<BookDocument> documents);
+
+    /**
+     * @param previous the document as it was indexed before, or {@code null} for a new book
+     * @param current  the document as it is now
+     */
+    void put(BookDocument previous, BookDocument current);
+
+    void remove(BookDocument previous);
+}
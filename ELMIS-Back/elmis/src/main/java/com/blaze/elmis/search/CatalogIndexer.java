@@ -0,0 +1,130 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.model.Book;
+import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Owns the detached copy of the catalog and fans every committed book change
+ * out to the registered {@link CatalogIndex} implementations.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class CatalogIndexer {
+
+    private static final int LOAD_CHUNK_SIZE = 1000;
+
+    private final BookRepository bookRepository;
+    private final List<CatalogIndex> indexes;
+
+    private final Map<Long, BookDocument> documents = new ConcurrentHashMap<>();
+    private volatile boolean ready;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rebuild();
+    }
+
+    /** Reloads the whole catalog in id order, one chunk at a time. */
+    public synchronized void rebuild() {
+        long start = System.currentTimeMillis();
+        List<BookDocument> loaded = new ArrayList<>();
+        long afterId = 0L;
+        List<Book> chunk;
+        do {
+            chunk = bookRepository.findCatalogChunk(afterId, PageRequest.of(0, LOAD_CHUNK_SIZE));
+            for (Book book : chunk) {
+                loaded.add(BookDocument.from(book));
+                afterId = book.getId();
+            }
+        } while (chunk.size() == LOAD_CHUNK_SIZE);
+
+        documents.clear();
+        for (BookDocument document : loaded) {
+            documents.put(document.getId(), document);
+        }
+        Collection<BookDocument> snapshot = Collections.unmodifiableCollection(loaded);
+        for (CatalogIndex index : indexes) {
+            index.rebuild(snapshot);
+        }
+        ready = true;
+        log.info("Catalog indexes built for {} books in {} ms", loaded.size(), System.currentTimeMillis() - start);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public BookDocument get(Long bookId) {
+        return documents.get(bookId);
+    }
+
+    public Collection<BookDocument> documents() {
+        return Collections.unmodifiableCollection(documents.values());
+    }
+
+    /** Indexes the saved state of {@code book} once the surrounding transaction commits. */
+    public void indexBook(Book book) {
+        BookDocument document = BookDocument.from(book);
+        TransactionCallbacks.afterCommit(() -> apply(document));
+    }
+
+    public void indexBooks(Collection<Book> books) {
+        List<BookDocument> batch = new ArrayList<>(books.size());
+        for (Book book : books) {
+            batch.add(BookDocument.from(book));
+        }
+        TransactionCallbacks.afterCommit(() -> batch.forEach(this::apply));
+    }
+
+    public void removeBook(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> applyRemoval(bookId));
+    }
+
+    /**
+     * Cheap path for stock changes from circulation, which never touch the searchable text.
+     * Takes a delta because check-outs and returns update the row in SQL without reading it back.
+     */
+    public void adjustAvailability(Long bookId, int delta) {
+        TransactionCallbacks.afterCommit(() -> applyAvailability(bookId, delta));
+    }
+
+    private synchronized void applyAvailability(Long bookId, int delta) {
+        BookDocument previous = documents.get(bookId);
+        if (previous != null && delta != 0) {
+            int availableQuantity = Math.max(0, previous.getAvailableQuantity() + delta);
+            apply(previous.toBuilder().availableQuantity(availableQuantity).build());
+        }
+    }
+
+    private synchronized void apply(BookDocument current) {
+        BookDocument previous = documents.put(current.getId(), current);
+        for (CatalogIndex index : indexes) {
+            index.put(previous, current);
+        }
+    }
+
+    private synchronized void applyRemoval(Long bookId) {
+        BookDocument previous = documents.remove(bookId);
+        if (previous == null) {
+            return;
+        }
+        for (CatalogIndex index : indexes) {
+            index.remove(previous);
+        }
+    }
+}
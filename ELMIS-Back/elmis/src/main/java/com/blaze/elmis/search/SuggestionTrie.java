@@ -0,0 +1,315 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.dto.BookSuggestionDto;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+/**
+ * Path-compressed prefix trie (radix tree) over normalized titles, authors and
+ * publishers that returns the most popular completions first. Every node caches
+ * the best weight found in its subtree, so a top-N lookup is a best-first walk
+ * that touches roughly N root-to-leaf paths instead of the whole subtree below
+ * the prefix. A chain of single-child nodes is stored as one edge label, so a
+ * node exists only where keys branch or end; children are kept in sorted
+ * parallel arrays that all start out as the same shared empty arrays.
+ */
+@Component
+@Order(2)
+public class SuggestionTrie implements CatalogIndex {
+
+    public enum Type {
+        TITLE, AUTHOR, PUBLISHER
+    }
+
+    private Node root = new Node("");
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Override
+    public void rebuild(Collection<BookDocument> documents) {
+        Node fresh = new Node("");
+        for (BookDocument document : documents) {
+            apply(fresh, document, 1);
+        }
+        lock.writeLock().lock();
+        try {
+            root = fresh;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(BookDocument previous, BookDocument current) {
+        if (previous != null && sameEntries(previous, current)) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                apply(root, previous, -1);
+            }
+            apply(root, current, 1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(BookDocument previous) {
+        lock.writeLock().lock();
+        try {
+            apply(root, previous, -1);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        String key = TextAnalyzer.normalize(prefix);
+        if (key.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            // The prefix may end inside an edge; everything below that edge still completes it
+            Node node = root;
+            int matched = 0;
+            while (matched < key.length()) {
+                node = node.child(key.charAt(matched));
+                if (node == null) {
+                    return Collections.emptyList();
+                }
+                int length = Math.min(node.edge.length(), key.length() - matched);
+                if (!key.regionMatches(matched, node.edge, 0, length)) {
+                    return Collections.emptyList();
+                }
+                matched += length;
+            }
+
+            // Nodes are queued by their subtree best, entries by their own weight
+            PriorityQueue<Object[]> frontier = new PriorityQueue<>((a, b) -> Long.compare((long) b[0], (long) a[0]));
+            frontier.add(new Object[]{node.best, node});
+            List<BookSuggestionDto> suggestions = new ArrayList<>(limit);
+            while (!frontier.isEmpty() && suggestions.size() < limit) {
+                Object item = frontier.poll()[1];
+                if (item instanceof Entry) {
+                    suggestions.add(((Entry) item).toDto());
+                    continue;
+                }
+                Node current = (Node) item;
+                if (current.entry != null) {
+                    frontier.add(new Object[]{current.entry.total(), current.entry});
+                }
+                for (int i = 0; i < current.size; i++) {
+                    frontier.add(new Object[]{current.children[i].best, current.children[i]});
+                }
+            }
+            return suggestions;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private static void apply(Node root, BookDocument document, int sign) {
+        long weight = sign * popularity(document);
+        update(root, document.getTitle(), Type.TITLE, weight);
+        update(root, document.getAuthor(), Type.AUTHOR, weight);
+        update(root, document.getPublisher(), Type.PUBLISHER, weight);
+    }
+
+    // Reviewed books are the ones patrons look for; every book counts at least once
+    private static long popularity(BookDocument document) {
+        return 1L + Math.max(0, document.getTotalReviews());
+    }
+
+    private static void update(Node root, String text, Type type, long delta) {
+        String key = TextAnalyzer.normalize(text);
+        if (key.isEmpty()) {
+            return;
+        }
+        List<Node> path = new ArrayList<>();
+        path.add(root);
+        Node node = root;
+        int i = 0;
+        while (i < key.length()) {
+            Node next = node.child(key.charAt(i));
+            if (next == null) {
+                if (delta < 0) {
+                    return; // nothing indexed under this key
+                }
+                next = node.addChild(key.substring(i));
+            } else {
+                int common = commonPrefix(next.edge, key, i);
+                if (common < next.edge.length()) {
+                    if (delta < 0) {
+                        return;
+                    }
+                    next = node.split(next, common);
+                }
+            }
+            path.add(next);
+            node = next;
+            i += node.edge.length();
+        }
+
+        if (node.entry == null) {
+            node.entry = new Entry(text.trim());
+        }
+        node.entry.weights[type.ordinal()] += delta;
+        if (node.entry.total() <= 0) {
+            node.entry = null;
+        }
+
+        // Recompute cached subtree maxima bottom-up, prune emptied branches and
+        // re-join edges around nodes that no longer branch or end a key
+        for (int j = path.size() - 1; j >= 0; j--) {
+            Node current = path.get(j);
+            if (j > 0 && current.entry == null && current.size == 0) {
+                path.get(j - 1).removeChild(current.edge.charAt(0));
+                continue;
+            }
+            if (j > 0 && current.entry == null && current.size == 1) {
+                current.absorbOnlyChild();
+            }
+            current.recomputeBest();
+        }
+    }
+
+    private static int commonPrefix(String edge, String key, int offset) {
+        int max = Math.min(edge.length(), key.length() - offset);
+        int length = 0;
+        while (length < max && edge.charAt(length) == key.charAt(offset + length)) {
+            length++;
+        }
+        return length;
+    }
+
+    private static boolean sameEntries(BookDocument a, BookDocument b) {
+        return Objects.equals(a.getTitle(), b.getTitle())
+                && Objects.equals(a.getAuthor(), b.getAuthor())
+                && Objects.equals(a.getPublisher(), b.getPublisher())
+                && popularity(a) == popularity(b);
+    }
+
+    private static final class Entry {
+        private final String text;
+        private final long[] weights = new long[Type.values().length];
+
+        Entry(String text) {
+            this.text = text;
+        }
+
+        long total() {
+            long total = 0;
+            for (long weight : weights) {
+                total += weight;
+            }
+            return total;
+        }
+
+        BookSuggestionDto toDto() {
+            int dominant = 0;
+            for (int i = 1; i < weights.length; i++) {
+                if (weights[i] > weights[dominant]) {
+                    dominant = i;
+                }
+            }
+            return BookSuggestionDto.builder()
+                    .text(text)
+                    .type(Type.values()[dominant].name())
+                    .weight(total())
+                    .build();
+        }
+    }
+
+    private static final class Node {
+        private static final char[] NO_LABELS = new char[0];
+        private static final Node[] NO_CHILDREN = new Node[0];
+
+        // Label of the edge leading here; empty for the root only
+        private String edge;
+        private char[] labels = NO_LABELS;
+        private Node[] children = NO_CHILDREN;
+        private int size;
+        private Entry entry;
+        private long best;
+
+        Node(String edge) {
+            this.edge = edge;
+        }
+
+        Node child(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            return index >= 0 ? children[index] : null;
+        }
+
+        Node addChild(String childEdge) {
+            Node child = new Node(childEdge);
+            insert(child);
+            return child;
+        }
+
+        /** Puts a new node holding the first {@code length} chars of {@code child}'s edge between the two. */
+        Node split(Node child, int length) {
+            Node middle = new Node(child.edge.substring(0, length));
+            child.edge = child.edge.substring(length);
+            children[Arrays.binarySearch(labels, 0, size, middle.edge.charAt(0))] = middle;
+            middle.insert(child);
+            middle.best = child.best;
+            return middle;
+        }
+
+        /** Merges the only child into this node, joining the two edges. */
+        void absorbOnlyChild() {
+            Node only = children[0];
+            edge = edge + only.edge;
+            labels = only.labels;
+            children = only.children;
+            size = only.size;
+            entry = only.entry;
+        }
+
+        void removeChild(char label) {
+            int index = Arrays.binarySearch(labels, 0, size, label);
+            if (index < 0) {
+                return;
+            }
+            System.arraycopy(labels, index + 1, labels, index, size - index - 1);
+            System.arraycopy(children, index + 1, children, index, size - index - 1);
+            children[--size] = null;
+        }
+
+        void recomputeBest() {
+            long max = entry != null ? entry.total() : 0;
+            for (int i = 0; i < size; i++) {
+                max = Math.max(max, children[i].best);
+            }
+            best = max;
+        }
+
+        private void insert(Node child) {
+            char label = child.edge.charAt(0);
+            int index = -(Arrays.binarySearch(labels, 0, size, label) + 1);
+            if (size == labels.length) {
+                int capacity = Math.max(1, size * 2);
+                labels = Arrays.copyOf(labels, capacity);
+                children = Arrays.copyOf(children, capacity);
+            }
+            System.arraycopy(labels, index, labels, index + 1, size - index);
+            System.arraycopy(children, index, children, index + 1, size - index);
+            labels[index] = label;
+            children[index] = child;
+            size++;
+        }
+    }
+}
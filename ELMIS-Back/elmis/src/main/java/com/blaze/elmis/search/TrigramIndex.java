@@ -0,0 +1,253 @@
+package com.blaze.elmis.search;
+
+import lombok.Getter;
+import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.concurrent.locks.ReadWriteLock;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.function.LongPredicate;
+
+/**
+ * Trigram index over book titles and authors for typo-tolerant search.
+ * A book's score is the share of the query's trigrams found in its title or
+ * author (whichever is higher), so "tolkein" still ranks "Tolkien" first.
+ * Books are addressed by dense int ordinals so scoring runs over flat arrays.
+ */
+@Component
+@Order(1)
+public class TrigramIndex implements CatalogIndex {
+
+    private static final Comparator<Match> BY_SCORE = Comparator
+            .comparingDouble(Match::getScore)
+            .thenComparingDouble(Match::getJaccard)
+            .thenComparing(Match::getBookId, Comparator.reverseOrder());
+
+    @Value("${elmis.search.fuzzy.min-similarity:0.4}")
+    private double minSimilarity;
+
+    private final Map<String, IntPostings> titleGrams = new HashMap<>();
+    private final Map<String, IntPostings> authorGrams = new HashMap<>();
+    private final Map<Long, Integer> ordinals = new HashMap<>();
+    private long[] bookIds = new long[1024];
+    private int[] titleGramCounts = new int[1024];
+    private int[] authorGramCounts = new int[1024];
+    private int nextOrdinal;
+    private final Deque<Integer> freeOrdinals = new ArrayDeque<>();
+    private final ReadWriteLock lock = new ReentrantReadWriteLock();
+
+    @Getter
+    @RequiredArgsConstructor
+    public static class Match {
+        private final Long bookId;
+        private final double score;
+        private final double jaccard;
+    }
+
+    @Override
+    public void rebuild(Collection<BookDocument> documents) {
+        lock.writeLock().lock();
+        try {
+            titleGrams.clear();
+            authorGrams.clear();
+            ordinals.clear();
+            freeOrdinals.clear();
+            nextOrdinal = 0;
+            for (BookDocument document : documents) {
+                add(document);
+            }
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void put(BookDocument previous, BookDocument current) {
+        if (previous != null && Objects.equals(previous.getTitle(), current.getTitle())
+                && Objects.equals(previous.getAuthor(), current.getAuthor())) {
+            return;
+        }
+        lock.writeLock().lock();
+        try {
+            if (previous != null) {
+                delete(previous);
+            }
+            add(current);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Override
+    public void remove(BookDocument previous) {
+        lock.writeLock().lock();
+        try {
+            delete(previous);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    /** Best {@code limit} matches for {@code text}, most similar first. */
+    public List<Match> search(String text, int limit) {
+        return search(text, limit, bookId -> true);
+    }
+
+    /**
+     * Best {@code limit} matches among the books {@code filter} accepts. The filter is
+     * applied while scoring, so the limit counts only books that pass it.
+     */
+    public List<Match> search(String text, int limit, LongPredicate filter) {
+        Set<String> queryGrams = trigrams(text);
+        if (queryGrams.isEmpty() || limit <= 0) {
+            return Collections.emptyList();
+        }
+        lock.readLock().lock();
+        try {
+            int[] titleShared = new int[nextOrdinal];
+            int[] authorShared = new int[nextOrdinal];
+            IntPostings touched = new IntPostings();
+            for (String gram : queryGrams) {
+                accumulate(titleGrams.get(gram), titleShared, authorShared, touched);
+                accumulate(authorGrams.get(gram), authorShared, titleShared, touched);
+            }
+
+            // Bounded min-heap: the weakest of the current top matches sits on top
+            PriorityQueue<Match> best = new PriorityQueue<>(limit + 1, BY_SCORE);
+            int queryCount = queryGrams.size();
+            for (int i = 0; i < touched.size; i++) {
+                int ordinal = touched.values[i];
+                if (!filter.test(bookIds[ordinal])) {
+                    continue;
+                }
+                Match match = score(ordinal, queryCount, titleShared[ordinal], authorShared[ordinal]);
+                if (match.getScore() < minSimilarity) {
+                    continue;
+                }
+                best.offer(match);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+            }
+            List<Match> ranked = new ArrayList<>(best);
+            ranked.sort(BY_SCORE.reversed());
+            return ranked;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    static Set<String> trigrams(String text) {
+        Set<String> grams = new LinkedHashSet<>();
+        for (String token : TextAnalyzer.tokenize(text)) {
+            String padded = "  " + token + " ";
+            for (int i = 0; i + 3 <= padded.length(); i++) {
+                grams.add(padded.substring(i, i + 3));
+            }
+        }
+        return grams;
+    }
+
+    private Match score(int ordinal, int queryCount, int titleShared, int authorShared) {
+        double titleScore = (double) titleShared / queryCount;
+        double authorScore = (double) authorShared / queryCount;
+        int shared = titleScore >= authorScore ? titleShared : authorShared;
+        int documentCount = titleScore >= authorScore ? titleGramCounts[ordinal] : authorGramCounts[ordinal];
+        double jaccard = (double) shared / (queryCount + documentCount - shared);
+        return new Match(bookIds[ordinal], Math.max(titleScore, authorScore), jaccard);
+    }
+
+    // Marks an ordinal as touched the first time either of its counters moves off zero
+    private static void accumulate(IntPostings postings, int[] shared, int[] other, IntPostings touched) {
+        if (postings == null) {
+            return;
+        }
+        for (int i = 0; i < postings.size; i++) {
+            int ordinal = postings.values[i];
+            if (shared[ordinal]++ == 0 && other[ordinal] == 0) {
+                touched.add(ordinal);
+            }
+        }
+    }
+
+    private void add(BookDocument document) {
+        Integer free = freeOrdinals.poll();
+        int ordinal = free != null ? free : nextOrdinal++;
+        if (ordinal == bookIds.length) {
+            bookIds = Arrays.copyOf(bookIds, ordinal * 2);
+            titleGramCounts = Arrays.copyOf(titleGramCounts, ordinal * 2);
+            authorGramCounts = Arrays.copyOf(authorGramCounts, ordinal * 2);
+        }
+        ordinals.put(document.getId(), ordinal);
+        bookIds[ordinal] = document.getId();
+        titleGramCounts[ordinal] = addGrams(titleGrams, document.getTitle(), ordinal);
+        authorGramCounts[ordinal] = addGrams(authorGrams, document.getAuthor(), ordinal);
+    }
+
+    private void delete(BookDocument document) {
+        Integer ordinal = ordinals.remove(document.getId());
+        if (ordinal == null) {
+            return;
+        }
+        removeGrams(titleGrams, document.getTitle(), ordinal);
+        removeGrams(authorGrams, document.getAuthor(), ordinal);
+        titleGramCounts[ordinal] = 0;
+        authorGramCounts[ordinal] = 0;
+        freeOrdinals.push(ordinal);
+    }
+
+    private static int addGrams(Map<String, IntPostings> index, String text, int ordinal) {
+        Set<String> grams = trigrams(text);
+        for (String gram : grams) {
+            index.computeIfAbsent(gram, g -> new IntPostings()).add(ordinal);
+        }
+        return grams.size();
+    }
+
+    private static void removeGrams(Map<String, IntPostings> index, String text, int ordinal) {
+        for (String gram : trigrams(text)) {
+            IntPostings postings = index.get(gram);
+            if (postings != null && postings.remove(ordinal) && postings.size == 0) {
+                index.remove(gram);
+            }
+        }
+    }
+
+    private static final class IntPostings {
+        private int[] values = new int[4];
+        private int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        boolean remove(int value) {
+            for (int i = 0; i < size; i++) {
+                if (values[i] == value) {
+                    values[i] = values[--size];
+                    return true;
+                }
+            }
+            return false;
+        }
+    }
+}
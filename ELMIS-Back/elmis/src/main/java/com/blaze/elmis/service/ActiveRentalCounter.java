@@ -0,0 +1,88 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.model.RentalStatus;
+import com.blaze.elmis.repository.RentalRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Unreturned rentals per user, counted once from the database the first time
+ * a user is seen and then kept up to date by checkouts and returns. Idle
+ * users are dropped after a while, which also re-syncs them with the table.
+ */
+@Component
+public class ActiveRentalCounter {
+
+    private final RentalRepository rentalRepository;
+    private final Cache<Long, AtomicInteger> counts;
+
+    public ActiveRentalCounter(RentalRepository rentalRepository,
+                               @Value("${elmis.rentals.active-counter.expire-after:1h}") Duration expireAfter) {
+        this.rentalRepository = rentalRepository;
+        this.counts = Caffeine.newBuilder()
+                .expireAfterAccess(expireAfter)
+                .build();
+    }
+
+    public int get(Long userId) {
+        return counter(userId).get();
+    }
+
+    /**
+     * Adds {@code copies} unless that would go past {@code limit}.
+     * Rolled back automatically when the surrounding transaction rolls back.
+     */
+    public boolean tryAcquire(Long userId, int copies, int limit) {
+        AtomicInteger counter = counter(userId);
+        int current;
+        do {
+            current = counter.get();
+            if (current + copies > limit) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current + copies));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        counter.addAndGet(-copies);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /** Takes {@code copies} off once the current transaction commits. */
+    public void release(Long userId, int copies) {
+        if (copies <= 0) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> {
+            AtomicInteger counter = counts.getIfPresent(userId);
+            if (counter != null) {
+                counter.addAndGet(-copies);
+            }
+        });
+    }
+
+    /** Forgets every count; each user is counted from the table again when next seen. */
+    public void clear() {
+        counts.invalidateAll();
+    }
+
+    private AtomicInteger counter(Long userId) {
+        return counts.get(userId, id -> new AtomicInteger(
+                (int) rentalRepository.countByUserIdAndStatusNot(id, RentalStatus.RETURNED)));
+    }
+}
@@ -1,21 +1,29 @@
 package com.blaze.elmis.service;
 
 import com.blaze.elmis.dto.BookReviewDto;
+import com.blaze.elmis.dto.CursorPage;
 import com.blaze.elmis.mapper.BookReviewMapper;
 import com.blaze.elmis.model.Book;
 import com.blaze.elmis.model.BookReview;
 import com.blaze.elmis.model.User;
 import com.blaze.elmis.repository.BookRepository;
 import com.blaze.elmis.repository.BookReviewRepository;
+import com.blaze.elmis.repository.KeysetQueryExecutor;
 import com.blaze.elmis.repository.UserRepository;
+import com.blaze.elmis.search.CatalogIndexer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Optional;
 import java.util.stream.Collectors;
 
@@ -23,10 +31,20 @@ import java.util.stream.Collectors;
 @RequiredArgsConstructor
 public class BookReviewService {
 
+    private static final Map<String, Class<?>> SCROLL_SORT_FIELDS = new HashMap<>();
+
+    static {
+        SCROLL_SORT_FIELDS.put("id", Long.class);
+        SCROLL_SORT_FIELDS.put("rating", Integer.class);
+        SCROLL_SORT_FIELDS.put("createdAt", LocalDateTime.class);
+    }
+
     private final BookReviewRepository bookReviewRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final BookReviewMapper bookReviewMapper;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final CatalogIndexer catalogIndexer;
 
     public List<BookReviewDto> getReviewsByBookId(Long bookId) {
         return bookReviewRepository.findByBookId(bookId).stream()
@@ -92,7 +110,7 @@ public class BookReviewService {
 
         book.setTotalReviews(totalReviews);
         book.setAvgRating(avgRating);
-        bookRepository.save(book);
+        catalogIndexer.indexBook(bookRepository.save(book)); // ratings are part of cached listings
     }
 
     @Transactional(readOnly = true)
@@ -104,7 +122,15 @@ public class BookReviewService {
 
     @Transactional(readOnly = true)
     public Page<BookReviewDto> getAllBookReviews(Pageable pageable) {
-        return bookReviewRepository.findAll(pageable).map(bookReviewMapper::bookReviewToBookReviewDto);
+        return bookReviewRepository.findAllAsDto(pageable);
+    }
+
+    @Transactional(readOnly = true)
+    public CursorPage<BookReviewDto> scrollBookReviews(String cursor, int size, String sort, Sort.Direction direction, Long bookId) {
+        Specification<BookReview> filter = bookId == null ? null
+                : (root, query, cb) -> cb.equal(root.get("book").get("id"), bookId);
+        return keysetQueryExecutor.scroll(BookReview.class, filter, SCROLL_SORT_FIELDS, sort, direction, cursor, size,
+                bookReviewMapper::bookReviewToBookReviewDto);
     }
 
     // Removed placeholder method as findByBookId is now in the repository.
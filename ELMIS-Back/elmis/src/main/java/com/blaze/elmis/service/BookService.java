@@ -1,7 +1,14 @@
 package com.blaze.elmis.service;
 
+import com.blaze.elmis.cache.ApproximateCountCache;
+import com.blaze.elmis.cache.BookQueryCache;
+import com.blaze.elmis.cache.BookQueryKey;
 import com.blaze.elmis.dto.BookDto;
+import com.blaze.elmis.dto.BookFacetsDto;
 import com.blaze.elmis.dto.BookReviewDto;
+import com.blaze.elmis.dto.BookSuggestionDto;
+import com.blaze.elmis.dto.CursorPage;
+import com.blaze.elmis.dto.SlicePage;
 import com.blaze.elmis.mapper.BookMapper;
 import com.blaze.elmis.mapper.BookReviewMapper;
 import com.blaze.elmis.model.Book;
@@ -9,29 +16,52 @@ import com.blaze.elmis.model.BookReview;
 import com.blaze.elmis.model.Category;
 import com.blaze.elmis.model.Subcategory;
 import com.blaze.elmis.model.User;
+import com.blaze.elmis.repository.BookProjectionRepository;
 import com.blaze.elmis.repository.BookRepository;
 import com.blaze.elmis.repository.BookReviewRepository;
 import com.blaze.elmis.repository.CategoryRepository;
+import com.blaze.elmis.repository.KeysetQueryExecutor;
 import com.blaze.elmis.repository.SubcategoryRepository;
 import com.blaze.elmis.repository.UserRepository;
+import com.blaze.elmis.search.BookSearchIndex;
+import com.blaze.elmis.search.BookDocument;
+import com.blaze.elmis.search.BookFacetIndex;
+import com.blaze.elmis.search.BookRelevanceRanker;
+import com.blaze.elmis.search.CatalogIndexer;
+import com.blaze.elmis.search.SuggestionTrie;
+import com.blaze.elmis.search.TrigramIndex;
 import com.blaze.elmis.spec.BookSpecification;
 import com.blaze.elmis.util.ExcelHelper;
 import lombok.RequiredArgsConstructor;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.core.io.InputStreamResource;
 import org.springframework.core.io.Resource;
 import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.data.jpa.domain.Specification;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.util.StringUtils;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.ByteArrayInputStream;
+import java.time.LocalDateTime;
 import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
+import java.util.function.Function;
+import java.util.function.LongPredicate;
 import java.util.stream.Collectors;
 
 import com.blaze.elmis.util.CsvHelper;
@@ -41,6 +71,15 @@ import com.blaze.elmis.util.PdfHelper;
 @RequiredArgsConstructor
 public class BookService {
 
+    private static final Map<String, Class<?>> SCROLL_SORT_FIELDS = new HashMap<>();
+
+    static {
+        SCROLL_SORT_FIELDS.put("id", Long.class);
+        SCROLL_SORT_FIELDS.put("title", String.class);
+        SCROLL_SORT_FIELDS.put("author", String.class);
+        SCROLL_SORT_FIELDS.put("createdAt", LocalDateTime.class);
+    }
+
     private final UserRepository userRepository; // Inject UserRepository
     private final BookRepository bookRepository;
     private final BookMapper bookMapper;
@@ -48,18 +87,258 @@ public class BookService {
     private final SubcategoryRepository subcategoryRepository;
     private final BookReviewRepository bookReviewRepository; // Inject BookReviewRepository
     private final BookReviewMapper bookReviewMapper; // Inject BookReviewMapper
+    private final CatalogIndexer catalogIndexer;
+    private final InventoryService inventoryService;
+    private final RentalStatistics rentalStatistics;
+    private final BookSearchIndex bookSearchIndex;
+    private final TrigramIndex trigramIndex;
+    private final SuggestionTrie suggestionTrie;
+    private final BookFacetIndex bookFacetIndex;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final BookQueryCache bookQueryCache;
+    private final BookProjectionRepository bookProjectionRepository;
+    private final ApproximateCountCache approximateCountCache;
+    private final BookRelevanceRanker bookRelevanceRanker;
+
+    // Above this many index hits an IN (...) list costs more than the LIKE scan it replaces
+    @Value("${elmis.search.max-candidates:5000}")
+    private int maxCandidates;
+
+    @Value("${elmis.search.fuzzy.max-results:1000}")
+    private int maxFuzzyResults;
+
+    public Page<BookDto> getAllBooks(Pageable pageable, String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        BookQueryKey key = BookQueryKey.of(pageable, q, title, author, isbn, categoryId, subcategoryId, false);
+        return withLiveAvailability(bookQueryCache.get(key, () -> findBooks(pageable, q, title, author, isbn, categoryId, subcategoryId)));
+    }
+
+    private Page<BookDto> findBooks(Pageable pageable, String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        Specification<Book> spec = searchSpecification(q, title, author, isbn, categoryId, subcategoryId);
+        if (spec == null) {
+            return Page.empty(pageable);
+        }
+        return bookProjectionRepository.findAll(spec, pageable);
+    }
+
+    /**
+     * Same filters as {@link #getAllBooks} but without the exact count. The total is an
+     * estimate from the in-memory indexes, or a cached per-filter count refreshed in the background.
+     */
+    public SlicePage<BookDto> getBookSlice(Pageable pageable, String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        Specification<Book> spec = searchSpecification(q, title, author, isbn, categoryId, subcategoryId);
+        SlicePage.SlicePageBuilder<BookDto> result = SlicePage.<BookDto>builder()
+                .page(pageable.getPageNumber())
+                .size(pageable.getPageSize());
+        if (spec == null) {
+            return result.content(Collections.<BookDto>emptyList()).approximateTotal(0L).totalSource("index").build();
+        }
+
+        Slice<BookDto> slice = bookProjectionRepository.findSlice(spec, pageable);
+        result.content(withLiveAvailability(slice.getContent())).hasNext(slice.hasNext());
+        if (catalogIndexer.isReady()) {
+            Set<Long> candidateIds = findCandidateIds(q, title, author);
+            if (StringUtils.hasText(isbn)) {
+                candidateIds = retain(candidateIds, bookSearchIndex.match(BookSearchIndex.Field.ISBN, isbn));
+            }
+            long total = bookFacetIndex.filter(candidateIds, categoryId, subcategoryId, null).getLongCardinality();
+            return result.approximateTotal(total).totalSource("index").build();
+        }
+        BookQueryKey filter = BookQueryKey.filterOf(q, title, author, isbn, categoryId, subcategoryId);
+        return result.approximateTotal(approximateCountCache.get(filter, () -> bookProjectionRepository.count(spec)))
+                .totalSource("cache")
+                .build();
+    }
+
+    /** Infinite-scroll variant of {@link #getAllBooks}: same filters, keyset cursor instead of OFFSET, no count. */
+    public CursorPage<BookDto> scrollBooks(String cursor, int size, String sort, Sort.Direction direction,
+                                           String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        Specification<Book> spec = searchSpecification(q, title, author, isbn, categoryId, subcategoryId);
+        if (spec == null) {
+            return CursorPage.<BookDto>builder().content(Collections.<BookDto>emptyList()).size(size).build();
+        }
+        // The window is chosen on the entity, but its rows are read through the projection so
+        // category and subcategory come from one joined select instead of a lazy load per row
+        CursorPage<Long> window = keysetQueryExecutor.scroll(Book.class, spec, SCROLL_SORT_FIELDS, sort, direction,
+                cursor, size, Book::getId);
+        return CursorPage.<BookDto>builder()
+                .content(withLiveAvailability(loadInOrder(window.getContent())))
+                .size(window.getSize())
+                .hasNext(window.isHasNext())
+                .nextCursor(window.getNextCursor())
+                .build();
+    }
+
+    /**
+     * Builds the catalog filter, resolving any text criteria through the in-memory index.
+     * Returns {@code null} when the index already proves there can be no match.
+     */
+    private Specification<Book> searchSpecification(String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        boolean textSearch = StringUtils.hasText(q) || StringUtils.hasText(title) || StringUtils.hasText(author);
+        if (textSearch && catalogIndexer.isReady()) {
+            // Resolve the text part from the in-memory index, then let MySQL filter by primary key
+            Set<Long> candidateIds = findCandidateIds(q, title, author);
+            if (candidateIds.isEmpty()) {
+                return null;
+            }
+            if (candidateIds.size() <= maxCandidates) {
+                return BookSpecification.searchBooks(null, null, isbn, categoryId, subcategoryId)
+                        .and(BookSpecification.idIn(candidateIds));
+            }
+        }
+        return textSpecification(q, title, author, isbn, categoryId, subcategoryId);
+    }
+
+    /**
+     * Typo-tolerant search ranked by trigram similarity. Candidates come
+     * entirely from memory; only the requested page is loaded from MySQL.
+     */
+    public Page<BookDto> searchBooksFuzzy(Pageable pageable, String text, Long categoryId, Long subcategoryId) {
+        if (!catalogIndexer.isReady()) {
+            return getAllBooks(pageable, text, null, null, null, categoryId, subcategoryId);
+        }
+        BookQueryKey key = BookQueryKey.of(pageable, text, null, null, null, categoryId, subcategoryId, true);
+        return withLiveAvailability(bookQueryCache.get(key, () -> findBooksFuzzy(pageable, text, categoryId, subcategoryId)));
+    }
+
+    private Page<BookDto> findBooksFuzzy(Pageable pageable, String text, Long categoryId, Long subcategoryId) {
+        // Filter while scoring, so the result cap only counts books in the requested category
+        LongPredicate inFilter = bookId -> {
+            BookDocument document = catalogIndexer.get(bookId);
+            return document != null
+                    && (categoryId == null || categoryId.equals(document.getCategoryId()))
+                    && (subcategoryId == null || subcategoryId.equals(document.getSubcategoryId()));
+        };
+        List<Long> rankedIds = new ArrayList<>();
+        for (TrigramIndex.Match match : trigramIndex.search(text, maxFuzzyResults, inFilter)) {
+            rankedIds.add(match.getBookId());
+        }
+        return loadRankedPage(pageable, rankedIds, rankedIds.size());
+    }
+
+    /** Facet counts for the current catalog filter, computed from in-memory bitmaps without SQL. */
+    public BookFacetsDto getFacets(String q, String title, String author, String isbn, Long categoryId, Long subcategoryId, Boolean available) {
+        if (!catalogIndexer.isReady()) {
+            throw new RuntimeException("Catalog index is still loading");
+        }
+        Set<Long> candidateIds = findCandidateIds(q, title, author);
+        if (StringUtils.hasText(isbn)) {
+            candidateIds = retain(candidateIds, bookSearchIndex.match(BookSearchIndex.Field.ISBN, isbn));
+        }
+        return bookFacetIndex.facets(bookFacetIndex.filter(candidateIds, categoryId, subcategoryId, available));
+    }
+
+    public List<BookSuggestionDto> suggest(String prefix, int limit) {
+        return suggestionTrie.suggest(prefix, Math.min(limit, 50));
+    }
+
+    /**
+     * {@code sort=relevance}: BM25 over title/author/publisher, ties broken by rating and popularity.
+     * Only the top {@code offset + pageSize} matches are ever ordered.
+     */
+    public Page<BookDto> searchBooksByRelevance(Pageable pageable, String text, Long categoryId, Long subcategoryId) {
+        Pageable unsorted = PageRequest.of(pageable.getPageNumber(), pageable.getPageSize());
+        if (!catalogIndexer.isReady()) {
+            return getAllBooks(unsorted, text, null, null, null, categoryId, subcategoryId);
+        }
+        BookQueryKey key = BookQueryKey.of(pageable, text, null, null, null, categoryId, subcategoryId, false);
+        return withLiveAvailability(bookQueryCache.get(key, () -> {
+            int topK = (int) Math.min(Integer.MAX_VALUE, pageable.getOffset() + pageable.getPageSize());
+            BookRelevanceRanker.Result ranked = bookRelevanceRanker.rank(text, topK, document ->
+                    (categoryId == null || categoryId.equals(document.getCategoryId()))
+                            && (subcategoryId == null || subcategoryId.equals(document.getSubcategoryId())));
+            return loadRankedPage(unsorted, ranked.getTopIds(), ranked.getTotalMatches());
+        }));
+    }
 
-    public Page<BookDto> getAllBooks(Pageable pageable, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
-        Specification<Book> spec = BookSpecification.searchBooks(title, author, isbn, categoryId, subcategoryId);
-        return bookRepository.findAll(spec, pageable).map(bookMapper::bookToBookDto);
+    // Loads one page of an already ranked id list, keeping the rank order
+    private Page<BookDto> loadRankedPage(Pageable pageable, List<Long> rankedIds, long total) {
+        int from = (int) Math.min(pageable.getOffset(), rankedIds.size());
+        int to = Math.min(from + pageable.getPageSize(), rankedIds.size());
+        List<Long> pageIds = rankedIds.subList(from, to);
+        if (pageIds.isEmpty()) {
+            return new PageImpl<>(Collections.<BookDto>emptyList(), pageable, total);
+        }
+        return new PageImpl<>(loadInOrder(pageIds), pageable, total);
+    }
+
+    private List<BookDto> loadInOrder(List<Long> ids) {
+        if (ids.isEmpty()) {
+            return Collections.emptyList();
+        }
+        Map<Long, BookDto> books = bookProjectionRepository.findAll(BookSpecification.idIn(ids)).stream()
+                .collect(Collectors.toMap(BookDto::getId, Function.identity()));
+        return ids.stream()
+                .map(books::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    // Returns null when no text criterion was given, i.e. "no restriction"
+    private Set<Long> findCandidateIds(String q, String title, String author) {
+        Set<Long> ids = null;
+        if (StringUtils.hasText(q)) {
+            ids = bookSearchIndex.matchAnyField(q);
+        }
+        if (StringUtils.hasText(title)) {
+            ids = retain(ids, bookSearchIndex.match(BookSearchIndex.Field.TITLE, title));
+        }
+        if (StringUtils.hasText(author)) {
+            ids = retain(ids, bookSearchIndex.match(BookSearchIndex.Field.AUTHOR, author));
+        }
+        return ids;
+    }
+
+    private static Set<Long> retain(Set<Long> accumulated, Set<Long> hits) {
+        if (accumulated == null) {
+            return hits;
+        }
+        accumulated.retainAll(hits);
+        return accumulated;
+    }
+
+    // Same token-prefix matching as the index, so a query returns the same rows whichever path answers it
+    private static Specification<Book> textSpecification(String q, String title, String author, String isbn, Long categoryId, Long subcategoryId) {
+        Specification<Book> spec = BookSpecification.searchBooks(null, null, isbn, categoryId, subcategoryId);
+        if (StringUtils.hasText(q)) {
+            spec = spec.and(BookSpecification.matchesTokens(q));
+        }
+        if (StringUtils.hasText(title)) {
+            spec = spec.and(BookSpecification.fieldMatchesTokens("title", title));
+        }
+        if (StringUtils.hasText(author)) {
+            spec = spec.and(BookSpecification.fieldMatchesTokens("author", author));
+        }
+        return spec;
     }
 
     public BookDto getBookById(Long id) {
         return bookRepository.findById(id)
                 .map(bookMapper::bookToBookDto)
+                .map(this::withLiveAvailability)
                 .orElseThrow(() -> new RuntimeException("Book not found"));
     }
 
+    // With in-memory inventory, books.available_quantity lags by up to one flush and a cached
+    // page by up to its TTL, so the live counters are laid over whatever was read or cached.
+    // Cached DTOs are shared and never modified; changed ones are copied.
+    private Page<BookDto> withLiveAvailability(Page<BookDto> page) {
+        return inventoryService.isEnabled() ? page.map(this::withLiveAvailability) : page;
+    }
+
+    private List<BookDto> withLiveAvailability(List<BookDto> books) {
+        return inventoryService.isEnabled()
+                ? books.stream().map(this::withLiveAvailability).collect(Collectors.toList())
+                : books;
+    }
+
+    private BookDto withLiveAvailability(BookDto book) {
+        Integer live = inventoryService.currentAvailable(book.getId());
+        if (live == null || live.equals(book.getAvailableQuantity())) {
+            return book;
+        }
+        return book.toBuilder().availableQuantity(live).build();
+    }
+
     public BookDto createBook(BookDto bookDto) {
         Book book = bookMapper.bookDtoToBook(bookDto);
 
@@ -77,7 +356,10 @@ public class BookService {
             book.setSubcategory(subcategory);
         }
 
-        return bookMapper.bookToBookDto(bookRepository.save(book));
+        Book savedBook = bookRepository.save(book);
+        catalogIndexer.indexBook(savedBook);
+        rentalStatistics.bookSaved(savedBook.getId(), savedBook.getCategory() != null ? savedBook.getCategory().getId() : null);
+        return bookMapper.bookToBookDto(savedBook);
     }
 
     public BookDto updateBook(Long id, BookDto bookDto) {
@@ -92,6 +374,8 @@ public class BookService {
         existingBook.setPublicationYear(bookDto.getPublicationYear());
         // existingBook.setGenre(bookDto.getGenre()); // Genre is removed
         existingBook.setQuantity(bookDto.getQuantity());
+        // The submitted count is the live one, so unflushed deltas must reach the row first
+        inventoryService.flush(id);
         existingBook.setAvailableQuantity(bookDto.getAvailableQuantity());
 
         // Update Category
@@ -114,11 +398,18 @@ public class BookService {
             existingBook.setSubcategory(null);
         }
 
-        return bookMapper.bookToBookDto(bookRepository.save(existingBook));
+        Book savedBook = bookRepository.save(existingBook);
+        catalogIndexer.indexBook(savedBook);
+        inventoryService.reload(savedBook.getId());
+        rentalStatistics.bookSaved(savedBook.getId(), savedBook.getCategory() != null ? savedBook.getCategory().getId() : null);
+        return bookMapper.bookToBookDto(savedBook);
     }
 
     public void deleteBook(Long id) {
         bookRepository.deleteById(id);
+        catalogIndexer.removeBook(id);
+        inventoryService.evict(id);
+        rentalStatistics.bookRemoved(id);
     }
 
     // Excel Import
@@ -261,6 +552,6 @@ public class BookService {
 
         book.setTotalReviews(totalReviews);
         book.setAvgRating(avgRating);
-        bookRepository.save(book);
+        catalogIndexer.indexBook(bookRepository.save(book)); // ratings are part of cached listings
     }
 }
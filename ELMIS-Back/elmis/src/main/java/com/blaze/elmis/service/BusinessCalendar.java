@@ -0,0 +1,304 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.HolidayRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StringUtils;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Open/closed days for due-date arithmetic. A window of days around today is
+ * precomputed into a bitset of closed days (holidays plus weekly closures),
+ * a prefix count of open days and the list of open days, so "N open days
+ * after X" is two array reads. Readers use an immutable snapshot; holiday
+ * changes patch a copy of it from the changed day onward. Dates outside the
+ * window fall back to walking day by day.
+ */
+@Slf4j
+@Service
+public class BusinessCalendar {
+
+    private final HolidayRepository holidayRepository;
+    private final Set<DayOfWeek> weeklyClosures;
+    private final int pastDays;
+    private final int futureDays;
+
+    private final Map<LocalDate, Integer> holidayCounts = new HashMap<>();
+    private volatile Snapshot snapshot;
+
+    public BusinessCalendar(HolidayRepository holidayRepository,
+                            @Value("${elmis.calendar.closed-days:}") String closedDays,
+                            @Value("${elmis.calendar.past-days:366}") int pastDays,
+                            @Value("${elmis.calendar.future-days:1830}") int futureDays) {
+        this.holidayRepository = holidayRepository;
+        this.weeklyClosures = parseClosures(closedDays);
+        this.pastDays = pastDays;
+        this.futureDays = futureDays;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    /** The window slides with the date, so it is rebuilt once a day. */
+    @Scheduled(cron = "${elmis.calendar.rebuild-cron:0 5 0 * * *}")
+    public synchronized void reload() {
+        holidayCounts.clear();
+        for (LocalDate date : holidayRepository.findAllDates()) {
+            if (date != null) {
+                holidayCounts.merge(date, 1, Integer::sum);
+            }
+        }
+        snapshot = build(LocalDate.now().minusDays(pastDays));
+        log.info("Business calendar built: {} holidays, weekly closures {}", holidayCounts.size(), weeklyClosures);
+    }
+
+    public boolean isOpen(LocalDate date) {
+        return snapshot().isOpen(date);
+    }
+
+    /** The {@code openDays}-th open day strictly after {@code from}; {@code from} itself for 0. */
+    public LocalDate addOpenDays(LocalDate from, int openDays) {
+        return snapshot().addOpenDays(from, openDays);
+    }
+
+    /** Same as {@link #addOpenDays(LocalDate, int)}, keeping the time of day. */
+    public LocalDateTime addOpenDays(LocalDateTime from, int openDays) {
+        return addOpenDays(from.toLocalDate(), openDays).atTime(from.toLocalTime());
+    }
+
+    /**
+     * Bulk form for jobs recomputing many due dates: {@code openDays[i]} is added
+     * to {@code from.get(i)}, and every result comes from the same snapshot.
+     */
+    public List<LocalDateTime> addOpenDays(List<LocalDateTime> from, int[] openDays) {
+        Snapshot current = snapshot();
+        List<LocalDateTime> result = new ArrayList<>(from.size());
+        for (int i = 0; i < from.size(); i++) {
+            LocalDateTime start = from.get(i);
+            result.add(current.addOpenDays(start.toLocalDate(), openDays[i]).atTime(start.toLocalTime()));
+        }
+        return result;
+    }
+
+    /** Open days in {@code (from, to]}. */
+    public int openDaysBetween(LocalDate from, LocalDate to) {
+        return snapshot().openDaysBetween(from, to);
+    }
+
+    public void holidayAdded(LocalDate date) {
+        if (date != null) {
+            TransactionCallbacks.afterCommit(() -> changeHoliday(date, 1));
+        }
+    }
+
+    public void holidayRemoved(LocalDate date) {
+        if (date != null) {
+            TransactionCallbacks.afterCommit(() -> changeHoliday(date, -1));
+        }
+    }
+
+    private synchronized void changeHoliday(LocalDate date, int delta) {
+        Snapshot current = snapshot;
+        if (current == null) {
+            reload(); // reads the committed change itself
+            return;
+        }
+        Integer count = holidayCounts.get(date);
+        boolean wasHoliday = count != null;
+        int updated = (count != null ? count : 0) + delta;
+        if (updated > 0) {
+            holidayCounts.put(date, updated);
+        } else {
+            holidayCounts.remove(date);
+        }
+        boolean isHoliday = updated > 0;
+        if (wasHoliday != isHoliday) {
+            snapshot = current.withHoliday(date, isHoliday);
+        }
+    }
+
+    private Snapshot snapshot() {
+        Snapshot current = snapshot;
+        if (current == null) {
+            synchronized (this) {
+                if (snapshot == null) {
+                    reload();
+                }
+                current = snapshot;
+            }
+        }
+        return current;
+    }
+
+    private Snapshot build(LocalDate origin) {
+        int length = pastDays + futureDays;
+        BitSet closed = new BitSet(length);
+        for (int i = 0; i < length; i++) {
+            LocalDate day = origin.plusDays(i);
+            if (weeklyClosures.contains(day.getDayOfWeek()) || holidayCounts.containsKey(day)) {
+                closed.set(i);
+            }
+        }
+        return new Snapshot(origin, length, closed, weeklyClosures, new HashSet<>(holidayCounts.keySet()));
+    }
+
+    private static Set<DayOfWeek> parseClosures(String closedDays) {
+        Set<DayOfWeek> closures = EnumSet.noneOf(DayOfWeek.class);
+        for (String day : StringUtils.commaDelimitedListToStringArray(closedDays)) {
+            if (StringUtils.hasText(day)) {
+                closures.add(DayOfWeek.valueOf(day.trim().toUpperCase()));
+            }
+        }
+        if (closures.size() == DayOfWeek.values().length) {
+            throw new IllegalArgumentException("elmis.calendar.closed-days closes every day of the week");
+        }
+        return Collections.unmodifiableSet(closures);
+    }
+
+    private static final class Snapshot {
+        private final LocalDate origin;
+        private final int length;
+        private final BitSet closed;
+        private final Set<DayOfWeek> weeklyClosures;
+        private final Set<LocalDate> holidays;
+        private final int[] openBefore; // openBefore[i] = open days in [0, i)
+        private final int[] openDays;   // offsets of the open days, ascending
+
+        Snapshot(LocalDate origin, int length, BitSet closed, Set<DayOfWeek> weeklyClosures, Set<LocalDate> holidays) {
+            this.origin = origin;
+            this.length = length;
+            this.closed = closed;
+            this.weeklyClosures = weeklyClosures;
+            this.holidays = holidays;
+            this.openBefore = new int[length + 1];
+            this.openDays = new int[length - closed.cardinality()];
+            int open = 0;
+            for (int i = 0; i < length; i++) {
+                openBefore[i] = open;
+                if (!closed.get(i)) {
+                    openDays[open++] = i;
+                }
+            }
+            openBefore[length] = open;
+        }
+
+        private Snapshot(Snapshot base, BitSet closed, Set<LocalDate> holidays, int[] openBefore, int[] openDays) {
+            this.origin = base.origin;
+            this.length = base.length;
+            this.weeklyClosures = base.weeklyClosures;
+            this.closed = closed;
+            this.holidays = holidays;
+            this.openBefore = openBefore;
+            this.openDays = openDays;
+        }
+
+        /** Copy with one day flipped; only the prefix counts after it and one slot of openDays move. */
+        Snapshot withHoliday(LocalDate date, boolean holiday) {
+            Set<LocalDate> newHolidays = new HashSet<>(holidays);
+            if (holiday) {
+                newHolidays.add(date);
+            } else {
+                newHolidays.remove(date);
+            }
+            int offset = offset(date);
+            if (offset < 0 || weeklyClosures.contains(date.getDayOfWeek())) {
+                return new Snapshot(this, closed, newHolidays, openBefore, openDays);
+            }
+            BitSet newClosed = (BitSet) closed.clone();
+            newClosed.set(offset, holiday);
+            int[] newOpenBefore = openBefore.clone();
+            int delta = holiday ? -1 : 1;
+            for (int i = offset + 1; i <= length; i++) {
+                newOpenBefore[i] += delta;
+            }
+            int rank = openBefore[offset];
+            int[] newOpenDays;
+            if (holiday) {
+                newOpenDays = new int[openDays.length - 1];
+                System.arraycopy(openDays, 0, newOpenDays, 0, rank);
+                System.arraycopy(openDays, rank + 1, newOpenDays, rank, openDays.length - rank - 1);
+            } else {
+                newOpenDays = Arrays.copyOf(openDays, openDays.length + 1);
+                System.arraycopy(openDays, rank, newOpenDays, rank + 1, openDays.length - rank);
+                newOpenDays[rank] = offset;
+            }
+            return new Snapshot(this, newClosed, newHolidays, newOpenBefore, newOpenDays);
+        }
+
+        boolean isOpen(LocalDate date) {
+            int offset = offset(date);
+            if (offset >= 0) {
+                return !closed.get(offset);
+            }
+            return !weeklyClosures.contains(date.getDayOfWeek()) && !holidays.contains(date);
+        }
+
+        LocalDate addOpenDays(LocalDate from, int n) {
+            if (n < 0) {
+                throw new IllegalArgumentException("Number of open days must not be negative");
+            }
+            if (n == 0) {
+                return from;
+            }
+            int offset = offset(from);
+            if (offset >= 0) {
+                int rank = openBefore[offset + 1] + n - 1;
+                if (rank < openDays.length) {
+                    return origin.plusDays(openDays[rank]);
+                }
+            }
+            LocalDate day = from;
+            for (int found = 0; found < n; ) {
+                day = day.plusDays(1);
+                if (isOpen(day)) {
+                    found++;
+                }
+            }
+            return day;
+        }
+
+        int openDaysBetween(LocalDate from, LocalDate to) {
+            if (!to.isAfter(from)) {
+                return 0;
+            }
+            int fromOffset = offset(from);
+            int toOffset = offset(to);
+            if (fromOffset >= 0 && toOffset >= 0) {
+                return openBefore[toOffset + 1] - openBefore[fromOffset + 1];
+            }
+            int open = 0;
+            for (LocalDate day = from.plusDays(1); !day.isAfter(to); day = day.plusDays(1)) {
+                if (isOpen(day)) {
+                    open++;
+                }
+            }
+            return open;
+        }
+
+        private int offset(LocalDate date) {
+            long offset = ChronoUnit.DAYS.between(origin, date);
+            return offset >= 0 && offset < length ? (int) offset : -1;
+        }
+    }
+}
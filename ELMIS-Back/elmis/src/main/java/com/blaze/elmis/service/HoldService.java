@@ -0,0 +1,340 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.HoldDto;
+import com.blaze.elmis.model.Book;
+import com.blaze.elmis.model.Hold;
+import com.blaze.elmis.model.HoldStatus;
+import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.repository.HoldRepository;
+import com.blaze.elmis.repository.UserRepository;
+import com.blaze.elmis.search.CatalogIndexer;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.Arrays;
+import java.util.Deque;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.function.Consumer;
+
+/**
+ * Per-title waitlists. Holds are persisted in the holds table and mirrored in
+ * memory as a lock-free FIFO of hold ids per book plus a map of live holds,
+ * so a return hands its copy to the next patron without querying the table
+ * and the status endpoint never touches the database for a live hold.
+ * <p>
+ * A copy handed to a READY hold is not put back on the shelf: it stays out of
+ * availableQuantity until the holder checks it out, cancels, or the pickup
+ * window runs out, in which case it moves on to the next holder.
+ */
+@Slf4j
+@Service
+public class HoldService {
+
+    private static final int EXPIRY_CHUNK_SIZE = 500;
+    private static final List<HoldStatus> LIVE = Arrays.asList(HoldStatus.WAITING, HoldStatus.READY);
+
+    private final HoldRepository holdRepository;
+    private final BookRepository bookRepository;
+    private final UserRepository userRepository;
+    private final InventoryService inventoryService;
+    private final CatalogIndexer catalogIndexer;
+    private final TransactionTemplate transactionTemplate;
+    private final Duration pickupWindow;
+
+    private final Map<Long, Deque<Long>> waitlists = new ConcurrentHashMap<>();
+    private final Map<Long, LiveHold> liveHolds = new ConcurrentHashMap<>();
+    private final Map<String, Long> liveByUserAndBook = new ConcurrentHashMap<>();
+
+    public HoldService(HoldRepository holdRepository, BookRepository bookRepository, UserRepository userRepository,
+                       InventoryService inventoryService, CatalogIndexer catalogIndexer,
+                       TransactionTemplate transactionTemplate,
+                       @Value("${elmis.holds.pickup-window:72h}") Duration pickupWindow) {
+        this.holdRepository = holdRepository;
+        this.bookRepository = bookRepository;
+        this.userRepository = userRepository;
+        this.inventoryService = inventoryService;
+        this.catalogIndexer = catalogIndexer;
+        this.transactionTemplate = transactionTemplate;
+        this.pickupWindow = pickupWindow;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        List<Hold> holds = holdRepository.findByStatusInOrderById(LIVE);
+        for (Hold hold : holds) {
+            LiveHold live = new LiveHold(hold.getId(), hold.getBook().getId(), hold.getUser().getId(), hold.getCreatedAt());
+            live.status = hold.getStatus();
+            live.readyAt = hold.getReadyAt();
+            live.expiresAt = hold.getExpiresAt();
+            track(live);
+        }
+        log.info("Hold queues rehydrated with {} live holds", holds.size());
+    }
+
+    @Transactional
+    public HoldDto placeHold(HoldDto request) {
+        Long bookId = request.getBookId();
+        Long userId = request.getUserId();
+        if (userId == null || !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        Book book = bookRepository.findById(bookId)
+                .orElseThrow(() -> new RuntimeException("Book not found"));
+        if (book.getAvailableQuantity() != null && book.getAvailableQuantity() > 0 && !hasWaiters(bookId)) {
+            throw new RuntimeException("Book is available, check it out instead");
+        }
+        if (liveByUserAndBook.containsKey(key(userId, bookId))) {
+            throw new RuntimeException("User already holds this book");
+        }
+
+        Hold hold = new Hold();
+        hold.setBook(book);
+        hold.setUser(userRepository.getReferenceById(userId));
+        hold.setStatus(HoldStatus.WAITING);
+        Hold saved = holdRepository.save(hold);
+
+        LiveHold live = new LiveHold(saved.getId(), bookId, userId, saved.getCreatedAt());
+        TransactionCallbacks.afterCommit(() -> track(live));
+        return toDto(live);
+    }
+
+    public HoldDto getHold(Long id) {
+        LiveHold live = liveHolds.get(id);
+        if (live != null) {
+            return toDto(live);
+        }
+        return holdRepository.findById(id)
+                .map(hold -> HoldDto.builder()
+                        .id(hold.getId())
+                        .bookId(hold.getBook().getId())
+                        .userId(hold.getUser().getId())
+                        .status(hold.getStatus())
+                        .createdAt(hold.getCreatedAt())
+                        .readyAt(hold.getReadyAt())
+                        .expiresAt(hold.getExpiresAt())
+                        .build())
+                .orElseThrow(() -> new RuntimeException("Hold not found"));
+    }
+
+    @Transactional
+    public void cancelHold(Long id) {
+        LiveHold live = liveHolds.get(id);
+        if (live == null) {
+            throw new RuntimeException("Hold is not active");
+        }
+        HoldStatus from = live.status;
+        if (holdRepository.transition(id, from, HoldStatus.CANCELLED, LocalDateTime.now()) == 0) {
+            throw new RuntimeException("Hold changed concurrently, please retry");
+        }
+        if (from == HoldStatus.READY) {
+            passOnHeldCopy(live.bookId);
+        }
+        TransactionCallbacks.afterCommit(() -> untrack(live));
+    }
+
+    /**
+     * Called by a return inside its transaction: gives the copy to the oldest
+     * waiting hold. If the transaction rolls back, the hold goes back to the
+     * front of the queue.
+     *
+     * @return true if a holder got the copy, false if it should go back on the shelf
+     */
+    public boolean handOff(Long bookId) {
+        Deque<Long> queue = waitlists.get(bookId);
+        if (queue == null) {
+            return false;
+        }
+        for (Long holdId = queue.pollFirst(); holdId != null; holdId = queue.pollFirst()) {
+            LiveHold live = liveHolds.get(holdId);
+            if (live == null || live.status != HoldStatus.WAITING) {
+                continue; // cancelled while queued
+            }
+            LocalDateTime now = LocalDateTime.now();
+            LocalDateTime expiresAt = now.plus(pickupWindow);
+            if (holdRepository.markReady(holdId, now, expiresAt) == 0) {
+                continue;
+            }
+            Long claimed = holdId;
+            onCompletion(committed -> {
+                if (committed) {
+                    live.readyAt = now;
+                    live.expiresAt = expiresAt;
+                    live.status = HoldStatus.READY;
+                } else {
+                    queue.offerFirst(claimed);
+                }
+            });
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Called by a checkout inside its transaction: if the patron has a READY
+     * hold on the title, the set-aside copy is theirs and no shelf copy is taken.
+     */
+    public boolean claimReadyHold(Long userId, Long bookId) {
+        Long holdId = liveByUserAndBook.get(key(userId, bookId));
+        LiveHold live = holdId != null ? liveHolds.get(holdId) : null;
+        if (live == null || live.status != HoldStatus.READY) {
+            return false;
+        }
+        if (holdRepository.transition(holdId, HoldStatus.READY, HoldStatus.FULFILLED, LocalDateTime.now()) == 0) {
+            return false;
+        }
+        TransactionCallbacks.afterCommit(() -> untrack(live));
+        return true;
+    }
+
+    public boolean hasWaiters(Long bookId) {
+        Deque<Long> queue = waitlists.get(bookId);
+        if (queue != null) {
+            for (Long holdId : queue) {
+                LiveHold live = liveHolds.get(holdId);
+                if (live != null && live.status == HoldStatus.WAITING) {
+                    return true;
+                }
+            }
+        }
+        return false;
+    }
+
+    /** Expires READY holds whose pickup window ran out and passes their copies on, one transaction per chunk. */
+    @Scheduled(fixedDelayString = "${elmis.holds.expiry-check-interval:60000}")
+    public void expireReadyHolds() {
+        int expired;
+        do {
+            Integer count = transactionTemplate.execute(status -> expireChunk());
+            expired = count != null ? count : 0;
+            if (expired > 0) {
+                log.info("Expired {} uncollected holds", expired);
+            }
+        } while (expired == EXPIRY_CHUNK_SIZE);
+    }
+
+    private int expireChunk() {
+        LocalDateTime now = LocalDateTime.now();
+        List<Hold> holds = holdRepository.findExpiredReady(now, PageRequest.of(0, EXPIRY_CHUNK_SIZE));
+        for (Hold hold : holds) {
+            if (holdRepository.transition(hold.getId(), HoldStatus.READY, HoldStatus.EXPIRED, now) == 0) {
+                continue;
+            }
+            passOnHeldCopy(hold.getBook().getId());
+            LiveHold live = liveHolds.get(hold.getId());
+            if (live != null) {
+                TransactionCallbacks.afterCommit(() -> untrack(live));
+            }
+        }
+        return holds.size();
+    }
+
+    /** A set-aside copy is free again: next holder first, otherwise back on the shelf. */
+    private void passOnHeldCopy(Long bookId) {
+        if (handOff(bookId)) {
+            return;
+        }
+        if (inventoryService.isEnabled()) {
+            inventoryService.release(bookId);
+            catalogIndexer.adjustAvailability(bookId, 1);
+        } else if (bookRepository.returnCopy(bookId) == 1) {
+            catalogIndexer.adjustAvailability(bookId, 1);
+        }
+    }
+
+    private void track(LiveHold live) {
+        liveHolds.put(live.id, live);
+        liveByUserAndBook.put(key(live.userId, live.bookId), live.id);
+        if (live.status == HoldStatus.WAITING) {
+            waitlists.computeIfAbsent(live.bookId, id -> new ConcurrentLinkedDeque<>()).offerLast(live.id);
+        }
+    }
+
+    private void untrack(LiveHold live) {
+        liveHolds.remove(live.id);
+        liveByUserAndBook.remove(key(live.userId, live.bookId), live.id);
+        Deque<Long> queue = waitlists.get(live.bookId);
+        if (queue != null) {
+            queue.remove(live.id);
+        }
+    }
+
+    private HoldDto toDto(LiveHold live) {
+        HoldStatus status = live.status;
+        return HoldDto.builder()
+                .id(live.id)
+                .bookId(live.bookId)
+                .userId(live.userId)
+                .status(status)
+                .position(status == HoldStatus.WAITING ? positionOf(live) : null)
+                .createdAt(live.createdAt)
+                .readyAt(live.readyAt)
+                .expiresAt(live.expiresAt)
+                .build();
+    }
+
+    private int positionOf(LiveHold live) {
+        Deque<Long> queue = waitlists.get(live.bookId);
+        int ahead = 0;
+        if (queue != null) {
+            for (Long holdId : queue) {
+                if (holdId.equals(live.id)) {
+                    break;
+                }
+                LiveHold other = liveHolds.get(holdId);
+                if (other != null && other.status == HoldStatus.WAITING) {
+                    ahead++;
+                }
+            }
+        }
+        return ahead;
+    }
+
+    private static String key(Long userId, Long bookId) {
+        return userId + ":" + bookId;
+    }
+
+    private static void onCompletion(Consumer<Boolean> callback) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    callback.accept(status == STATUS_COMMITTED);
+                }
+            });
+        } else {
+            callback.accept(true);
+        }
+    }
+
+    private static final class LiveHold {
+        private final Long id;
+        private final Long bookId;
+        private final Long userId;
+        private final LocalDateTime createdAt;
+        private volatile HoldStatus status = HoldStatus.WAITING;
+        private volatile LocalDateTime readyAt;
+        private volatile LocalDateTime expiresAt;
+
+        LiveHold(Long id, Long bookId, Long userId, LocalDateTime createdAt) {
+            this.id = id;
+            this.bookId = bookId;
+            this.userId = userId;
+            this.createdAt = createdAt;
+        }
+    }
+}
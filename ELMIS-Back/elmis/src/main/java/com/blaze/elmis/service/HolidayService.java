@@ -9,12 +9,16 @@ import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
 import org.springframework.stereotype.Service;
 
+import java.time.LocalDate;
+import java.util.Objects;
+
 @Service
 @RequiredArgsConstructor
 public class HolidayService {
 
     private final HolidayRepository holidayRepository;
     private final HolidayMapper holidayMapper;
+    private final BusinessCalendar businessCalendar;
 
     public Page<HolidayDto> getAllHolidays(Pageable pageable) {
         return holidayRepository.findAll(pageable).map(holidayMapper::holidayToHolidayDto);
@@ -28,18 +32,29 @@ public class HolidayService {
 
     public HolidayDto createHoliday(HolidayDto holidayDto) {
         Holiday holiday = holidayMapper.holidayDtoToHoliday(holidayDto);
-        return holidayMapper.holidayToHolidayDto(holidayRepository.save(holiday));
+        Holiday savedHoliday = holidayRepository.save(holiday);
+        businessCalendar.holidayAdded(savedHoliday.getDate());
+        return holidayMapper.holidayToHolidayDto(savedHoliday);
     }
 
     public HolidayDto updateHoliday(Long id, HolidayDto holidayDto) {
         Holiday existingHoliday = holidayRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Holiday not found"));
+        LocalDate previousDate = existingHoliday.getDate();
         existingHoliday.setName(holidayDto.getName());
         existingHoliday.setDate(holidayDto.getDate());
-        return holidayMapper.holidayToHolidayDto(holidayRepository.save(existingHoliday));
+        Holiday savedHoliday = holidayRepository.save(existingHoliday);
+        if (!Objects.equals(previousDate, savedHoliday.getDate())) {
+            businessCalendar.holidayRemoved(previousDate);
+            businessCalendar.holidayAdded(savedHoliday.getDate());
+        }
+        return holidayMapper.holidayToHolidayDto(savedHoliday);
     }
 
     public void deleteHoliday(Long id) {
-        holidayRepository.deleteById(id);
+        holidayRepository.findById(id).ifPresent(holiday -> {
+            holidayRepository.delete(holiday);
+            businessCalendar.holidayRemoved(holiday.getDate());
+        });
     }
 }
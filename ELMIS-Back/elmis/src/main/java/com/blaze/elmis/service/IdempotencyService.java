@@ -0,0 +1,255 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.model.IdempotencyRecord;
+import com.blaze.elmis.repository.IdempotencyRepository;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DuplicateKeyException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+import org.springframework.util.StringUtils;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+/**
+ * Runs a mutation at most once per Idempotency-Key. The first request reserves
+ * the key with a pending row before doing any work, then stores its response in
+ * the same transaction as the work; repeats get that response back and never
+ * run the action. Recent keys are answered from memory and concurrent repeats on
+ * this instance wait for the request in flight; after a restart, a cache
+ * eviction or on another instance the reservation row answers the repeat. A
+ * reservation whose owner died is taken over once it is older than the pending
+ * timeout.
+ */
+@Slf4j
+@Service
+public class IdempotencyService {
+
+    private static final int MAX_KEY_LENGTH = 100;
+    private static final int PURGE_BATCH = 5000;
+    private static final long POLL_MILLIS = 100;
+
+    private final IdempotencyRepository idempotencyRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final ObjectMapper objectMapper;
+    private final Duration ttl;
+    private final Duration waitTimeout;
+    private final Duration pendingTimeout;
+
+    private final Cache<String, IdempotencyRecord> recent;
+    private final ConcurrentMap<String, CompletableFuture<IdempotencyRecord>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRepository idempotencyRepository,
+                              TransactionTemplate transactionTemplate,
+                              ObjectMapper objectMapper,
+                              @Value("${elmis.idempotency.ttl:24h}") Duration ttl,
+                              @Value("${elmis.idempotency.cache.max-size:10000}") long maxCached,
+                              @Value("${elmis.idempotency.wait-timeout:30s}") Duration waitTimeout,
+                              @Value("${elmis.idempotency.pending-timeout:5m}") Duration pendingTimeout) {
+        this.idempotencyRepository = idempotencyRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.objectMapper = objectMapper;
+        this.ttl = ttl;
+        this.waitTimeout = waitTimeout;
+        this.pendingTimeout = pendingTimeout;
+        this.recent = Caffeine.newBuilder()
+                .maximumSize(maxCached)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Runs {@code action} unless {@code key} was already used in {@code scope}, in
+     * which case the stored response is returned instead. Without a key the action
+     * simply runs. Failed actions are not recorded, so the client may retry them.
+     * Must be called outside a transaction, so the reservation commits on its own.
+     */
+    public <T> T execute(String scope, String key, Object request, Class<T> responseType, Supplier<T> action) {
+        if (!StringUtils.hasText(key)) {
+            return action.get();
+        }
+        if (key.length() > MAX_KEY_LENGTH) {
+            throw new IllegalArgumentException("Idempotency-Key must be at most " + MAX_KEY_LENGTH + " characters");
+        }
+        String id = scope + ":" + key;
+        String fingerprint = fingerprint(request);
+
+        IdempotencyRecord cached = recent.getIfPresent(id);
+        if (cached != null) {
+            return replay(cached, fingerprint, responseType);
+        }
+
+        CompletableFuture<IdempotencyRecord> mine = new CompletableFuture<>();
+        CompletableFuture<IdempotencyRecord> running = inFlight.putIfAbsent(id, mine);
+        if (running != null) {
+            return replay(await(running), fingerprint, responseType);
+        }
+        try {
+            IdempotencyRecord record = runOnce(id, fingerprint, action);
+            recent.put(id, record);
+            mine.complete(record);
+            return replay(record, fingerprint, responseType);
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        } finally {
+            inFlight.remove(id, mine);
+        }
+    }
+
+    private <T> IdempotencyRecord runOnce(String id, String fingerprint, Supplier<T> action) {
+        LocalDateTime reservedAt = LocalDateTime.now().truncatedTo(ChronoUnit.MILLIS);
+        IdempotencyRecord earlier = reserve(id, fingerprint, reservedAt);
+        if (earlier != null) {
+            return earlier;
+        }
+        try {
+            return transactionTemplate.execute(status -> {
+                String response = toJson(action.get());
+                if (idempotencyRepository.complete(id, reservedAt, response) == 0) {
+                    // Taken over after the pending timeout; roll back rather than run twice
+                    throw new IllegalStateException("Idempotency-Key reservation expired while the request was running");
+                }
+                return IdempotencyRecord.builder()
+                        .id(id)
+                        .fingerprint(fingerprint)
+                        .response(response)
+                        .createdAt(reservedAt)
+                        .expiresAt(reservedAt.plus(ttl))
+                        .build();
+            });
+        } catch (RuntimeException e) {
+            idempotencyRepository.deletePending(id, reservedAt);
+            throw e;
+        }
+    }
+
+    /**
+     * Inserts the pending row for {@code id}. Returns null once this request owns the
+     * key, or the finished record of the request that got there first. While another
+     * instance holds the key, polls until it finishes or {@code waitTimeout} passes.
+     */
+    private IdempotencyRecord reserve(String id, String fingerprint, LocalDateTime reservedAt) {
+        long deadline = System.nanoTime() + waitTimeout.toNanos();
+        while (true) {
+            try {
+                idempotencyRepository.insertPending(id, fingerprint, reservedAt, reservedAt.plus(ttl));
+                return null;
+            } catch (DuplicateKeyException e) {
+                // Used before a restart, evicted from the cache, or used on another instance
+            }
+            Optional<IdempotencyRecord> found = idempotencyRepository.find(id);
+            if (found.isPresent()) {
+                IdempotencyRecord record = found.get();
+                if (!record.getFingerprint().equals(fingerprint)) {
+                    throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+                }
+                if (record.getResponse() != null) {
+                    return record;
+                }
+                if (record.getCreatedAt().isBefore(reservedAt.minus(pendingTimeout))
+                        && idempotencyRepository.takeOver(id, record.getCreatedAt(), reservedAt, reservedAt.plus(ttl)) == 1) {
+                    log.warn("Took over idempotency key {} left pending since {}", id, record.getCreatedAt());
+                    return null;
+                }
+            }
+            // Either still pending elsewhere, or the other request failed and released the key
+            if (System.nanoTime() > deadline) {
+                throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+            }
+            if (found.isPresent()) {
+                sleep();
+            }
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key");
+        }
+    }
+
+    private IdempotencyRecord await(CompletableFuture<IdempotencyRecord> running) {
+        try {
+            return running.get(waitTimeout.toMillis(), TimeUnit.MILLISECONDS);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } catch (TimeoutException e) {
+            throw new IllegalStateException("A request with this Idempotency-Key is still being processed");
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for a request with the same Idempotency-Key");
+        }
+    }
+
+    private <T> T replay(IdempotencyRecord record, String fingerprint, Class<T> responseType) {
+        if (!record.getFingerprint().equals(fingerprint)) {
+            throw new IllegalArgumentException("Idempotency-Key was already used for a different request");
+        }
+        try {
+            return objectMapper.readValue(record.getResponse(), responseType);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Stored response for " + record.getId() + " is unreadable", e);
+        }
+    }
+
+    private String fingerprint(Object request) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256")
+                    .digest(toJson(request).getBytes(StandardCharsets.UTF_8));
+            StringBuilder hex = new StringBuilder(digest.length * 2);
+            for (byte b : digest) {
+                hex.append(Character.forDigit((b >> 4) & 0xF, 16)).append(Character.forDigit(b & 0xF, 16));
+            }
+            return hex.toString();
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+
+    private String toJson(Object value) {
+        try {
+            return objectMapper.writeValueAsString(value);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Could not serialize " + value.getClass().getSimpleName(), e);
+        }
+    }
+
+    @Scheduled(cron = "${elmis.idempotency.purge-cron:0 30 * * * *}")
+    public void purgeExpired() {
+        LocalDateTime now = LocalDateTime.now();
+        int total = 0;
+        int deleted;
+        do {
+            deleted = idempotencyRepository.deleteExpired(now, PURGE_BATCH);
+            total += deleted;
+        } while (deleted == PURGE_BATCH);
+        if (total > 0) {
+            log.info("Purged {} expired idempotency keys", total);
+        }
+    }
+}
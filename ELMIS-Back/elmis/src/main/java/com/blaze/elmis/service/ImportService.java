@@ -5,6 +5,7 @@ import com.blaze.elmis.model.Category;
 import com.blaze.elmis.repository.BookRepository;
 import com.blaze.elmis.repository.CategoryRepository;
 import com.blaze.elmis.repository.UserRepository;
+import com.blaze.elmis.search.CatalogIndexer;
 import lombok.RequiredArgsConstructor;
 import org.apache.poi.ss.usermodel.Row;
 import org.apache.poi.ss.usermodel.Sheet;
@@ -25,6 +26,8 @@ public class ImportService {
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final CategoryRepository categoryRepository;
+    private final CatalogIndexer catalogIndexer;
+    private final RentalStatistics rentalStatistics;
 
     public void importBooks(MultipartFile file) throws IOException {
         List<Book> books = new ArrayList<>();
@@ -51,6 +54,10 @@ public class ImportService {
                 books.add(book);
             }
         }
-        bookRepository.saveAll(books);
+        List<Book> saved = bookRepository.saveAll(books);
+        catalogIndexer.indexBooks(saved);
+        for (Book book : saved) {
+            rentalStatistics.bookSaved(book.getId(), book.getCategory() != null ? book.getCategory().getId() : null);
+        }
     }
 }
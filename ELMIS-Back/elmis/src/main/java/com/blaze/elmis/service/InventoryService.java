@@ -0,0 +1,221 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.BookInventoryRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Optional in-JVM owner of {@code availableQuantity} (elmis.inventory.in-memory.enabled).
+ * Copies are reserved and released with CAS on per-book counters, and the
+ * net change per book is written behind to the books table in one batch
+ * every flush interval and on shutdown. On startup the counters and the
+ * column are rebuilt from the rentals table, so deltas lost in a crash heal.
+ * Only valid for a single application instance.
+ */
+@Slf4j
+@Service
+public class InventoryService {
+
+    private final BookInventoryRepository inventoryRepository;
+    private final boolean enabled;
+
+    private final Map<Long, AtomicInteger> available = new ConcurrentHashMap<>();
+    private final Map<Long, AtomicInteger> pending = new ConcurrentHashMap<>();
+
+    public InventoryService(BookInventoryRepository inventoryRepository,
+                            @Value("${elmis.inventory.in-memory.enabled:false}") boolean enabled) {
+        this.inventoryRepository = inventoryRepository;
+        this.enabled = enabled;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (enabled) {
+            recover();
+        }
+    }
+
+    /** Rebuilds every counter from quantity minus unreturned rentals and READY holds, and writes the result back. */
+    public synchronized void recover() {
+        Map<Long, Integer> computed = inventoryRepository.computeAvailabilityFromCirculation();
+        inventoryRepository.overwriteAvailability(computed);
+        pending.clear();
+        available.clear();
+        computed.forEach((bookId, quantity) -> available.put(bookId, new AtomicInteger(quantity)));
+        log.info("Inventory counters rebuilt for {} books", computed.size());
+    }
+
+    /**
+     * Takes one copy if any is left. Inside a transaction the copy is put
+     * back automatically when it rolls back.
+     *
+     * @return false when the book has no available copy
+     * @throws RuntimeException when the book does not exist
+     */
+    public boolean tryReserve(Long bookId) {
+        AtomicInteger counter = counter(bookId);
+        int current;
+        do {
+            current = counter.get();
+            if (current <= 0) {
+                return false;
+            }
+        } while (!counter.compareAndSet(current, current - 1));
+        pendingFor(bookId).decrementAndGet();
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) {
+                        applyRelease(bookId);
+                    }
+                }
+            });
+        }
+        return true;
+    }
+
+    /**
+     * The in-memory count of a book, ahead of {@code books.available_quantity} by
+     * the deltas not flushed yet; null when disabled or the book is not tracked.
+     */
+    public Integer currentAvailable(Long bookId) {
+        AtomicInteger counter = enabled ? available.get(bookId) : null;
+        return counter != null ? counter.get() : null;
+    }
+
+    /** Puts one copy back once the surrounding transaction (if any) commits. */
+    public void release(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> applyRelease(bookId));
+    }
+
+    private void applyRelease(Long bookId) {
+        counter(bookId).incrementAndGet();
+        pendingFor(bookId).incrementAndGet();
+    }
+
+    /**
+     * Re-reads a book after an admin edit. Only deltas from after {@link #flush(Long)}
+     * are still pending, and those stay on top of the new value.
+     */
+    public void reload(Long bookId) {
+        if (!enabled) {
+            return;
+        }
+        TransactionCallbacks.afterCommit(() -> applyReload(bookId));
+    }
+
+    // Shares the monitor with flush so a delta is never half-way between pending and the table
+    private synchronized void applyReload(Long bookId) {
+        Integer stored = inventoryRepository.findAvailableQuantity(bookId);
+        if (stored == null) {
+            evict(bookId);
+            return;
+        }
+        AtomicInteger delta = pending.get(bookId);
+        counter(bookId).set(stored + (delta != null ? delta.get() : 0));
+    }
+
+    public void evict(Long bookId) {
+        available.remove(bookId);
+        pending.remove(bookId);
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.inventory.flush-interval:500}")
+    public void scheduledFlush() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    @PreDestroy
+    public void onShutdown() {
+        if (enabled) {
+            flush();
+        }
+    }
+
+    public synchronized void flush() {
+        Map<Long, Integer> deltas = new HashMap<>();
+        pending.forEach((bookId, delta) -> {
+            int value = delta.getAndSet(0);
+            if (value != 0) {
+                deltas.put(bookId, value);
+            }
+        });
+        applyDeltas(deltas);
+    }
+
+    /**
+     * Writes one book's pending delta now. Called before an admin edit persists
+     * {@code availableQuantity}: the admin saw the live count, so the row has to
+     * include the deltas already or they would be applied on top a second time.
+     */
+    public synchronized void flush(Long bookId) {
+        if (!enabled) {
+            return;
+        }
+        AtomicInteger delta = pending.get(bookId);
+        int value = delta != null ? delta.getAndSet(0) : 0;
+        if (value == 0) {
+            return;
+        }
+        try {
+            inventoryRepository.applyDeltas(Collections.singletonMap(bookId, value));
+        } catch (RuntimeException e) {
+            // Fail the edit rather than let the admin's count absorb the delta twice
+            pendingFor(bookId).addAndGet(value);
+            throw e;
+        }
+    }
+
+    private void applyDeltas(Map<Long, Integer> deltas) {
+        if (deltas.isEmpty()) {
+            return;
+        }
+        try {
+            inventoryRepository.applyDeltas(deltas);
+        } catch (RuntimeException e) {
+            // Keep the deltas for the next attempt
+            deltas.forEach((bookId, value) -> pendingFor(bookId).addAndGet(value));
+            log.warn("Inventory flush of {} books failed, will retry", deltas.size(), e);
+        }
+    }
+
+    private AtomicInteger counter(Long bookId) {
+        AtomicInteger counter = available.get(bookId);
+        if (counter != null) {
+            return counter;
+        }
+        return available.computeIfAbsent(bookId, id -> {
+            Integer stored = inventoryRepository.findAvailableQuantity(id);
+            if (stored == null) {
+                throw new RuntimeException("Book not found");
+            }
+            return new AtomicInteger(stored);
+        });
+    }
+
+    private AtomicInteger pendingFor(Long bookId) {
+        return pending.computeIfAbsent(bookId, id -> new AtomicInteger());
+    }
+}
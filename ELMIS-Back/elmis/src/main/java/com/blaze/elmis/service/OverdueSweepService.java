@@ -0,0 +1,107 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.OverdueSweepReportDto;
+import com.blaze.elmis.repository.RentalBatchRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Moves every RENTED rental past its due date to OVERDUE in chunks: select a
+ * chunk of ids off the (status, due_date) index, update exactly those rows,
+ * pause, repeat. Each chunk commits on its own so locks stay short and a
+ * failed run keeps the progress it made.
+ */
+@Slf4j
+@Service
+public class OverdueSweepService {
+
+    private final RentalBatchRepository rentalBatchRepository;
+    private final RentalEventLog rentalEventLog;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final long pauseMillis;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+    private volatile OverdueSweepReportDto lastReport;
+
+    public OverdueSweepService(RentalBatchRepository rentalBatchRepository,
+                               RentalEventLog rentalEventLog,
+                               @Value("${elmis.overdue.sweep.enabled:true}") boolean enabled,
+                               @Value("${elmis.overdue.sweep.chunk-size:1000}") int chunkSize,
+                               @Value("${elmis.overdue.sweep.pause:100ms}") Duration pause) {
+        this.rentalBatchRepository = rentalBatchRepository;
+        this.rentalEventLog = rentalEventLog;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.pauseMillis = pause.toMillis();
+    }
+
+    @Scheduled(cron = "${elmis.overdue.sweep.cron:0 0 1 * * *}")
+    public void scheduledSweep() {
+        if (enabled) {
+            sweep();
+        }
+    }
+
+    public OverdueSweepReportDto sweep() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Overdue sweep is already running");
+        }
+        try {
+            OverdueSweepReportDto report = run(LocalDateTime.now());
+            lastReport = report;
+            log.info("Overdue sweep updated {} rentals in {} chunks, {} ms",
+                    report.getRowsUpdated(), report.getChunks(), report.getElapsedMillis());
+            return report;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    public OverdueSweepReportDto getLastReport() {
+        return lastReport;
+    }
+
+    private OverdueSweepReportDto run(LocalDateTime cutoff) {
+        long start = System.nanoTime();
+        int chunks = 0;
+        long rowsUpdated = 0;
+        String error = null;
+        try {
+            while (true) {
+                List<Long> ids = rentalBatchRepository.findOverdueIds(cutoff, chunkSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                rowsUpdated += rentalEventLog.markOverdue(ids, LocalDateTime.now());
+                chunks++;
+                if (ids.size() < chunkSize) {
+                    break;
+                }
+                if (pauseMillis > 0) {
+                    Thread.sleep(pauseMillis);
+                }
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            error = "Interrupted";
+        } catch (RuntimeException e) {
+            log.error("Overdue sweep failed after {} chunks", chunks, e);
+            error = e.getMessage();
+        }
+        return OverdueSweepReportDto.builder()
+                .startedAt(cutoff)
+                .chunks(chunks)
+                .rowsUpdated(rowsUpdated)
+                .elapsedMillis((System.nanoTime() - start) / 1_000_000)
+                .error(error)
+                .build();
+    }
+}
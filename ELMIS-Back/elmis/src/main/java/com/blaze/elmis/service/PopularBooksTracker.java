@@ -0,0 +1,77 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.PopularBookDto;
+import com.blaze.elmis.repository.RentalReportRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Top {@code elmis.reports.popular-books.top-k} books of the last 30 days, kept
+ * as an immutable snapshot and refreshed in the background, so the default
+ * popular-books view never runs the aggregate on the request path.
+ */
+@Slf4j
+@Component
+public class PopularBooksTracker {
+
+    public static final int DEFAULT_WINDOW_DAYS = 30;
+
+    private final RentalReportRepository rentalReportRepository;
+    private final int topK;
+
+    private volatile Snapshot snapshot;
+
+    public PopularBooksTracker(RentalReportRepository rentalReportRepository,
+                               @Value("${elmis.reports.popular-books.top-k:100}") int topK) {
+        this.rentalReportRepository = rentalReportRepository;
+        this.topK = Math.max(1, topK);
+    }
+
+    public int getTopK() {
+        return topK;
+    }
+
+    /** The {@code limit} most rented books of the default window; {@code limit} must not exceed the top-K size. */
+    public List<PopularBookDto> top(int limit) {
+        Snapshot current = snapshot;
+        if (current == null || !current.day.equals(LocalDate.now())) {
+            current = load();
+        }
+        return current.books.subList(0, Math.min(limit, current.books.size()));
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.reports.popular-books.refresh-interval:300000}",
+            initialDelayString = "${elmis.reports.popular-books.refresh-interval:300000}")
+    public void refresh() {
+        load();
+    }
+
+    private synchronized Snapshot load() {
+        LocalDate today = LocalDate.now();
+        LocalDateTime to = today.plusDays(1).atStartOfDay();
+        LocalDateTime from = to.minusDays(DEFAULT_WINDOW_DAYS);
+        long start = System.nanoTime();
+        Snapshot refreshed = new Snapshot(today,
+                Collections.unmodifiableList(rentalReportRepository.findMostRentedBooks(from, to, topK)));
+        snapshot = refreshed;
+        log.debug("Popular books snapshot refreshed in {} ms", (System.nanoTime() - start) / 1_000_000);
+        return refreshed;
+    }
+
+    private static final class Snapshot {
+        private final LocalDate day;
+        private final List<PopularBookDto> books;
+
+        Snapshot(LocalDate day, List<PopularBookDto> books) {
+            this.day = day;
+            this.books = books;
+        }
+    }
+}
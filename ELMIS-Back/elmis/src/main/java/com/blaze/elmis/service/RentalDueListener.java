@@ -0,0 +1,18 @@
+package com.blaze.elmis.service;
+
+import java.util.List;
+
+/**
+ * Notification hook for {@link RentalDueScheduler}. Implementations are picked
+ * up as Spring beans and receive each tick's events as one batch, on the
+ * scheduler thread, so anything slow should be handed off.
+ */
+public interface RentalDueListener {
+
+    default void onDueSoon(List<Long> rentalIds) {
+    }
+
+    /** Called after the rentals were moved to OVERDUE; ids already moved by the nightly sweep are included. */
+    default void onOverdue(List<Long> rentalIds) {
+    }
+}
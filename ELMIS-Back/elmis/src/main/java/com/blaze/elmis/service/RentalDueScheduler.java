@@ -0,0 +1,174 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.RentalBatchRepository;
+import com.blaze.elmis.util.HierarchicalTimingWheel;
+import com.blaze.elmis.util.HierarchicalTimingWheel.Timeout;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.ObjectProvider;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Near-real-time due-soon and overdue transitions without polling the rentals
+ * table: every active rental holds two timers in a {@link HierarchicalTimingWheel},
+ * armed on checkout and cancelled on return. The wheel is rebuilt from one
+ * streaming query at startup; rentals already past due fire on the first tick.
+ * The nightly {@link OverdueSweepService} stays as the safety net.
+ */
+@Slf4j
+@Service
+public class RentalDueScheduler {
+
+    private static final int UPDATE_CHUNK_SIZE = 1000;
+
+    private final RentalBatchRepository rentalBatchRepository;
+    private final RentalEventLog rentalEventLog;
+    private final ObjectProvider<RentalDueListener> listeners;
+    private final boolean enabled;
+    private final long dueSoonWindowMillis;
+
+    private final HierarchicalTimingWheel<DueEvent> wheel;
+    private final Map<Long, List<Timeout<DueEvent>>> timers = new ConcurrentHashMap<>();
+
+    public RentalDueScheduler(RentalBatchRepository rentalBatchRepository,
+                              RentalEventLog rentalEventLog,
+                              ObjectProvider<RentalDueListener> listeners,
+                              @Value("${elmis.rentals.due-timer.enabled:true}") boolean enabled,
+                              @Value("${elmis.rentals.due-timer.tick:1000}") long tickMillis,
+                              @Value("${elmis.rentals.due-timer.due-soon-window:24h}") Duration dueSoonWindow) {
+        this.rentalBatchRepository = rentalBatchRepository;
+        this.rentalEventLog = rentalEventLog;
+        this.listeners = listeners;
+        this.enabled = enabled;
+        this.dueSoonWindowMillis = dueSoonWindow.toMillis();
+        this.wheel = new HierarchicalTimingWheel<>(tickMillis, System.currentTimeMillis());
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        if (!enabled) {
+            return;
+        }
+        long start = System.nanoTime();
+        rentalBatchRepository.streamActiveDueDates(this::arm);
+        log.info("Rental due timers rehydrated: {} pending in {} ms",
+                wheel.size(), (System.nanoTime() - start) / 1_000_000);
+    }
+
+    /** Arms (or re-arms) the timers for a rental once the current transaction commits. */
+    public void schedule(Long rentalId, LocalDateTime dueDate) {
+        if (enabled && dueDate != null) {
+            TransactionCallbacks.afterCommit(() -> arm(rentalId, dueDate));
+        }
+    }
+
+    public void cancel(Long rentalId) {
+        if (enabled) {
+            TransactionCallbacks.afterCommit(() -> disarm(rentalId));
+        }
+    }
+
+    public int pendingTimers() {
+        return wheel.size();
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.rentals.due-timer.tick:1000}")
+    public void tick() {
+        if (!enabled) {
+            return;
+        }
+        List<DueEvent> fired = wheel.advance(System.currentTimeMillis());
+        if (fired.isEmpty()) {
+            return;
+        }
+        List<Long> dueSoon = new ArrayList<>();
+        List<Long> overdue = new ArrayList<>();
+        for (DueEvent event : fired) {
+            List<Timeout<DueEvent>> armed = timers.get(event.rentalId);
+            if (armed == null || !firedFrom(armed, event)) {
+                continue; // returned or re-armed since; the new timers cover it
+            }
+            if (event.overdue) {
+                // Only drops the timers that fired, not ones a renewal has just armed
+                timers.remove(event.rentalId, armed);
+                overdue.add(event.rentalId);
+            } else {
+                dueSoon.add(event.rentalId);
+            }
+        }
+        try {
+            LocalDateTime now = LocalDateTime.now();
+            for (int from = 0; from < overdue.size(); from += UPDATE_CHUNK_SIZE) {
+                rentalEventLog.markOverdue(overdue.subList(from, Math.min(from + UPDATE_CHUNK_SIZE, overdue.size())), now);
+            }
+        } catch (RuntimeException e) {
+            // The nightly sweep picks these up
+            log.warn("Could not mark {} rentals overdue", overdue.size(), e);
+            return;
+        }
+        listeners.orderedStream().forEach(listener -> {
+            try {
+                if (!dueSoon.isEmpty()) {
+                    listener.onDueSoon(dueSoon);
+                }
+                if (!overdue.isEmpty()) {
+                    listener.onOverdue(overdue);
+                }
+            } catch (RuntimeException e) {
+                log.warn("Rental due listener {} failed", listener.getClass().getSimpleName(), e);
+            }
+        });
+    }
+
+    private void arm(Long rentalId, LocalDateTime dueDate) {
+        long dueMillis = dueDate.atZone(ZoneId.systemDefault()).toInstant().toEpochMilli();
+        List<Timeout<DueEvent>> armed = new ArrayList<>(2);
+        long dueSoonMillis = dueMillis - dueSoonWindowMillis;
+        if (dueSoonMillis > System.currentTimeMillis()) {
+            armed.add(wheel.schedule(new DueEvent(rentalId, false), dueSoonMillis));
+        }
+        armed.add(wheel.schedule(new DueEvent(rentalId, true), dueMillis));
+        List<Timeout<DueEvent>> previous = timers.put(rentalId, armed);
+        if (previous != null) {
+            previous.forEach(wheel::cancel);
+        }
+    }
+
+    private static boolean firedFrom(List<Timeout<DueEvent>> armed, DueEvent event) {
+        for (Timeout<DueEvent> timeout : armed) {
+            if (timeout.getPayload() == event) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void disarm(Long rentalId) {
+        List<Timeout<DueEvent>> armed = timers.remove(rentalId);
+        if (armed != null) {
+            armed.forEach(wheel::cancel);
+        }
+    }
+
+    private static final class DueEvent {
+        private final Long rentalId;
+        private final boolean overdue;
+
+        DueEvent(Long rentalId, boolean overdue) {
+            this.rentalId = rentalId;
+            this.overdue = overdue;
+        }
+    }
+}
@@ -0,0 +1,69 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.model.RentalEvent;
+import com.blaze.elmis.model.RentalEventType;
+import com.blaze.elmis.repository.RentalBatchRepository;
+import com.blaze.elmis.repository.RentalEventRepository;
+import lombok.RequiredArgsConstructor;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+
+/**
+ * Records rental state changes in the append-only event log. Appends join the
+ * caller's transaction, so an event exists exactly when its change committed.
+ */
+@Service
+@RequiredArgsConstructor
+public class RentalEventLog {
+
+    private final RentalEventRepository rentalEventRepository;
+    private final RentalBatchRepository rentalBatchRepository;
+    private final RentalStatistics rentalStatistics;
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(RentalEventType type, Long rentalId, Long bookId, Long userId, LocalDateTime occurredAt) {
+        rentalEventRepository.append(Collections.singletonList(event(type, rentalId, bookId, userId, occurredAt)));
+    }
+
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void append(List<RentalEvent> events) {
+        if (!events.isEmpty()) {
+            rentalEventRepository.append(events);
+        }
+    }
+
+    /**
+     * Moves the given rentals from RENTED to OVERDUE and logs one event per rental
+     * actually moved, in one transaction. Used by the overdue jobs.
+     *
+     * @return number of rentals moved
+     */
+    @Transactional
+    public int markOverdue(Collection<Long> rentalIds, LocalDateTime now) {
+        List<RentalBatchRepository.RentalRef> marked = rentalBatchRepository.markOverdue(rentalIds, now);
+        List<RentalEvent> events = new ArrayList<>(marked.size());
+        for (RentalBatchRepository.RentalRef rental : marked) {
+            events.add(event(RentalEventType.OVERDUE, rental.getId(), rental.getBookId(), rental.getUserId(), now));
+        }
+        append(events);
+        rentalStatistics.markedOverdue(marked.size());
+        return marked.size();
+    }
+
+    public static RentalEvent event(RentalEventType type, Long rentalId, Long bookId, Long userId, LocalDateTime occurredAt) {
+        return RentalEvent.builder()
+                .type(type)
+                .rentalId(rentalId)
+                .bookId(bookId)
+                .userId(userId)
+                .occurredAt(occurredAt)
+                .build();
+    }
+}
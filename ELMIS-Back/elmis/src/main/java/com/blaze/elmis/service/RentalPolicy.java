@@ -0,0 +1,24 @@
+package com.blaze.elmis.service;
+
+import lombok.Builder;
+import lombok.Value;
+
+/**
+ * Typed, immutable view of the rows in rental_rules. Built once per rule
+ * change by {@link RentalPolicyEngine}.
+ */
+@Value
+@Builder(toBuilder = true)
+public class RentalPolicy {
+    /** Loan length in open days of the business calendar. */
+    int loanDays;
+    /** 0 means no limit. */
+    int maxActiveRentals;
+    int maxRenewals;
+    /** Open days added to the current due date by one renewal. */
+    int renewalDays;
+
+    public boolean limitsActiveRentals() {
+        return maxActiveRentals > 0;
+    }
+}
@@ -0,0 +1,147 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.model.RentalRule;
+import com.blaze.elmis.repository.RentalRuleRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Compiles the free-form rental_rules rows into a {@link RentalPolicy} and
+ * answers checkout and renewal questions against it without touching the
+ * database. Rule names are matched ignoring case and separators, so
+ * "max_active_rentals", "maxActiveRentals" and "Max Active Rentals" are the
+ * same rule. Unknown names and unparsable values are logged and ignored.
+ */
+@Slf4j
+@Service
+public class RentalPolicyEngine {
+
+    static final String LOAN_DAYS = "loandays";
+    static final String MAX_ACTIVE_RENTALS = "maxactiverentals";
+    static final String MAX_RENEWALS = "maxrenewals";
+    static final String RENEWAL_DAYS = "renewaldays";
+
+    private final RentalRuleRepository rentalRuleRepository;
+    private final ActiveRentalCounter activeRentalCounter;
+    private final RentalPolicy defaults;
+    private final AtomicReference<RentalPolicy> policy = new AtomicReference<>();
+
+    public RentalPolicyEngine(RentalRuleRepository rentalRuleRepository,
+                              ActiveRentalCounter activeRentalCounter,
+                              @Value("${elmis.rentals.loan-days:14}") int loanDays,
+                              @Value("${elmis.rentals.max-active:0}") int maxActiveRentals,
+                              @Value("${elmis.rentals.max-renewals:2}") int maxRenewals,
+                              @Value("${elmis.rentals.renewal-days:14}") int renewalDays) {
+        this.rentalRuleRepository = rentalRuleRepository;
+        this.activeRentalCounter = activeRentalCounter;
+        this.defaults = RentalPolicy.builder()
+                .loanDays(loanDays)
+                .maxActiveRentals(maxActiveRentals)
+                .maxRenewals(maxRenewals)
+                .renewalDays(renewalDays)
+                .build();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        reload();
+    }
+
+    public RentalPolicy current() {
+        RentalPolicy current = policy.get();
+        return current != null ? current : reload();
+    }
+
+    public RentalPolicy reload() {
+        RentalPolicy compiled = compile(rentalRuleRepository.findAll(), defaults);
+        RentalPolicy previous = policy.getAndSet(compiled);
+        if (previous != null && previous.limitsActiveRentals() != compiled.limitsActiveRentals()) {
+            // Counts are not kept while there is no limit, so the next limit starts from the table
+            activeRentalCounter.clear();
+        }
+        log.info("Rental policy compiled: {}", compiled);
+        return compiled;
+    }
+
+    /** Swaps in a freshly compiled policy once the rule change commits. */
+    public void rulesChanged() {
+        TransactionCallbacks.afterCommit(this::reload);
+    }
+
+    /** Counts {@code copies} new rentals against the user's limit, or throws when they do not fit. */
+    public void checkOut(Long userId, int copies) {
+        RentalPolicy current = current();
+        if (current.limitsActiveRentals() && !activeRentalCounter.tryAcquire(userId, copies, current.getMaxActiveRentals())) {
+            throw new RuntimeException("User has reached the limit of " + current.getMaxActiveRentals() + " active rentals");
+        }
+    }
+
+    public void returned(Long userId, int copies) {
+        if (current().limitsActiveRentals()) {
+            activeRentalCounter.release(userId, copies);
+        }
+    }
+
+    public void checkRenewal(int renewalsSoFar) {
+        RentalPolicy current = current();
+        if (renewalsSoFar >= current.getMaxRenewals()) {
+            throw new RuntimeException("Renewal limit of " + current.getMaxRenewals() + " reached");
+        }
+    }
+
+    static RentalPolicy compile(List<RentalRule> rules, RentalPolicy defaults) {
+        RentalPolicy.RentalPolicyBuilder builder = defaults.toBuilder();
+        for (RentalRule rule : rules) {
+            String name = normalize(rule.getRuleName());
+            Integer value = parse(rule);
+            if (value == null) {
+                continue;
+            }
+            switch (name) {
+                case LOAN_DAYS:
+                    builder.loanDays(Math.max(1, value));
+                    break;
+                case MAX_ACTIVE_RENTALS:
+                    builder.maxActiveRentals(value);
+                    break;
+                case MAX_RENEWALS:
+                    builder.maxRenewals(value);
+                    break;
+                case RENEWAL_DAYS:
+                    builder.renewalDays(Math.max(1, value));
+                    break;
+                default:
+                    log.warn("Ignoring unknown rental rule '{}'", rule.getRuleName());
+            }
+        }
+        return builder.build();
+    }
+
+    private static String normalize(String ruleName) {
+        return ruleName == null ? "" : ruleName.replaceAll("[^A-Za-z0-9]", "").toLowerCase(Locale.ROOT);
+    }
+
+    private static Integer parse(RentalRule rule) {
+        String raw = rule.getRuleValue();
+        if (raw != null) {
+            try {
+                int value = Integer.parseInt(raw.trim());
+                if (value >= 0) {
+                    return value;
+                }
+            } catch (NumberFormatException e) {
+                // reported below
+            }
+        }
+        log.warn("Ignoring rental rule '{}' with invalid value '{}'", rule.getRuleName(), rule.getRuleValue());
+        return null;
+    }
+}
@@ -0,0 +1,230 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.TimeSeriesPointDto;
+import com.blaze.elmis.repository.RentalRollupRepository;
+import com.blaze.elmis.repository.RentalRollupRepository.ChangedRental;
+import com.blaze.elmis.repository.RentalRollupRepository.RollupBucket;
+import com.blaze.elmis.repository.RentalRollupRepository.Watermark;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.DayOfWeek;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Hourly, daily and monthly rollups of checkouts and returns per category and
+ * subcategory. A background job walks the rentals changed since its watermark
+ * on (updated_at, id) and adds each chunk to all three tables in the same
+ * transaction as the new watermark. A rental is counted as a checkout when it
+ * was created after the watermark and as a return when it was returned after
+ * it, so later updates such as renewals never count it twice.
+ * <p>
+ * updated_at is set before commit, so the job stops {@code elmis.rollups.settle-delay}
+ * short of now to let in-flight transactions land behind the watermark.
+ */
+@Slf4j
+@Service
+public class RentalRollupService {
+
+    public enum Granularity { HOUR, DAY, WEEK, MONTH }
+
+    public enum GroupBy { NONE, CATEGORY, SUBCATEGORY }
+
+    private static final String WATERMARK = "rental-rollups";
+
+    /** Upper bound on rollup buckets one time-series request may read per category. */
+    private static final int MAX_SOURCE_BUCKETS = 2000;
+
+    private final RentalRollupRepository rentalRollupRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int chunkSize;
+    private final Duration settleDelay;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    public RentalRollupService(RentalRollupRepository rentalRollupRepository,
+                               TransactionTemplate transactionTemplate,
+                               @Value("${elmis.rollups.enabled:true}") boolean enabled,
+                               @Value("${elmis.rollups.chunk-size:5000}") int chunkSize,
+                               @Value("${elmis.rollups.settle-delay:2m}") Duration settleDelay) {
+        this.rentalRollupRepository = rentalRollupRepository;
+        this.transactionTemplate = transactionTemplate;
+        this.enabled = enabled;
+        this.chunkSize = Math.max(1, chunkSize);
+        this.settleDelay = settleDelay;
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.rollups.interval:60000}")
+    public void scheduledRefresh() {
+        if (enabled) {
+            refresh();
+        }
+    }
+
+    /** @return number of changed rentals consumed; 0 if a refresh is already running */
+    public int refresh() {
+        if (!running.compareAndSet(false, true)) {
+            return 0;
+        }
+        try {
+            LocalDateTime upTo = LocalDateTime.now().minus(settleDelay);
+            long start = System.nanoTime();
+            int consumed = 0;
+            int step;
+            do {
+                step = step(upTo);
+                consumed += step;
+            } while (step == chunkSize);
+            if (consumed > 0) {
+                log.debug("Rental rollups consumed {} changed rentals in {} ms", consumed, (System.nanoTime() - start) / 1_000_000);
+            }
+            return consumed;
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private int step(LocalDateTime upTo) {
+        Integer consumed = transactionTemplate.execute(status -> {
+            Watermark watermark = rentalRollupRepository.lockWatermark(WATERMARK);
+            List<ChangedRental> changed = rentalRollupRepository.findChangedRentals(watermark, upTo, chunkSize);
+            if (changed.isEmpty()) {
+                return 0;
+            }
+            Map<RollupBucket, long[]> hourly = new HashMap<>();
+            Map<RollupBucket, long[]> daily = new HashMap<>();
+            Map<RollupBucket, long[]> monthly = new HashMap<>();
+            for (ChangedRental rental : changed) {
+                if (isAfter(rental.getCreatedAt(), rental.getId(), watermark)) {
+                    count(rental, rental.getRentalDate(), 0, hourly, daily, monthly);
+                }
+                if (rental.getReturnDate() != null && isAfter(rental.getReturnDate(), rental.getId(), watermark)) {
+                    count(rental, rental.getReturnDate(), 1, hourly, daily, monthly);
+                }
+            }
+            if (!hourly.isEmpty()) {
+                rentalRollupRepository.addDeltas(RentalRollupRepository.HOURLY, hourly);
+                rentalRollupRepository.addDeltas(RentalRollupRepository.DAILY, daily);
+                rentalRollupRepository.addDeltas(RentalRollupRepository.MONTHLY, monthly);
+            }
+            ChangedRental last = changed.get(changed.size() - 1);
+            rentalRollupRepository.saveWatermark(WATERMARK, new Watermark(last.getUpdatedAt(), last.getId()));
+            return changed.size();
+        });
+        return consumed != null ? consumed : 0;
+    }
+
+    private static boolean isAfter(LocalDateTime time, long rentalId, Watermark watermark) {
+        int order = time.compareTo(watermark.getUpdatedAt());
+        return order > 0 || (order == 0 && rentalId > watermark.getRentalId());
+    }
+
+    private static void count(ChangedRental rental, LocalDateTime at, int index, Map<RollupBucket, long[]> hourly,
+                              Map<RollupBucket, long[]> daily, Map<RollupBucket, long[]> monthly) {
+        LocalDate day = at.toLocalDate();
+        add(hourly, at.truncatedTo(ChronoUnit.HOURS), rental, index);
+        add(daily, day.atStartOfDay(), rental, index);
+        add(monthly, day.withDayOfMonth(1).atStartOfDay(), rental, index);
+    }
+
+    private static void add(Map<RollupBucket, long[]> deltas, LocalDateTime bucketStart, ChangedRental rental, int index) {
+        deltas.computeIfAbsent(new RollupBucket(bucketStart, rental.getCategoryId(), rental.getSubcategoryId()),
+                bucket -> new long[2])[index]++;
+    }
+
+    /**
+     * Checkouts and returns per bucket for the days {@code from} to {@code to}, widened
+     * to whole weeks or months. Reads only the rollups, and at most
+     * {@value #MAX_SOURCE_BUCKETS} buckets per category; weeks are summed from days.
+     */
+    public List<TimeSeriesPointDto> getTimeSeries(String granularity, LocalDate from, LocalDate to,
+                                                  Long categoryId, Long subcategoryId, String groupBy) {
+        Granularity unit = parse(Granularity.class, granularity, "granularity");
+        GroupBy grouping = parse(GroupBy.class, groupBy, "groupBy");
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        boolean byCategory = grouping == GroupBy.CATEGORY;
+        boolean bySubcategory = grouping == GroupBy.SUBCATEGORY;
+        LocalDateTime start;
+        LocalDateTime end;
+        long buckets;
+        switch (unit) {
+            case HOUR:
+                start = from.atStartOfDay();
+                end = to.plusDays(1).atStartOfDay();
+                buckets = ChronoUnit.HOURS.between(start, end);
+                break;
+            case MONTH:
+                start = from.withDayOfMonth(1).atStartOfDay();
+                end = to.withDayOfMonth(1).plusMonths(1).atStartOfDay();
+                buckets = ChronoUnit.MONTHS.between(start, end);
+                break;
+            default:
+                start = (unit == Granularity.WEEK ? from.with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)) : from).atStartOfDay();
+                end = (unit == Granularity.WEEK ? to.with(TemporalAdjusters.next(DayOfWeek.MONDAY)) : to.plusDays(1)).atStartOfDay();
+                buckets = ChronoUnit.DAYS.between(start, end);
+                break;
+        }
+        if (buckets > MAX_SOURCE_BUCKETS) {
+            throw new IllegalArgumentException("Range too large for " + unit + " granularity; narrow it or use a coarser one");
+        }
+        String table = unit == Granularity.HOUR ? RentalRollupRepository.HOURLY
+                : unit == Granularity.MONTH ? RentalRollupRepository.MONTHLY
+                : RentalRollupRepository.DAILY;
+        List<TimeSeriesPointDto> points = rentalRollupRepository.findSeries(table, start, end, categoryId, subcategoryId,
+                byCategory, bySubcategory);
+        return unit == Granularity.WEEK ? toWeeks(points) : points;
+    }
+
+    /** Folds daily points (ordered by day) into ISO weeks starting on Monday. */
+    private static List<TimeSeriesPointDto> toWeeks(List<TimeSeriesPointDto> days) {
+        Map<List<Object>, TimeSeriesPointDto> weeks = new LinkedHashMap<>();
+        for (TimeSeriesPointDto day : days) {
+            LocalDateTime weekStart = day.getBucketStart().toLocalDate()
+                    .with(TemporalAdjusters.previousOrSame(DayOfWeek.MONDAY)).atStartOfDay();
+            List<Object> key = new ArrayList<>(3);
+            key.add(weekStart);
+            key.add(day.getCategoryId());
+            key.add(day.getSubcategoryId());
+            TimeSeriesPointDto week = weeks.computeIfAbsent(key, k -> new TimeSeriesPointDto(weekStart,
+                    day.getCategoryId(), day.getSubcategoryId(), 0, 0));
+            week.setCheckedOut(week.getCheckedOut() + day.getCheckedOut());
+            week.setReturned(week.getReturned() + day.getReturned());
+        }
+        List<TimeSeriesPointDto> result = new ArrayList<>(weeks.values());
+        result.sort((a, b) -> {
+            int order = a.getBucketStart().compareTo(b.getBucketStart());
+            if (order == 0) {
+                order = Long.compare(a.getCategoryId() != null ? a.getCategoryId() : 0, b.getCategoryId() != null ? b.getCategoryId() : 0);
+            }
+            if (order == 0) {
+                order = Long.compare(a.getSubcategoryId() != null ? a.getSubcategoryId() : 0, b.getSubcategoryId() != null ? b.getSubcategoryId() : 0);
+            }
+            return order;
+        });
+        return result;
+    }
+
+    private static <E extends Enum<E>> E parse(Class<E> type, String value, String name) {
+        try {
+            return Enum.valueOf(type, value.trim().toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Unknown " + name + ": " + value);
+        }
+    }
+}
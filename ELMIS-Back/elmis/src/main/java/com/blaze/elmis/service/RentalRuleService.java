@@ -15,6 +15,7 @@ public class RentalRuleService {
 
     private final RentalRuleRepository rentalRuleRepository;
     private final RentalRuleMapper rentalRuleMapper;
+    private final RentalPolicyEngine rentalPolicyEngine;
 
     public Page<RentalRuleDto> getAllRentalRules(Pageable pageable) {
         return rentalRuleRepository.findAll(pageable).map(rentalRuleMapper::rentalRuleToRentalRuleDto);
@@ -28,7 +29,9 @@ public class RentalRuleService {
 
     public RentalRuleDto createRentalRule(RentalRuleDto rentalRuleDto) {
         RentalRule rentalRule = rentalRuleMapper.rentalRuleDtoToRentalRule(rentalRuleDto);
-        return rentalRuleMapper.rentalRuleToRentalRuleDto(rentalRuleRepository.save(rentalRule));
+        RentalRule savedRule = rentalRuleRepository.save(rentalRule);
+        rentalPolicyEngine.rulesChanged();
+        return rentalRuleMapper.rentalRuleToRentalRuleDto(savedRule);
     }
 
     public RentalRuleDto updateRentalRule(Long id, RentalRuleDto rentalRuleDto) {
@@ -36,10 +39,13 @@ public class RentalRuleService {
                 .orElseThrow(() -> new RuntimeException("Rental rule not found"));
         existingRentalRule.setRuleName(rentalRuleDto.getRuleName());
         existingRentalRule.setRuleValue(rentalRuleDto.getRuleValue());
-        return rentalRuleMapper.rentalRuleToRentalRuleDto(rentalRuleRepository.save(existingRentalRule));
+        RentalRule savedRule = rentalRuleRepository.save(existingRentalRule);
+        rentalPolicyEngine.rulesChanged();
+        return rentalRuleMapper.rentalRuleToRentalRuleDto(savedRule);
     }
 
     public void deleteRentalRule(Long id) {
         rentalRuleRepository.deleteById(id);
+        rentalPolicyEngine.rulesChanged();
     }
 }
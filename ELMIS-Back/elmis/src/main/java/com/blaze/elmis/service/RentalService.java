@@ -1,31 +1,87 @@
 package com.blaze.elmis.service;
 
+import com.blaze.elmis.dto.BatchRentalRequest;
+import com.blaze.elmis.dto.BatchReturnRequest;
+import com.blaze.elmis.dto.CursorPage;
+import com.blaze.elmis.dto.RentalBatchItemDto;
 import com.blaze.elmis.dto.RentalDto;
 import com.blaze.elmis.mapper.RentalMapper;
-import com.blaze.elmis.model.Book;
 import com.blaze.elmis.model.Rental;
+import com.blaze.elmis.model.RentalEvent;
+import com.blaze.elmis.model.RentalEventType;
 import com.blaze.elmis.model.RentalStatus;
+import com.blaze.elmis.model.User;
+import com.blaze.elmis.repository.BookInventoryRepository;
 import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.repository.KeysetQueryExecutor;
+import com.blaze.elmis.repository.RentalBatchRepository;
 import com.blaze.elmis.repository.RentalRepository;
 import com.blaze.elmis.repository.UserRepository;
+import com.blaze.elmis.search.CatalogIndexer;
 import lombok.RequiredArgsConstructor;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
+import org.springframework.data.jpa.domain.Specification;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
 
 @Service
 @RequiredArgsConstructor
 public class RentalService {
 
+    public static final int MAX_BATCH_SIZE = 100;
+    private static final int DUE_DATE_CHUNK_SIZE = 1000;
+
+    private static final Map<String, Class<?>> SCROLL_SORT_FIELDS = new HashMap<>();
+
+    static {
+        SCROLL_SORT_FIELDS.put("id", Long.class);
+        SCROLL_SORT_FIELDS.put("rentalDate", LocalDateTime.class);
+        SCROLL_SORT_FIELDS.put("dueDate", LocalDateTime.class);
+        SCROLL_SORT_FIELDS.put("createdAt", LocalDateTime.class);
+    }
+
     private final RentalRepository rentalRepository;
     private final BookRepository bookRepository;
     private final UserRepository userRepository;
     private final RentalMapper rentalMapper;
+    private final KeysetQueryExecutor keysetQueryExecutor;
+    private final CatalogIndexer catalogIndexer;
+    private final InventoryService inventoryService;
+    private final BookInventoryRepository bookInventoryRepository;
+    private final RentalBatchRepository rentalBatchRepository;
+    private final RentalDueScheduler rentalDueScheduler;
+    private final BusinessCalendar businessCalendar;
+    private final RentalPolicyEngine rentalPolicyEngine;
+    private final HoldService holdService;
+    private final RentalEventLog rentalEventLog;
+    private final RentalStatistics rentalStatistics;
 
     public Page<RentalDto> getAllRentals(Pageable pageable) {
-        return rentalRepository.findAll(pageable).map(rentalMapper::rentalToRentalDto);
+        return rentalRepository.findAllAsDto(pageable);
+    }
+
+    public CursorPage<RentalDto> scrollRentals(String cursor, int size, String sort, Sort.Direction direction) {
+        // Book and user are eager on Rental; fetch them in the same statement rather than one select per row
+        Specification<Rental> fetchAssociations = (root, query, cb) -> {
+            root.fetch("book");
+            root.fetch("user");
+            return null;
+        };
+        return keysetQueryExecutor.scroll(Rental.class, fetchAssociations, SCROLL_SORT_FIELDS, sort, direction, cursor, size,
+                rentalMapper::rentalToRentalDto);
     }
 
     public RentalDto getRentalById(Long id) {
@@ -34,48 +90,361 @@ public class RentalService {
                 .orElseThrow(() -> new RuntimeException("Rental not found"));
     }
 
+    @Transactional
     public RentalDto createRental(RentalDto rentalDto) {
-        Book book = bookRepository.findById(rentalDto.getBookId())
-                .orElseThrow(() -> new RuntimeException("Book not found"));
-        if (book.getAvailableQuantity() < 1) {
+        User user = userRepository.findById(rentalDto.getUserId())
+                .orElseThrow(() -> new RuntimeException("User not found"));
+        rentalPolicyEngine.checkOut(user.getId(), 1);
+        Long bookId = rentalDto.getBookId();
+        // A copy set aside for the patron's hold is used first; otherwise decrement and
+        // availability check happen atomically, in memory or in the database
+        boolean heldCopy = holdService.claimReadyHold(user.getId(), bookId);
+        boolean reserved = heldCopy || (inventoryService.isEnabled()
+                ? inventoryService.tryReserve(bookId)
+                : bookRepository.checkOutCopy(bookId) == 1);
+        if (!reserved) {
+            if (!bookRepository.existsById(bookId)) {
+                throw new RuntimeException("Book not found");
+            }
             throw new RuntimeException("Book not available");
         }
-        book.setAvailableQuantity(book.getAvailableQuantity() - 1);
-        bookRepository.save(book);
 
         Rental rental = rentalMapper.rentalDtoToRental(rentalDto);
-        rental.setUser(userRepository.findById(rentalDto.getUserId())
-                .orElseThrow(() -> new RuntimeException("User not found")));
-        rental.setBook(book);
-        rental.setRentalDate(LocalDateTime.now());
-        rental.setDueDate(LocalDateTime.now().plusDays(14)); // Default 14 days
+        rental.setUser(user);
+        rental.setBook(bookRepository.getReferenceById(bookId));
+        LocalDateTime now = LocalDateTime.now();
+        rental.setRentalDate(now);
+        rental.setDueDate(businessCalendar.addOpenDays(now, rentalPolicyEngine.current().getLoanDays()));
         rental.setStatus(RentalStatus.RENTED);
-        return rentalMapper.rentalToRentalDto(rentalRepository.save(rental));
+        rental.setRenewalCount(0);
+        Rental savedRental = rentalRepository.save(rental);
+        if (!heldCopy) {
+            catalogIndexer.adjustAvailability(bookId, -1);
+        }
+        rentalDueScheduler.schedule(savedRental.getId(), savedRental.getDueDate());
+        rentalEventLog.append(RentalEventType.CHECKED_OUT, savedRental.getId(), bookId, user.getId(), now);
+        rentalStatistics.checkedOut(Collections.singletonList(bookId));
+        return rentalMapper.rentalToRentalDto(savedRental);
     }
 
+    @Transactional
     public RentalDto returnRental(Long id) {
         Rental rental = rentalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rental not found"));
-        rental.setReturnDate(LocalDateTime.now());
-        rental.setStatus(RentalStatus.RETURNED);
+        boolean wasOverdue = rental.getStatus() == RentalStatus.OVERDUE;
+        LocalDateTime now = LocalDateTime.now();
+        // The status flip is the guard: a rental can only release its copy once, even under concurrent returns
+        if (rentalRepository.markReturned(id, now) == 0) {
+            throw new RuntimeException("Rental already returned");
+        }
+        rentalDueScheduler.cancel(id);
+
+        rentalPolicyEngine.returned(rental.getUser().getId(), 1);
+        Long bookId = rental.getBook().getId();
+        releaseCopies(Collections.singletonList(bookId));
+        rentalEventLog.append(RentalEventType.RETURNED, id, bookId, rental.getUser().getId(), now);
+        rentalStatistics.returned(Collections.singletonList(bookId), wasOverdue ? 1 : 0);
+
+        // The update cleared the persistence context; the detached entity still holds the old state
+        RentalDto dto = rentalMapper.rentalToRentalDto(rental);
+        dto.setStatus(RentalStatus.RETURNED);
+        dto.setReturnDate(now);
+        dto.setUpdatedAt(now);
+        return dto;
+    }
+
+    /**
+     * Checks out a whole cart for one patron: one query for the user, one for
+     * the books, then one JDBC batch for the stock and one for the rental rows.
+     * Copies held for the patron are used first. Items that cannot be rented are
+     * reported instead of failing the cart.
+     */
+    @Transactional
+    public List<RentalBatchItemDto> createRentals(BatchRentalRequest request) {
+        List<Long> bookIds = checkBatch(request.getBookIds());
+        Long userId = request.getUserId();
+        if (userId == null || !userRepository.existsById(userId)) {
+            throw new RuntimeException("User not found");
+        }
+        Set<Long> existing = new HashSet<>(bookRepository.findExistingIds(new HashSet<>(bookIds)));
+
+        List<Long> candidates = new ArrayList<>();
+        for (Long bookId : bookIds) {
+            if (existing.contains(bookId)) {
+                candidates.add(bookId);
+            }
+        }
+        if (!candidates.isEmpty()) {
+            rentalPolicyEngine.checkOut(userId, candidates.size());
+        }
+        boolean[] held = new boolean[candidates.size()];
+        boolean[] reserved = reserveCopies(userId, candidates, held);
+        List<Long> rentedBookIds = new ArrayList<>();
+        for (int i = 0; i < candidates.size(); i++) {
+            if (reserved[i]) {
+                rentedBookIds.add(candidates.get(i));
+            }
+        }
+        rentalPolicyEngine.returned(userId, candidates.size() - rentedBookIds.size());
+
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime dueDate = businessCalendar.addOpenDays(now, rentalPolicyEngine.current().getLoanDays());
+        Iterator<Long> rentalIds = rentedBookIds.isEmpty()
+                ? Collections.<Long>emptyIterator()
+                : rentalBatchRepository.insertRentals(userId, rentedBookIds, now, dueDate).iterator();
+
+        List<RentalBatchItemDto> results = new ArrayList<>(bookIds.size());
+        List<RentalEvent> events = new ArrayList<>(rentedBookIds.size());
+        int candidate = 0;
+        for (Long bookId : bookIds) {
+            if (!existing.contains(bookId)) {
+                results.add(failure(bookId, "Book not found"));
+                continue;
+            }
+            int item = candidate++;
+            if (!reserved[item]) {
+                results.add(failure(bookId, "Book not available"));
+            } else {
+                RentalDto rental = new RentalDto(rentalIds.next(), bookId, userId, now, dueDate, null,
+                        RentalStatus.RENTED, now, now, 0);
+                results.add(new RentalBatchItemDto(bookId, true, null, rental));
+                if (!held[item]) {
+                    catalogIndexer.adjustAvailability(bookId, -1);
+                }
+                rentalDueScheduler.schedule(rental.getId(), dueDate);
+                events.add(RentalEventLog.event(RentalEventType.CHECKED_OUT, rental.getId(), bookId, userId, now));
+            }
+        }
+        rentalEventLog.append(events);
+        rentalStatistics.checkedOut(rentedBookIds);
+        return results;
+    }
 
-        Book book = rental.getBook();
-        book.setAvailableQuantity(book.getAvailableQuantity() + 1);
-        bookRepository.save(book);
+    /** Returns several rentals with one fetch-join query and one JDBC batch per table. */
+    @Transactional
+    public List<RentalBatchItemDto> returnRentals(BatchReturnRequest request) {
+        List<Long> rentalIds = checkBatch(request.getRentalIds());
+        Map<Long, Rental> rentals = new HashMap<>();
+        for (Rental rental : rentalRepository.findAllWithBookAndUserByIdIn(new HashSet<>(rentalIds))) {
+            rentals.put(rental.getId(), rental);
+        }
+
+        List<Long> candidates = new ArrayList<>();
+        for (Long rentalId : new LinkedHashSet<>(rentalIds)) {
+            Rental rental = rentals.get(rentalId);
+            if (rental != null && rental.getStatus() != RentalStatus.RETURNED) {
+                candidates.add(rentalId);
+            }
+        }
+        LocalDateTime now = LocalDateTime.now();
+        int[] marked = candidates.isEmpty() ? new int[0] : rentalBatchRepository.markReturned(candidates, now);
+        Set<Long> returned = new HashSet<>();
+        List<Long> returnedBookIds = new ArrayList<>();
+        Map<Long, Integer> returnedPerUser = new HashMap<>();
+        List<RentalEvent> events = new ArrayList<>();
+        int overdueReturned = 0;
+        for (int i = 0; i < candidates.size(); i++) {
+            if (marked[i] > 0) {
+                Rental rental = rentals.get(candidates.get(i));
+                returned.add(rental.getId());
+                returnedBookIds.add(rental.getBook().getId());
+                returnedPerUser.merge(rental.getUser().getId(), 1, Integer::sum);
+                if (rental.getStatus() == RentalStatus.OVERDUE) {
+                    overdueReturned++;
+                }
+                events.add(RentalEventLog.event(RentalEventType.RETURNED, rental.getId(), rental.getBook().getId(),
+                        rental.getUser().getId(), now));
+            }
+        }
+        releaseCopies(returnedBookIds);
+        rentalEventLog.append(events);
+        rentalStatistics.returned(returnedBookIds, overdueReturned);
+        returnedPerUser.forEach(rentalPolicyEngine::returned);
+
+        List<RentalBatchItemDto> results = new ArrayList<>(rentalIds.size());
+        for (Long rentalId : rentalIds) {
+            Rental rental = rentals.get(rentalId);
+            if (rental == null) {
+                results.add(failure(rentalId, "Rental not found"));
+            } else if (!returned.remove(rentalId)) {
+                results.add(failure(rentalId, "Rental already returned"));
+            } else {
+                // The entity is left untouched so the flush does not re-update the row
+                RentalDto dto = rentalMapper.rentalToRentalDto(rental);
+                dto.setStatus(RentalStatus.RETURNED);
+                dto.setReturnDate(now);
+                dto.setUpdatedAt(now);
+                results.add(new RentalBatchItemDto(rentalId, true, null, dto));
+                rentalDueScheduler.cancel(rentalId);
+            }
+        }
+        return results;
+    }
 
-        return rentalMapper.rentalToRentalDto(rentalRepository.save(rental));
+    /**
+     * Re-derives the due date of every RENTED rental from its rental date and
+     * renewals under the current policy, e.g. after holidays or rules changed. Works in id-ordered chunks, each one select and
+     * one JDBC batch, and only rewrites rows whose due date actually moves.
+     *
+     * @return number of rentals whose due date changed
+     */
+    public int recomputeDueDates() {
+        int changed = 0;
+        long afterId = 0;
+        RentalPolicy policy = rentalPolicyEngine.current();
+        while (true) {
+            List<RentalBatchRepository.ActiveRentalDates> chunk =
+                    rentalBatchRepository.findActiveRentalDates(afterId, DUE_DATE_CHUNK_SIZE);
+            if (chunk.isEmpty()) {
+                return changed;
+            }
+            List<LocalDateTime> rentalDates = new ArrayList<>(chunk.size());
+            int[] openDays = new int[chunk.size()];
+            for (int i = 0; i < chunk.size(); i++) {
+                rentalDates.add(chunk.get(i).getRentalDate());
+                openDays[i] = policy.getLoanDays() + chunk.get(i).getRenewalCount() * policy.getRenewalDays();
+            }
+            List<LocalDateTime> dueDates = businessCalendar.addOpenDays(rentalDates, openDays);
+
+            Map<Long, LocalDateTime> updates = new HashMap<>();
+            for (int i = 0; i < chunk.size(); i++) {
+                if (!dueDates.get(i).equals(chunk.get(i).getDueDate())) {
+                    updates.put(chunk.get(i).getId(), dueDates.get(i));
+                }
+            }
+            if (!updates.isEmpty()) {
+                rentalBatchRepository.updateDueDates(updates);
+                updates.forEach(rentalDueScheduler::schedule);
+                changed += updates.size();
+            }
+            afterId = chunk.get(chunk.size() - 1).getId();
+        }
+    }
+
+    /**
+     * Same order as {@link #createRental}: a copy set aside for one of the patron's
+     * READY holds is claimed first ({@code held[i]} is set), and the remaining items
+     * take shelf copies in one pass.
+     */
+    private boolean[] reserveCopies(Long userId, List<Long> bookIds, boolean[] held) {
+        boolean[] reserved = new boolean[bookIds.size()];
+        List<Integer> shelfItems = new ArrayList<>();
+        for (int i = 0; i < bookIds.size(); i++) {
+            held[i] = holdService.claimReadyHold(userId, bookIds.get(i));
+            if (held[i]) {
+                reserved[i] = true;
+            } else {
+                shelfItems.add(i);
+            }
+        }
+        if (inventoryService.isEnabled()) {
+            for (int i : shelfItems) {
+                reserved[i] = inventoryService.tryReserve(bookIds.get(i));
+            }
+        } else if (!shelfItems.isEmpty()) {
+            List<Long> shelfBookIds = new ArrayList<>(shelfItems.size());
+            for (int i : shelfItems) {
+                shelfBookIds.add(bookIds.get(i));
+            }
+            int[] updated = bookInventoryRepository.checkOutCopies(shelfBookIds);
+            for (int j = 0; j < updated.length; j++) {
+                reserved[shelfItems.get(j)] = updated[j] > 0;
+            }
+        }
+        return reserved;
+    }
+
+    /** Returned copies go to the next hold on the title first, and back on the shelf otherwise. */
+    private void releaseCopies(List<Long> returnedBookIds) {
+        List<Long> bookIds = new ArrayList<>(returnedBookIds.size());
+        for (Long bookId : returnedBookIds) {
+            if (!holdService.handOff(bookId)) {
+                bookIds.add(bookId);
+            }
+        }
+        if (inventoryService.isEnabled()) {
+            for (Long bookId : bookIds) {
+                inventoryService.release(bookId);
+                catalogIndexer.adjustAvailability(bookId, 1);
+            }
+        } else if (!bookIds.isEmpty()) {
+            int[] updated = bookInventoryRepository.returnCopies(bookIds);
+            for (int i = 0; i < updated.length; i++) {
+                if (updated[i] > 0) {
+                    catalogIndexer.adjustAvailability(bookIds.get(i), 1);
+                }
+            }
+        }
+    }
+
+    private static List<Long> checkBatch(List<Long> ids) {
+        if (ids == null || ids.isEmpty()) {
+            throw new IllegalArgumentException("Batch is empty");
+        }
+        if (ids.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Batch exceeds " + MAX_BATCH_SIZE + " items");
+        }
+        if (ids.contains(null)) {
+            throw new IllegalArgumentException("Batch contains an empty id");
+        }
+        return ids;
+    }
+
+    private static RentalBatchItemDto failure(Long id, String error) {
+        return new RentalBatchItemDto(id, false, error, null);
+    }
+
+    /**
+     * Extends an active, not yet overdue rental by the policy's renewal days,
+     * counted from the current due date.
+     */
+    @Transactional
+    public RentalDto renewRental(Long id) {
+        Rental rental = rentalRepository.findById(id)
+                .orElseThrow(() -> new RuntimeException("Rental not found"));
+        if (rental.getStatus() != RentalStatus.RENTED) {
+            throw new RuntimeException("Only active rentals that are not overdue can be renewed");
+        }
+        int renewals = rental.getRenewalCount() != null ? rental.getRenewalCount() : 0;
+        rentalPolicyEngine.checkRenewal(renewals);
+
+        LocalDateTime dueDate = businessCalendar.addOpenDays(rental.getDueDate(),
+                rentalPolicyEngine.current().getRenewalDays());
+        LocalDateTime now = LocalDateTime.now();
+        if (rentalRepository.renew(id, renewals, dueDate, now) == 0) {
+            throw new RuntimeException("Rental was changed concurrently, please retry");
+        }
+        rentalDueScheduler.schedule(id, dueDate);
+        rentalEventLog.append(RentalEventType.RENEWED, id, rental.getBook().getId(), rental.getUser().getId(), now);
+        return rentalRepository.findById(id)
+                .map(rentalMapper::rentalToRentalDto)
+                .orElseThrow(() -> new RuntimeException("Rental not found"));
     }
 
+    @Transactional
     public void deleteRental(Long id) {
-        rentalRepository.deleteById(id);
+        rentalRepository.findById(id).ifPresent(rental -> {
+            rentalRepository.delete(rental);
+            if (rental.getStatus() != RentalStatus.RETURNED) {
+                rentalPolicyEngine.returned(rental.getUser().getId(), 1);
+                rentalEventLog.append(RentalEventType.DELETED, id, rental.getBook().getId(), rental.getUser().getId(),
+                        LocalDateTime.now());
+                rentalStatistics.removed(rental.getBook().getId(), rental.getStatus() == RentalStatus.OVERDUE);
+            }
+        });
+        rentalDueScheduler.cancel(id);
     }
 
+    @Transactional
     public RentalDto markAsOverdue(Long id) {
         Rental rental = rentalRepository.findById(id)
                 .orElseThrow(() -> new RuntimeException("Rental not found"));
 
-        if (rental.getStatus() == RentalStatus.RENTED && rental.getDueDate().isBefore(LocalDateTime.now())) {
+        LocalDateTime now = LocalDateTime.now();
+        if (rental.getStatus() == RentalStatus.RENTED && rental.getDueDate().isBefore(now)) {
             rental.setStatus(RentalStatus.OVERDUE);
+            rentalEventLog.append(RentalEventType.OVERDUE, id, rental.getBook().getId(), rental.getUser().getId(), now);
+            rentalStatistics.markedOverdue(1);
             return rentalMapper.rentalToRentalDto(rentalRepository.save(rental));
         } else {
             // Optionally throw an exception or return the existing rentalDto if not overdue
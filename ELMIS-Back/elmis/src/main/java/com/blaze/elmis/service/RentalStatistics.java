@@ -0,0 +1,185 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.RentalReportRepository;
+import com.blaze.elmis.util.TransactionCallbacks;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Dashboard counters kept in memory: total books, unreturned and overdue
+ * rentals, returns today and unreturned rentals per category. Circulation and
+ * catalog changes adjust them after commit; a periodic reconcile against SQL
+ * counts corrects any drift, e.g. from rentals past due that no job has moved
+ * to OVERDUE yet, books changing category, or writes that bypass the services.
+ */
+@Slf4j
+@Component
+public class RentalStatistics {
+
+    /** Category key for books without a category. */
+    public static final long NO_CATEGORY = 0L;
+
+    private final RentalReportRepository rentalReportRepository;
+
+    private final AtomicLong totalBooks = new AtomicLong();
+    private final AtomicLong activeRentals = new AtomicLong();
+    private final AtomicLong overdueRentals = new AtomicLong();
+    private final AtomicReference<DayCount> returnedToday = new AtomicReference<>(new DayCount(LocalDate.now(), 0));
+    private final ConcurrentMap<Long, AtomicLong> activeByCategory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<Long, Long> bookCategories = new ConcurrentHashMap<>();
+
+    public RentalStatistics(RentalReportRepository rentalReportRepository) {
+        this.rentalReportRepository = rentalReportRepository;
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() {
+        rentalReportRepository.streamBookCategories(bookCategories::put);
+        reconcile();
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.statistics.reconcile-interval:300000}",
+            initialDelayString = "${elmis.statistics.reconcile-interval:300000}")
+    public synchronized void reconcile() {
+        LocalDateTime now = LocalDateTime.now();
+        long drift = reset(totalBooks, rentalReportRepository.countBooks())
+                + reset(activeRentals, rentalReportRepository.countActiveRentals())
+                + reset(overdueRentals, rentalReportRepository.countOverdueRentals(now));
+        LocalDate today = now.toLocalDate();
+        returnedToday.set(new DayCount(today, rentalReportRepository.countReturnedSince(today.atStartOfDay())));
+
+        Map<Long, Long> byCategory = rentalReportRepository.countActiveRentalsByCategory();
+        for (Long categoryId : activeByCategory.keySet()) {
+            if (!byCategory.containsKey(categoryId)) {
+                activeByCategory.remove(categoryId);
+            }
+        }
+        byCategory.forEach((categoryId, count) ->
+                activeByCategory.computeIfAbsent(categoryId, id -> new AtomicLong()).set(count));
+        if (drift > 0) {
+            log.debug("Rental statistics reconciled, corrected a drift of {}", drift);
+        }
+    }
+
+    /** The rental summary; every value is a counter read. */
+    public Map<String, Long> getSummary() {
+        Map<String, Long> summary = new LinkedHashMap<>();
+        summary.put("totalBooks", totalBooks.get());
+        summary.put("rentedBooks", activeRentals.get());
+        summary.put("overdueBooks", overdueRentals.get());
+        summary.put("returnedToday", returnedToday().count.get());
+        return summary;
+    }
+
+    /** Unreturned rentals per category id, {@link #NO_CATEGORY} for books without one. */
+    public Map<Long, Long> getActiveByCategory() {
+        Map<Long, Long> counts = new HashMap<>();
+        activeByCategory.forEach((categoryId, count) -> {
+            if (count.get() > 0) {
+                counts.put(categoryId, count.get());
+            }
+        });
+        return counts;
+    }
+
+    public void checkedOut(Collection<Long> bookIds) {
+        if (!bookIds.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                activeRentals.addAndGet(bookIds.size());
+                bookIds.forEach(bookId -> categoryCounter(bookId).incrementAndGet());
+            });
+        }
+    }
+
+    /** @param overdue how many of the returned rentals were overdue */
+    public void returned(Collection<Long> bookIds, int overdue) {
+        if (!bookIds.isEmpty()) {
+            TransactionCallbacks.afterCommit(() -> {
+                ended(bookIds, overdue);
+                returnedToday().count.addAndGet(bookIds.size());
+            });
+        }
+    }
+
+    /** An unreturned rental was deleted. */
+    public void removed(Long bookId, boolean overdue) {
+        TransactionCallbacks.afterCommit(() -> ended(Collections.singletonList(bookId), overdue ? 1 : 0));
+    }
+
+    public void markedOverdue(int count) {
+        if (count > 0) {
+            TransactionCallbacks.afterCommit(() -> overdueRentals.addAndGet(count));
+        }
+    }
+
+    /** A book was created or updated. Rentals already out stay with the old category until the next reconcile. */
+    public void bookSaved(Long bookId, Long categoryId) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (bookCategories.put(bookId, categoryId != null ? categoryId : NO_CATEGORY) == null) {
+                totalBooks.incrementAndGet();
+            }
+        });
+    }
+
+    public void bookRemoved(Long bookId) {
+        TransactionCallbacks.afterCommit(() -> {
+            if (bookCategories.remove(bookId) != null) {
+                totalBooks.decrementAndGet();
+            }
+        });
+    }
+
+    private static long reset(AtomicLong counter, long actual) {
+        return Math.abs(counter.getAndSet(actual) - actual);
+    }
+
+    private void ended(Collection<Long> bookIds, int overdue) {
+        activeRentals.addAndGet(-bookIds.size());
+        overdueRentals.addAndGet(-overdue);
+        bookIds.forEach(bookId -> categoryCounter(bookId).decrementAndGet());
+    }
+
+    private AtomicLong categoryCounter(Long bookId) {
+        Long categoryId = bookCategories.computeIfAbsent(bookId, rentalReportRepository::findCategoryId);
+        return activeByCategory.computeIfAbsent(categoryId != null ? categoryId : NO_CATEGORY, id -> new AtomicLong());
+    }
+
+    /** Today's return counter, starting a new one at midnight. */
+    private DayCount returnedToday() {
+        LocalDate today = LocalDate.now();
+        DayCount current = returnedToday.get();
+        while (!current.day.equals(today)) {
+            DayCount fresh = new DayCount(today, 0);
+            if (returnedToday.compareAndSet(current, fresh)) {
+                return fresh;
+            }
+            current = returnedToday.get();
+        }
+        return current;
+    }
+
+    private static final class DayCount {
+        private final LocalDate day;
+        private final AtomicLong count;
+
+        DayCount(LocalDate day, long count) {
+            this.day = day;
+            this.count = new AtomicLong(count);
+        }
+    }
+}
@@ -0,0 +1,320 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.ReportJobDto;
+import com.blaze.elmis.dto.ReportJobRequest;
+import com.blaze.elmis.model.ReportFormat;
+import com.blaze.elmis.model.ReportJobStatus;
+import com.blaze.elmis.model.ReportType;
+import com.blaze.elmis.model.Role;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import jakarta.annotation.PreDestroy;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.util.unit.DataSize;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.stream.Collectors;
+
+/**
+ * Renders reports in the background. Jobs run on a fixed pool with a bounded queue
+ * (a full queue rejects new jobs) and write to {@code <id>.part} in the jobs
+ * directory, renamed to the final file when done, next to a {@code <id>.json}
+ * descriptor so finished results survive a restart. A request identical to a
+ * queued or running job returns that job. Finished results are evicted once
+ * older than the max age, and oldest first while the directory is over its size cap.
+ */
+@Slf4j
+@Service
+public class ReportJobService {
+
+    private static final String PART_SUFFIX = ".part";
+    private static final String DESCRIPTOR_SUFFIX = ".json";
+
+    private final ReportService reportService;
+    private final ObjectMapper objectMapper;
+    private final Path directory;
+    private final Duration maxAge;
+    private final long maxTotalBytes;
+    private final ThreadPoolExecutor executor;
+
+    private final ConcurrentMap<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, ReportJob> activeJobs = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            ObjectMapper objectMapper,
+                            @Value("${elmis.reports.jobs.dir:${java.io.tmpdir}/elmis-reports}") String directory,
+                            @Value("${elmis.reports.jobs.workers:2}") int workers,
+                            @Value("${elmis.reports.jobs.queue-capacity:20}") int queueCapacity,
+                            @Value("${elmis.reports.jobs.max-age:24h}") Duration maxAge,
+                            @Value("${elmis.reports.jobs.max-total-size:1GB}") DataSize maxTotalSize) {
+        this.reportService = reportService;
+        this.objectMapper = objectMapper;
+        this.directory = Paths.get(directory);
+        this.maxAge = maxAge;
+        this.maxTotalBytes = maxTotalSize.toBytes();
+        AtomicInteger threads = new AtomicInteger();
+        this.executor = new ThreadPoolExecutor(workers, workers, 0, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity), runnable -> {
+                    Thread thread = new Thread(runnable, "report-job-" + threads.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /** Picks up finished results of the previous run and deletes partial or unknown files. */
+    @EventListener(ApplicationReadyEvent.class)
+    public void onApplicationReady() throws IOException {
+        Files.createDirectories(directory);
+        Set<Path> results = new HashSet<>();
+        try (DirectoryStream<Path> descriptors = Files.newDirectoryStream(directory, "*" + DESCRIPTOR_SUFFIX)) {
+            for (Path descriptor : descriptors) {
+                try {
+                    ReportJob job = ReportJob.restore(objectMapper.readValue(descriptor.toFile(), ReportJobDto.class), directory);
+                    if (job.status == ReportJobStatus.DONE && Files.isRegularFile(job.file)) {
+                        jobs.put(job.id, job);
+                        results.add(descriptor);
+                        results.add(job.file);
+                    }
+                } catch (IOException | RuntimeException e) {
+                    log.warn("Skipping unreadable report job descriptor {}", descriptor, e);
+                }
+            }
+        }
+        try (DirectoryStream<Path> files = Files.newDirectoryStream(directory)) {
+            for (Path file : files) {
+                if (!results.contains(file) && Files.isRegularFile(file)) {
+                    Files.deleteIfExists(file);
+                }
+            }
+        }
+        log.info("Report jobs directory {}: {} finished reports restored", directory, jobs.size());
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+
+    public ReportJobDto submit(ReportJobRequest request) {
+        if (request.getType() == null || request.getFormat() == null) {
+            throw new IllegalArgumentException("Report type and format are required");
+        }
+        Role role = request.getType() == ReportType.EMPLOYEE_ACTIVITY
+                ? (request.getRole() != null ? request.getRole() : Role.OPERATOR)
+                : null;
+        String key = request.getType() + ":" + request.getFormat() + ":" + role;
+        while (true) {
+            ReportJob active = activeJobs.get(key);
+            if (active != null) {
+                return active.toDto();
+            }
+            ReportJob job = new ReportJob(UUID.randomUUID().toString(), key, request.getType(), request.getFormat(), role);
+            if (activeJobs.putIfAbsent(key, job) != null) {
+                continue; // an identical request got in first
+            }
+            jobs.put(job.id, job);
+            try {
+                executor.execute(() -> run(job));
+            } catch (RejectedExecutionException e) {
+                jobs.remove(job.id);
+                activeJobs.remove(key, job);
+                throw new IllegalStateException("Too many report jobs queued, try again later");
+            }
+            return job.toDto();
+        }
+    }
+
+    public List<ReportJobDto> getJobs() {
+        return jobs.values().stream()
+                .sorted(Comparator.comparing((ReportJob job) -> job.createdAt).reversed())
+                .map(ReportJob::toDto)
+                .collect(Collectors.toList());
+    }
+
+    public ReportJobDto getJob(String id) {
+        return find(id).toDto();
+    }
+
+    public ResponseEntity<Resource> download(String id) {
+        ReportJob job = find(id);
+        if (job.status != ReportJobStatus.DONE) {
+            throw new IllegalStateException("Report job " + id + " is " + job.status);
+        }
+        String fileName = job.type.name().toLowerCase() + "_" + job.id + "." + job.format.getExtension();
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + fileName + "\"")
+                .contentType(MediaType.parseMediaType(job.format.getContentType()))
+                .contentLength(job.sizeBytes)
+                .body(new FileSystemResource(job.file));
+    }
+
+    public void delete(String id) {
+        ReportJob job = find(id);
+        if (!job.isFinished()) {
+            throw new IllegalStateException("Report job " + id + " is still " + job.status);
+        }
+        evict(job);
+    }
+
+    @Scheduled(fixedDelayString = "${elmis.reports.jobs.eviction-interval:60000}")
+    public void evictOldResults() {
+        LocalDateTime cutoff = LocalDateTime.now().minus(maxAge);
+        List<ReportJob> finished = new ArrayList<>();
+        long totalBytes = 0;
+        for (ReportJob job : jobs.values()) {
+            if (job.isFinished()) {
+                finished.add(job);
+                totalBytes += job.sizeBytes;
+            }
+        }
+        finished.sort(Comparator.comparing((ReportJob job) -> job.finishedAt));
+        int evicted = 0;
+        for (ReportJob job : finished) {
+            if (!job.finishedAt.isBefore(cutoff) && totalBytes <= maxTotalBytes) {
+                break;
+            }
+            evict(job);
+            totalBytes -= job.sizeBytes;
+            evicted++;
+        }
+        if (evicted > 0) {
+            log.info("Evicted {} report results, {} bytes kept", evicted, totalBytes);
+        }
+    }
+
+    private void run(ReportJob job) {
+        Path part = directory.resolve(job.id + PART_SUFFIX);
+        try {
+            job.status = ReportJobStatus.RUNNING;
+            job.startedAt = LocalDateTime.now();
+            Files.createDirectories(directory);
+            job.totalRows = reportService.countRentalReportRows(job.type, job.role);
+            try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(part))) {
+                reportService.writeRentalReport(job.type, job.role, job.format, out, job.rowsWritten::set);
+            }
+            Path file = directory.resolve(job.id + "." + job.format.getExtension());
+            Files.move(part, file, StandardCopyOption.ATOMIC_MOVE);
+            job.file = file;
+            job.sizeBytes = Files.size(file);
+            job.finishedAt = LocalDateTime.now();
+            job.status = ReportJobStatus.DONE;
+            objectMapper.writeValue(directory.resolve(job.id + DESCRIPTOR_SUFFIX).toFile(), job.toDto());
+        } catch (Exception e) {
+            log.warn("Report job {} ({} {}) failed", job.id, job.type, job.format, e);
+            job.error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+            job.finishedAt = LocalDateTime.now();
+            job.status = ReportJobStatus.FAILED;
+            deleteQuietly(part);
+        } finally {
+            activeJobs.remove(job.key, job);
+        }
+    }
+
+    private void evict(ReportJob job) {
+        jobs.remove(job.id);
+        deleteQuietly(directory.resolve(job.id + DESCRIPTOR_SUFFIX));
+        if (job.file != null) {
+            deleteQuietly(job.file);
+        }
+    }
+
+    private ReportJob find(String id) {
+        ReportJob job = jobs.get(id);
+        if (job == null) {
+            throw new RuntimeException("Report job not found");
+        }
+        return job;
+    }
+
+    private static void deleteQuietly(Path file) {
+        try {
+            Files.deleteIfExists(file);
+        } catch (IOException e) {
+            log.warn("Could not delete {}", file, e);
+        }
+    }
+
+    private static final class ReportJob {
+        private final String id;
+        private final String key;
+        private final ReportType type;
+        private final ReportFormat format;
+        private final Role role;
+        private final LocalDateTime createdAt;
+        private final AtomicLong rowsWritten = new AtomicLong();
+        private volatile ReportJobStatus status = ReportJobStatus.QUEUED;
+        private volatile long totalRows = -1;
+        private volatile LocalDateTime startedAt;
+        private volatile LocalDateTime finishedAt;
+        private volatile Path file;
+        private volatile long sizeBytes;
+        private volatile String error;
+
+        ReportJob(String id, String key, ReportType type, ReportFormat format, Role role) {
+            this(id, key, type, format, role, LocalDateTime.now());
+        }
+
+        private ReportJob(String id, String key, ReportType type, ReportFormat format, Role role, LocalDateTime createdAt) {
+            this.id = id;
+            this.key = key;
+            this.type = type;
+            this.format = format;
+            this.role = role;
+            this.createdAt = createdAt;
+        }
+
+        static ReportJob restore(ReportJobDto dto, Path directory) {
+            UUID.fromString(dto.getId()); // the id becomes a file name
+            ReportJob job = new ReportJob(dto.getId(), null, dto.getType(), dto.getFormat(), dto.getRole(), dto.getCreatedAt());
+            job.rowsWritten.set(dto.getRowsWritten());
+            job.status = dto.getStatus();
+            job.totalRows = dto.getTotalRows();
+            job.startedAt = dto.getStartedAt();
+            job.finishedAt = dto.getFinishedAt();
+            job.sizeBytes = dto.getSizeBytes();
+            job.file = directory.resolve(dto.getId() + "." + dto.getFormat().getExtension());
+            return job;
+        }
+
+        boolean isFinished() {
+            return status == ReportJobStatus.DONE || status == ReportJobStatus.FAILED;
+        }
+
+        ReportJobDto toDto() {
+            return new ReportJobDto(id, type, format, role, status, rowsWritten.get(), totalRows,
+                    createdAt, startedAt, finishedAt, sizeBytes, error);
+        }
+    }
+}
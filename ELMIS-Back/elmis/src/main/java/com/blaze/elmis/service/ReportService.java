@@ -1,24 +1,39 @@
 package com.blaze.elmis.service;
 
-import com.blaze.elmis.model.Book;
+import com.blaze.elmis.dto.PopularBookDto;
+import com.blaze.elmis.dto.RentalReportRowDto;
+import com.blaze.elmis.model.BookRentalProjection;
+import com.blaze.elmis.model.DailyRentalVolume;
 import com.blaze.elmis.model.Rental;
 import com.blaze.elmis.model.RentalStatus;
-import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.model.ReportFormat;
+import com.blaze.elmis.model.ReportType;
+import com.blaze.elmis.model.UserRentalProjection;
+import com.blaze.elmis.repository.BookRentalProjectionRepository;
+import com.blaze.elmis.repository.DailyRentalVolumeRepository;
+import com.blaze.elmis.repository.RentalReportRepository;
 import com.blaze.elmis.repository.RentalRepository;
+import com.blaze.elmis.repository.UserRentalProjectionRepository;
 import lombok.RequiredArgsConstructor;
+import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import java.io.ByteArrayOutputStream;
+import java.io.BufferedWriter;
 import java.io.IOException;
+import java.io.OutputStream;
 import java.io.OutputStreamWriter;
+import java.io.Writer;
 import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.time.LocalDateTime;
-import java.util.ArrayList;
-import java.util.Comparator;
-import java.util.HashMap;
+import java.time.temporal.ChronoUnit;
+import java.util.Iterator;
 import java.util.List;
 import java.util.Map;
+import java.util.function.LongConsumer;
 import java.util.stream.Collectors;
+import java.util.stream.Stream;
 
 import org.apache.commons.csv.CSVFormat;
 import org.apache.commons.csv.CSVPrinter;
@@ -35,7 +50,19 @@ import com.blaze.elmis.model.Role; // Import Role enum
 public class ReportService {
 
     private final RentalRepository rentalRepository;
-    private final BookRepository bookRepository;
+    private final UserRentalProjectionRepository userRentalProjectionRepository;
+    private final BookRentalProjectionRepository bookRentalProjectionRepository;
+    private final DailyRentalVolumeRepository dailyRentalVolumeRepository;
+    private final RentalReportRepository rentalReportRepository;
+    private final PopularBooksTracker popularBooksTracker;
+    private final RentalStatistics rentalStatistics;
+
+    private static final int MAX_PROJECTION_ROWS = 500;
+    private static final int MAX_VOLUME_DAYS = 366;
+    private static final int PDF_ROWS_PER_FLUSH = 500;
+    private static final int PROGRESS_INTERVAL = 1000;
+    private static final LongConsumer NO_PROGRESS = written -> { };
+    private static final String[] EXPORT_COLUMNS = {"ID", "Book Title", "User Name", "Status", "Rental Date", "Due Date", "Return Date"};
 // Assuming Employee role is defined in Role enum, e.g., Role.EMPLOYEE
 // If not, we might need to adjust this or ask for clarification.
 // For now, let's assume Role.EMPLOYEE exists.
@@ -46,13 +73,21 @@ public class ReportService {
 // For now, we'll use the repository method as is, assuming it takes a specific role.
 // We will pass Role.EMPLOYEE to it.
 
-    public List<Book> getMostPopularBooks() {
-        return rentalRepository.findAll().stream()
-                .collect(Collectors.groupingBy(Rental::getBook, Collectors.counting()))
-                .entrySet().stream()
-                .sorted(Map.Entry.comparingByValue(Comparator.reverseOrder()))
-                .map(Map.Entry::getKey)
-                .collect(Collectors.toList());
+    /**
+     * Most rented books with a rental date between {@code from} and {@code to}, both
+     * inclusive. The default last-30-days view is served from {@link PopularBooksTracker}.
+     */
+    public List<PopularBookDto> getMostPopularBooks(LocalDate from, LocalDate to, int limit) {
+        checkLimit(limit);
+        if (from == null && to == null && limit <= popularBooksTracker.getTopK()) {
+            return popularBooksTracker.top(limit);
+        }
+        LocalDate end = to != null ? to : LocalDate.now();
+        LocalDate start = from != null ? from : end.minusDays(PopularBooksTracker.DEFAULT_WINDOW_DAYS - 1);
+        if (start.isAfter(end)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        return rentalReportRepository.findMostRentedBooks(start.atStartOfDay(), end.plusDays(1).atStartOfDay(), limit);
     }
 
     public List<Rental> getActiveRentals() {
@@ -62,22 +97,16 @@ public class ReportService {
     }
 
     public Map<String, Long> getRentalSummary() {
-        long totalBooks = bookRepository.count();
-        long rentedBooks = rentalRepository.findAll().stream()
-                .filter(rental -> rental.getStatus() == RentalStatus.RENTED)
-                .count();
-        // Use the repository method to find overdue rentals
-        long overdueBooks = rentalRepository.findByStatusAndDueDateBefore(RentalStatus.RENTED, LocalDateTime.now()).size();
-        Map<String, Long> summary = new HashMap<>();
-        summary.put("totalBooks", totalBooks);
-        summary.put("rentedBooks", rentedBooks);
-        summary.put("overdueBooks", overdueBooks);
-        return summary;
+        return rentalStatistics.getSummary();
+    }
+
+    public Map<Long, Long> getActiveRentalsByCategory() {
+        return rentalStatistics.getActiveByCategory();
     }
 
+    /** Rentals marked overdue plus rentals past due that no job has moved yet. */
     public List<Rental> getOverdueRentals() {
-        // Use the repository method to find overdue rentals
-        return rentalRepository.findByStatusAndDueDateBefore(RentalStatus.RENTED, LocalDateTime.now());
+        return rentalRepository.findOverdue(LocalDateTime.now());
     }
 
     public List<Rental> getReturnedRentals() {
@@ -93,128 +122,152 @@ public class ReportService {
         return rentalRepository.findByEmployeeRole(employeeRole);
     }
 
-    // CSV Export for Rental Reports
-    public byte[] exportRentalReportToCsv() throws IOException {
-        List<Rental> rentals = rentalRepository.findAll(); // Get all rentals
-        return exportRentalsToCsv(rentals, "Rental Report");
+    // Dashboards below read the projections fed by the rental event log, not the rentals table
+
+    public List<UserRentalProjection> getTopActiveUsers(int limit) {
+        return userRentalProjectionRepository.findByActiveRentalsGreaterThanOrderByActiveRentalsDesc(0L,
+                PageRequest.of(0, checkLimit(limit)));
     }
 
-    // PDF Export for Rental Reports
-    public byte[] exportRentalReportToPdf() throws IOException {
-        List<Rental> rentals = rentalRepository.findAll(); // Get all rentals
-        return exportRentalsToPdf(rentals, "Rental Report");
+    public UserRentalProjection getUserRentalStats(Long userId) {
+        return userRentalProjectionRepository.findById(userId)
+                .orElseGet(() -> new UserRentalProjection(userId, 0L, 0L));
     }
 
-    // CSV Export for Overdue Rental Reports
-    public void exportOverdueRentalsToCsv(HttpServletResponse response) throws IOException {
-        List<Rental> overdueRentals = getOverdueRentals();
-        response.setContentType("text/csv");
-        response.setHeader("Content-Disposition", "attachment; filename=\"overdue_rentals.csv\"");
-        try (OutputStreamWriter writer = new OutputStreamWriter(response.getOutputStream(), StandardCharsets.UTF_8);
-             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader("ID", "Book Title", "User Name", "Status", "Rental Date", "Due Date", "Return Date"))) {
-
-            for (Rental rental : overdueRentals) {
-                csvPrinter.printRecord(
-                        rental.getId(),
-                        rental.getBook().getTitle(),
-                        rental.getUser().getUsername(),
-                        rental.getStatus().toString(),
-                        rental.getRentalDate(),
-                        rental.getDueDate(),
-                        rental.getReturnDate()
-                );
-            }
+    public List<BookRentalProjection> getBookRentalStats(int limit) {
+        return bookRentalProjectionRepository.findAllByOrderByTotalRentalsDesc(PageRequest.of(0, checkLimit(limit)));
+    }
+
+    public List<DailyRentalVolume> getDailyRentalVolume(LocalDate from, LocalDate to) {
+        if (from.isAfter(to)) {
+            throw new IllegalArgumentException("'from' must not be after 'to'");
+        }
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_VOLUME_DAYS) {
+            throw new IllegalArgumentException("Date range must not exceed " + MAX_VOLUME_DAYS + " days");
+        }
+        return dailyRentalVolumeRepository.findByVolumeDateBetweenOrderByVolumeDate(from, to);
+    }
+
+    private static int checkLimit(int limit) {
+        if (limit < 1 || limit > MAX_PROJECTION_ROWS) {
+            throw new IllegalArgumentException("Limit must be between 1 and " + MAX_PROJECTION_ROWS);
         }
+        return limit;
     }
 
-    // PDF Export for Overdue Rental Reports
+    // Exports stream rows from a forward-only cursor straight into the response, so
+    // memory use does not grow with the number of rentals
+
+    @Transactional(readOnly = true)
+    public void exportRentalReportToCsv(HttpServletResponse response) throws IOException {
+        startDownload(response, ReportFormat.CSV, "rentals");
+        writeRentalReport(ReportType.RENTALS, null, ReportFormat.CSV, response.getOutputStream(), NO_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportRentalReportToPdf(HttpServletResponse response) throws IOException {
+        startDownload(response, ReportFormat.PDF, "rentals");
+        writeRentalReport(ReportType.RENTALS, null, ReportFormat.PDF, response.getOutputStream(), NO_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
+    public void exportOverdueRentalsToCsv(HttpServletResponse response) throws IOException {
+        startDownload(response, ReportFormat.CSV, "overdue_rentals");
+        writeRentalReport(ReportType.OVERDUE_RENTALS, null, ReportFormat.CSV, response.getOutputStream(), NO_PROGRESS);
+    }
+
+    @Transactional(readOnly = true)
     public void exportOverdueRentalsToPdf(HttpServletResponse response) throws IOException {
-        List<Rental> overdueRentals = getOverdueRentals();
-        response.setContentType("application/pdf");
-        response.setHeader("Content-Disposition", "attachment; filename=\"overdue_rentals.pdf\"");
-        try (Document document = new Document()) {
-            PdfWriter.getInstance(document, response.getOutputStream());
-            document.open();
-
-            document.add(new Paragraph("Overdue Rental Report"));
-            document.add(Chunk.NEWLINE);
-
-            PdfPTable table = new PdfPTable(7); // Number of columns
-            table.addCell("ID");
-            table.addCell("Book Title");
-            table.addCell("User Name");
-            table.addCell("Status");
-            table.addCell("Rental Date");
-            table.addCell("Due Date");
-            table.addCell("Return Date");
-
-            for (Rental rental : overdueRentals) {
-                table.addCell(String.valueOf(rental.getId()));
-                table.addCell(rental.getBook().getTitle());
-                table.addCell(rental.getUser().getUsername());
-                table.addCell(rental.getStatus().toString());
-                table.addCell(rental.getRentalDate() != null ? rental.getRentalDate().toString() : "");
-                table.addCell(rental.getDueDate() != null ? rental.getDueDate().toString() : "");
-                table.addCell(rental.getReturnDate() != null ? rental.getReturnDate().toString() : "");
+        startDownload(response, ReportFormat.PDF, "overdue_rentals");
+        writeRentalReport(ReportType.OVERDUE_RENTALS, null, ReportFormat.PDF, response.getOutputStream(), NO_PROGRESS);
+    }
+
+    /**
+     * Writes a report to {@code out}, passing the number of rows written so far to
+     * {@code progress} every {@value #PROGRESS_INTERVAL} rows and once at the end.
+     * {@code role} is only used by {@link ReportType#EMPLOYEE_ACTIVITY}.
+     */
+    @Transactional(readOnly = true)
+    public void writeRentalReport(ReportType type, Role role, ReportFormat format, OutputStream out,
+                                  LongConsumer progress) throws IOException {
+        try (Stream<RentalReportRowDto> rows = rentalReportRepository.streamRentalRows(type, role, LocalDateTime.now())) {
+            if (format == ReportFormat.PDF) {
+                writePdf(rows, type.getTitle(), out, progress);
+            } else {
+                writeCsv(rows, out, progress);
             }
-            document.add(table);
-            document.close();
         }
     }
 
-    // Helper method for CSV export to avoid code duplication
-    private byte[] exportRentalsToCsv(List<Rental> rentals, String reportTitle) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream();
-             OutputStreamWriter writer = new OutputStreamWriter(baos, StandardCharsets.UTF_8);
-             CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader("ID", "Book Title", "User Name", "Status", "Rental Date", "Due Date", "Return Date"))) {
-
-            for (Rental rental : rentals) {
-                csvPrinter.printRecord(
-                        rental.getId(),
-                        rental.getBook().getTitle(),
-                        rental.getUser().getUsername(),
-                        rental.getStatus().toString(),
-                        rental.getRentalDate(),
-                        rental.getDueDate(),
-                        rental.getReturnDate()
-                );
+    @Transactional(readOnly = true)
+    public long countRentalReportRows(ReportType type, Role role) {
+        return rentalReportRepository.countRentalRows(type, role, LocalDateTime.now());
+    }
+
+    private static void startDownload(HttpServletResponse response, ReportFormat format, String baseName) {
+        response.setContentType(format.getContentType());
+        response.setHeader("Content-Disposition", "attachment; filename=\"" + baseName + "." + format.getExtension() + "\"");
+    }
+
+    private static void writeCsv(Stream<RentalReportRowDto> rows, OutputStream out, LongConsumer progress) throws IOException {
+        Writer writer = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        CSVPrinter csvPrinter = new CSVPrinter(writer, CSVFormat.DEFAULT.withHeader(EXPORT_COLUMNS));
+        long written = 0;
+        Iterator<RentalReportRowDto> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            RentalReportRowDto row = iterator.next();
+            csvPrinter.printRecord(row.getId(), row.getBookTitle(), row.getUsername(), row.getStatus(),
+                    row.getRentalDate(), row.getDueDate(), row.getReturnDate());
+            if (++written % PROGRESS_INTERVAL == 0) {
+                progress.accept(written);
             }
-            csvPrinter.flush();
-            return baos.toByteArray();
         }
+        csvPrinter.flush();
+        progress.accept(written);
     }
 
-    // Helper method for PDF export to avoid code duplication
-    private byte[] exportRentalsToPdf(List<Rental> rentals, String reportTitle) throws IOException {
-        try (ByteArrayOutputStream baos = new ByteArrayOutputStream()) {
-            Document document = new Document();
-            PdfWriter.getInstance(document, baos);
-            document.open();
-
-            document.add(new Paragraph(reportTitle));
-            document.add(Chunk.NEWLINE);
-
-            PdfPTable table = new PdfPTable(7); // Number of columns
-            table.addCell("ID");
-            table.addCell("Book Title");
-            table.addCell("User Name");
-            table.addCell("Status");
-            table.addCell("Rental Date");
-            table.addCell("Due Date");
-            table.addCell("Return Date");
-
-            for (Rental rental : rentals) {
-                table.addCell(String.valueOf(rental.getId()));
-                table.addCell(rental.getBook().getTitle());
-                table.addCell(rental.getUser().getUsername());
-                table.addCell(rental.getStatus().toString());
-                table.addCell(rental.getRentalDate() != null ? rental.getRentalDate().toString() : "");
-                table.addCell(rental.getDueDate() != null ? rental.getDueDate().toString() : "");
-                table.addCell(rental.getReturnDate() != null ? rental.getReturnDate().toString() : "");
+    /**
+     * The table is marked incomplete and added to the document every
+     * {@value #PDF_ROWS_PER_FLUSH} rows, which writes out the finished pages and
+     * drops those rows; the header row repeats on every page.
+     */
+    private static void writePdf(Stream<RentalReportRowDto> rows, String title, OutputStream out,
+                                 LongConsumer progress) throws IOException {
+        Document document = new Document();
+        PdfWriter.getInstance(document, out);
+        document.open();
+        document.add(new Paragraph(title));
+        document.add(Chunk.NEWLINE);
+
+        PdfPTable table = new PdfPTable(EXPORT_COLUMNS.length);
+        table.setComplete(false);
+        for (String column : EXPORT_COLUMNS) {
+            table.addCell(column);
+        }
+        table.setHeaderRows(1);
+        int pending = 0;
+        long written = 0;
+        Iterator<RentalReportRowDto> iterator = rows.iterator();
+        while (iterator.hasNext()) {
+            RentalReportRowDto row = iterator.next();
+            table.addCell(String.valueOf(row.getId()));
+            table.addCell(row.getBookTitle());
+            table.addCell(row.getUsername());
+            table.addCell(row.getStatus() != null ? row.getStatus().toString() : "");
+            table.addCell(row.getRentalDate() != null ? row.getRentalDate().toString() : "");
+            table.addCell(row.getDueDate() != null ? row.getDueDate().toString() : "");
+            table.addCell(row.getReturnDate() != null ? row.getReturnDate().toString() : "");
+            if (++pending == PDF_ROWS_PER_FLUSH) {
+                document.add(table);
+                pending = 0;
+            }
+            if (++written % PROGRESS_INTERVAL == 0) {
+                progress.accept(written);
             }
-            document.add(table);
-            document.close();
-            return baos.toByteArray();
         }
+        table.setComplete(true);
+        document.add(table);
+        document.close();
+        progress.accept(written);
     }
 }
@@ -1,17 +1,18 @@
 package com.blaze.elmis.spec;
 
 import com.blaze.elmis.model.Book;
-import com.blaze.elmis.model.Category;
-import com.blaze.elmis.model.Subcategory;
+import com.blaze.elmis.search.BookSearchIndex;
+import com.blaze.elmis.search.TextAnalyzer;
 import jakarta.persistence.criteria.*;
 import org.springframework.data.jpa.domain.Specification;
 
+import java.util.Collection;
+
 public class BookSpecification {
 
     public static Specification<Book> searchBooks(String title, String author, String isbn, Long categoryId, Long subcategoryId) {
         return (root, query, criteriaBuilder) -> {
-            query.distinct(true); // Ensure distinct results
-
+            // Only to-one associations are filtered on, so rows can never repeat and no DISTINCT is needed
             Predicate predicate = criteriaBuilder.conjunction(); // Start with a conjunction (AND)
 
             if (title != null && !title.isEmpty()) {
@@ -23,16 +24,75 @@ public class BookSpecification {
             if (isbn != null && !isbn.isEmpty()) {
                 predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("isbn"), isbn));
             }
+            // Comparing the foreign key directly avoids joining categories/subcategories at all
             if (categoryId != null) {
-                Join<Book, Category> categoryJoin = root.join("category");
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(categoryJoin.get("id"), categoryId));
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("category").get("id"), categoryId));
             }
             if (subcategoryId != null) {
-                Join<Book, Subcategory> subcategoryJoin = root.join("subcategory");
-                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(subcategoryJoin.get("id"), subcategoryId));
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.equal(root.get("subcategory").get("id"), subcategoryId));
             }
 
             return predicate;
         };
     }
+
+    public static Specification<Book> idIn(Collection<Long> ids) {
+        return (root, query, criteriaBuilder) -> root.get("id").in(ids);
+    }
+
+    /**
+     * SQL form of {@link BookSearchIndex#match}, used while the index is loading or when
+     * it returns too many ids for an IN list: every token of {@code text} must start a word
+     * of {@code field}. Punctuation runs are folded to spaces like {@link TextAnalyzer} does,
+     * and the default accent- and case-insensitive collation covers the rest of its normalization.
+     */
+    public static Specification<Book> fieldMatchesTokens(String field, String text) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<String> words = words(criteriaBuilder, root.get(field));
+            Predicate predicate = criteriaBuilder.conjunction();
+            for (String token : TextAnalyzer.tokenize(text)) {
+                predicate = criteriaBuilder.and(predicate, startsWord(criteriaBuilder, words, token));
+            }
+            return predicate;
+        };
+    }
+
+    /** SQL form of {@link BookSearchIndex#matchAnyField}, with the same token-prefix semantics. */
+    public static Specification<Book> matchesTokens(String text) {
+        return (root, query, criteriaBuilder) -> {
+            Expression<String> title = words(criteriaBuilder, root.get("title"));
+            Expression<String> author = words(criteriaBuilder, root.get("author"));
+            Expression<String> publisher = words(criteriaBuilder, root.get("publisher"));
+            Expression<String> isbn = isbnDigits(criteriaBuilder, root.get("isbn"));
+            Predicate predicate = criteriaBuilder.conjunction();
+            for (String token : TextAnalyzer.tokenize(text)) {
+                predicate = criteriaBuilder.and(predicate, criteriaBuilder.or(
+                        startsWord(criteriaBuilder, title, token),
+                        startsWord(criteriaBuilder, author, token),
+                        startsWord(criteriaBuilder, publisher, token),
+                        criteriaBuilder.like(isbn, token + "%")));
+            }
+            if (BookSearchIndex.isIsbnQuery(text)) {
+                predicate = criteriaBuilder.or(predicate, criteriaBuilder.like(isbn, TextAnalyzer.normalizeIsbn(text) + "%"));
+            }
+            return predicate;
+        };
+    }
+
+    private static Expression<String> words(CriteriaBuilder criteriaBuilder, Expression<String> column) {
+        return criteriaBuilder.function("regexp_replace", String.class,
+                criteriaBuilder.lower(column), criteriaBuilder.literal("[^[:alnum:]]+"), criteriaBuilder.literal(" "));
+    }
+
+    private static Expression<String> isbnDigits(CriteriaBuilder criteriaBuilder, Expression<String> column) {
+        return criteriaBuilder.function("regexp_replace", String.class,
+                criteriaBuilder.lower(column), criteriaBuilder.literal("[^0-9x]+"), criteriaBuilder.literal(""));
+    }
+
+    // Tokens are letters and digits only, so they never contain LIKE wildcards
+    private static Predicate startsWord(CriteriaBuilder criteriaBuilder, Expression<String> words, String token) {
+        return criteriaBuilder.or(
+                criteriaBuilder.like(words, token + "%"),
+                criteriaBuilder.like(words, "% " + token + "%"));
+    }
 }
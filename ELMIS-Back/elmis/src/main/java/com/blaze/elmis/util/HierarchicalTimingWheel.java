@@ -0,0 +1,178 @@
+package com.blaze.elmis.util;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Hashed hierarchical timing wheel: four levels of 256 slots, each slot an
+ * intrusive doubly linked list, so scheduling and cancelling are O(1) no
+ * matter how many timers are pending. Level 0 has one slot per tick; a
+ * timer further out sits in a coarser level and is moved down when its
+ * slot comes round. Four levels cover 2^32 ticks; anything later parks in
+ * the farthest top-level slot and is re-placed when that slot cascades.
+ * <p>
+ * Time only moves through {@link #advance(long)}, which returns the payloads
+ * that fell due so the caller can handle them as one batch.
+ */
+public class HierarchicalTimingWheel<T> {
+
+    private static final int BITS = 8;
+    private static final int SLOTS = 1 << BITS;
+    private static final int MASK = SLOTS - 1;
+    private static final int LEVELS = 4;
+
+    private final long tickMillis;
+    private final Slot<T>[][] wheels;
+    private long currentTick;
+    private int size;
+
+    @SuppressWarnings("unchecked")
+    public HierarchicalTimingWheel(long tickMillis, long startMillis) {
+        if (tickMillis <= 0) {
+            throw new IllegalArgumentException("Tick must be positive");
+        }
+        this.tickMillis = tickMillis;
+        this.currentTick = startMillis / tickMillis;
+        this.wheels = new Slot[LEVELS][SLOTS];
+        for (int level = 0; level < LEVELS; level++) {
+            for (int slot = 0; slot < SLOTS; slot++) {
+                wheels[level][slot] = new Slot<>();
+            }
+        }
+    }
+
+    /** Deadlines already in the past fire on the next tick. */
+    public synchronized Timeout<T> schedule(T payload, long deadlineMillis) {
+        long expiryTick = (deadlineMillis + tickMillis - 1) / tickMillis;
+        Timeout<T> timeout = new Timeout<>(payload, Math.max(expiryTick, currentTick + 1));
+        place(timeout);
+        size++;
+        return timeout;
+    }
+
+    /** @return false if the timeout already fired or was cancelled */
+    public synchronized boolean cancel(Timeout<T> timeout) {
+        if (timeout.slot == null) {
+            return false;
+        }
+        timeout.slot.unlink(timeout);
+        size--;
+        return true;
+    }
+
+    /** Moves the wheel up to {@code nowMillis} and returns every payload that fell due, tick by tick. */
+    public synchronized List<T> advance(long nowMillis) {
+        long targetTick = nowMillis / tickMillis;
+        List<T> expired = new ArrayList<>();
+        while (currentTick < targetTick) {
+            currentTick++;
+            cascade();
+            Slot<T> slot = wheels[0][(int) (currentTick & MASK)];
+            for (Timeout<T> timeout = slot.poll(); timeout != null; timeout = slot.poll()) {
+                size--;
+                expired.add(timeout.payload);
+            }
+        }
+        return expired;
+    }
+
+    public synchronized int size() {
+        return size;
+    }
+
+    private void cascade() {
+        // Top level first, so a timer can drop more than one level in a single step
+        for (int level = LEVELS - 1; level > 0; level--) {
+            long lowerBits = currentTick & ((1L << (level * BITS)) - 1);
+            if (lowerBits != 0) {
+                continue;
+            }
+            Slot<T> slot = wheels[level][(int) ((currentTick >>> (level * BITS)) & MASK)];
+            for (Timeout<T> timeout = slot.poll(); timeout != null; timeout = slot.poll()) {
+                place(timeout);
+            }
+        }
+    }
+
+    private void place(Timeout<T> timeout) {
+        long delta = timeout.expiryTick - currentTick;
+        int level;
+        long index;
+        if (delta < 1L << BITS) {
+            level = 0;
+            index = timeout.expiryTick;
+        } else if (delta < 1L << (2 * BITS)) {
+            level = 1;
+            index = timeout.expiryTick >>> BITS;
+        } else if (delta < 1L << (3 * BITS)) {
+            level = 2;
+            index = timeout.expiryTick >>> (2 * BITS);
+        } else if (delta < 1L << (4 * BITS)) {
+            level = 3;
+            index = timeout.expiryTick >>> (3 * BITS);
+        } else {
+            level = 3;
+            index = (currentTick >>> (3 * BITS)) + MASK;
+        }
+        wheels[level][(int) (index & MASK)].add(timeout);
+    }
+
+    /** Handle returned by {@link #schedule}; keep it to cancel the timer. */
+    public static final class Timeout<T> {
+        private final T payload;
+        private final long expiryTick;
+        private Slot<T> slot;
+        private Timeout<T> prev;
+        private Timeout<T> next;
+
+        private Timeout(T payload, long expiryTick) {
+            this.payload = payload;
+            this.expiryTick = expiryTick;
+        }
+
+        public T getPayload() {
+            return payload;
+        }
+    }
+
+    private static final class Slot<T> {
+        private Timeout<T> head;
+        private Timeout<T> tail;
+
+        void add(Timeout<T> timeout) {
+            timeout.slot = this;
+            timeout.prev = tail;
+            timeout.next = null;
+            if (tail == null) {
+                head = timeout;
+            } else {
+                tail.next = timeout;
+            }
+            tail = timeout;
+        }
+
+        void unlink(Timeout<T> timeout) {
+            if (timeout.prev == null) {
+                head = timeout.next;
+            } else {
+                timeout.prev.next = timeout.next;
+            }
+            if (timeout.next == null) {
+                tail = timeout.prev;
+            } else {
+                timeout.next.prev = timeout.prev;
+            }
+            timeout.slot = null;
+            timeout.prev = null;
+            timeout.next = null;
+        }
+
+        Timeout<T> poll() {
+            Timeout<T> first = head;
+            if (first != null) {
+                unlink(first);
+            }
+            return first;
+        }
+    }
+}
@@ -0,0 +1,51 @@
+package com.blaze.elmis.util;
+
+import lombok.Value;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+/**
+ * Opaque continuation token for keyset pagination: the sort column and
+ * direction it was issued for, plus the sort value and id of the last row sent.
+ */
+@Value
+public class KeysetCursor {
+
+    private static final String SEPARATOR = "\u001f";
+    // Written before a present value, so an empty string and "no value" stay distinct
+    private static final String PRESENT = "=";
+
+    String sortField;
+    Sort.Direction direction;
+    String value; // null when the last row had no value for the sort column
+    Long id;
+
+    public String encode() {
+        // The value goes last so a separator inside it cannot shift the other fields
+        String raw = sortField + SEPARATOR + direction.name() + SEPARATOR + id + SEPARATOR + (value != null ? PRESENT + value : "");
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static KeysetCursor decode(String token) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(token), StandardCharsets.UTF_8);
+            String[] parts = raw.split(SEPARATOR, 4);
+            if (parts.length != 4) {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            String value;
+            if (parts[3].isEmpty()) {
+                value = null;
+            } else if (parts[3].startsWith(PRESENT)) {
+                value = parts[3].substring(PRESENT.length());
+            } else {
+                throw new IllegalArgumentException("Invalid cursor");
+            }
+            return new KeysetCursor(parts[0], Sort.Direction.valueOf(parts[1]), value, Long.valueOf(parts[2]));
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor", e);
+        }
+    }
+}
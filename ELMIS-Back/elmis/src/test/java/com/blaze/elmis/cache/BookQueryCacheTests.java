@@ -0,0 +1,86 @@
+package com.blaze.elmis.cache;
+
+import com.blaze.elmis.dto.BookDto;
+import com.blaze.elmis.search.BookDocument;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageImpl;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+class BookQueryCacheTests {
+
+    private final BookQueryCache cache = new BookQueryCache(new SimpleMeterRegistry(), 100, Duration.ofMinutes(10));
+    private final AtomicInteger loads = new AtomicInteger();
+
+    @Test
+    void stockChangeOnlyEvictsPagesShowingTheBookOrSortedByStock() {
+        BookQueryKey showing = key(PageRequest.of(0, 2), null);
+        BookQueryKey notShowing = key(PageRequest.of(1, 2), null);
+        BookQueryKey byStock = key(PageRequest.of(1, 2, Sort.by("availableQuantity")), null);
+        BookQueryKey otherCategory = key(PageRequest.of(0, 2, Sort.by("availableQuantity")), 9L);
+        load(showing, 1L, 2L);
+        load(notShowing, 3L, 4L);
+        load(byStock, 3L, 4L);
+        load(otherCategory, 5L, 6L);
+
+        BookDocument before = document(1L, "The Hobbit", 3);
+        cache.put(before, before.toBuilder().availableQuantity(2).build());
+
+        loads.set(0);
+        load(showing, 1L, 2L);
+        load(notShowing, 3L, 4L);
+        load(byStock, 3L, 4L);
+        load(otherCategory, 5L, 6L);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void textChangeEvictsEveryPageTheBookCouldMatch() {
+        BookQueryKey unfiltered = key(PageRequest.of(1, 2), null);
+        BookQueryKey otherCategory = key(PageRequest.of(0, 2), 9L);
+        load(unfiltered, 3L, 4L);
+        load(otherCategory, 5L, 6L);
+
+        BookDocument before = document(1L, "The Hobbit", 3);
+        cache.put(before, before.toBuilder().title("The Hobbit, or There and Back Again").build());
+
+        loads.set(0);
+        load(unfiltered, 3L, 4L);
+        load(otherCategory, 5L, 6L);
+        assertEquals(1, loads.get());
+    }
+
+    private void load(BookQueryKey key, Long... ids) {
+        cache.get(key, () -> {
+            loads.incrementAndGet();
+            return page(ids);
+        });
+    }
+
+    private static BookQueryKey key(PageRequest pageable, Long categoryId) {
+        return BookQueryKey.of(pageable, null, null, null, null, categoryId, null, false);
+    }
+
+    private static Page<BookDto> page(Long... ids) {
+        return new PageImpl<>(Arrays.stream(ids).map(id -> BookDto.builder().id(id).build()).collect(Collectors.toList()));
+    }
+
+    private static BookDocument document(Long id, String title, int available) {
+        return BookDocument.builder()
+                .id(id)
+                .title(title)
+                .categoryId(1L)
+                .quantity(5)
+                .availableQuantity(available)
+                .build();
+    }
+}
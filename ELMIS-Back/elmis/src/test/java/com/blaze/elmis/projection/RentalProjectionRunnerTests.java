@@ -0,0 +1,115 @@
+package com.blaze.elmis.projection;
+
+import com.blaze.elmis.model.RentalEvent;
+import com.blaze.elmis.model.RentalEventType;
+import com.blaze.elmis.repository.ProjectionCheckpointRepository;
+import com.blaze.elmis.repository.RentalEventRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.List;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class RentalProjectionRunnerTests {
+
+    // Committed rows of rental_events by seq
+    private final TreeMap<Long, RentalEvent> log = new TreeMap<>();
+    private final List<Long> applied = new ArrayList<>();
+    private long checkpoint;
+
+    private RentalEventRepository eventRepository;
+    private ProjectionCheckpointRepository checkpointRepository;
+    private TransactionTemplate transactionTemplate;
+    private RentalProjector projector;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        eventRepository = mock(RentalEventRepository.class);
+        when(eventRepository.findAfter(anyLong(), anyInt())).thenAnswer(call -> log.tailMap(call.<Long>getArgument(0), false)
+                .values().stream().limit(call.<Integer>getArgument(1)).collect(Collectors.toList()));
+        when(eventRepository.findBySeqs(any())).thenAnswer(call -> call.<Collection<Long>>getArgument(0).stream()
+                .filter(log::containsKey).sorted().map(log::get).collect(Collectors.toList()));
+
+        checkpointRepository = mock(ProjectionCheckpointRepository.class);
+        when(checkpointRepository.lock(anyString())).thenAnswer(call -> checkpoint);
+        doAnswer(call -> checkpoint = call.<Long>getArgument(1)).when(checkpointRepository).save(anyString(), anyLong());
+
+        transactionTemplate = mock(TransactionTemplate.class);
+        when(transactionTemplate.execute(any())).thenAnswer(call -> call.<TransactionCallback<Object>>getArgument(0).doInTransaction(null));
+
+        projector = mock(RentalProjector.class);
+        when(projector.name()).thenReturn("test");
+        doAnswer(call -> {
+            call.<List<RentalEvent>>getArgument(0).forEach(event -> applied.add(event.getSeq()));
+            return null;
+        }).when(projector).apply(any());
+    }
+
+    @Test
+    void gapIsTimedFromWhenItWasSeenNotFromTheEventTime() {
+        // Stamped a day ago by a transaction that is only now committing; seq 1 is still open
+        append(2L, LocalDateTime.now().minusDays(1));
+        RentalProjectionRunner runner = runner(Duration.ofHours(1));
+
+        runner.catchUp();
+
+        assertEquals(Collections.emptyList(), applied);
+        assertEquals(0L, checkpoint);
+    }
+
+    @Test
+    void jumpedEventIsAppliedWhenItCommitsLate() {
+        append(2L, LocalDateTime.now());
+        append(3L, LocalDateTime.now());
+        RentalProjectionRunner runner = runner(Duration.ZERO);
+
+        runner.catchUp();
+        assertEquals(Arrays.asList(2L, 3L), applied);
+        assertEquals(3L, checkpoint);
+
+        append(1L, LocalDateTime.now());
+        append(4L, LocalDateTime.now());
+        runner.catchUp();
+        assertEquals(Arrays.asList(2L, 3L, 1L, 4L), applied);
+        assertEquals(4L, checkpoint);
+
+        // Picked up once only
+        runner.catchUp();
+        assertEquals(4, applied.size());
+    }
+
+    private RentalProjectionRunner runner(Duration gapTimeout) {
+        return new RentalProjectionRunner(Collections.singletonList(projector), eventRepository, checkpointRepository,
+                transactionTemplate, true, 100, gapTimeout, Duration.ofHours(1));
+    }
+
+    private void append(long seq, LocalDateTime occurredAt) {
+        log.put(seq, RentalEvent.builder()
+                .seq(seq)
+                .type(RentalEventType.CHECKED_OUT)
+                .rentalId(seq)
+                .bookId(1L)
+                .userId(1L)
+                .occurredAt(occurredAt)
+                .build());
+    }
+}
@@ -0,0 +1,66 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.dto.BookFacetsDto;
+import com.blaze.elmis.dto.FacetValueDto;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+class BookFacetIndexTests {
+
+    private final BookFacetIndex index = new BookFacetIndex();
+
+    @Test
+    void labelsGoWithTheLastBookCarryingThem() {
+        BookDocument hobbit = book(1L, 7L, "Fantasy", "Allen & Unwin");
+        index.rebuild(Collections.singletonList(hobbit));
+        index.remove(hobbit);
+
+        // Same ids again, but the names are no longer known
+        index.put(null, book(2L, 7L, null, "allen  unwin"));
+        BookFacetsDto facets = facets();
+        assertNull(facets.getCategories().get(0).getLabel());
+        assertEquals("allen  unwin", facets.getPublishers().get(0).getLabel());
+    }
+
+    @Test
+    void rebuildForgetsLabelsOfValuesThatAreGone() {
+        index.rebuild(Arrays.asList(book(1L, 7L, "Fantasy", "Allen & Unwin"), book(2L, 8L, "History", "Penguin")));
+        index.rebuild(Collections.singletonList(book(3L, 8L, null, "Penguin")));
+        index.put(null, book(4L, 7L, null, null));
+
+        FacetValueDto fantasy = facets().getCategories().stream()
+                .filter(value -> value.getKey().equals("7"))
+                .findFirst()
+                .orElseThrow(IllegalStateException::new);
+        assertNull(fantasy.getLabel());
+    }
+
+    @Test
+    void renamedPublisherShowsTheNewSpelling() {
+        BookDocument before = book(1L, 7L, "Fantasy", "allen & unwin");
+        index.rebuild(Collections.singletonList(before));
+        index.put(before, before.toBuilder().publisher("Allen & Unwin").build());
+
+        assertEquals("Allen & Unwin", facets().getPublishers().get(0).getLabel());
+    }
+
+    private BookFacetsDto facets() {
+        return index.facets(index.filter(null, null, null, null));
+    }
+
+    private static BookDocument book(Long id, Long categoryId, String categoryName, String publisher) {
+        return BookDocument.builder()
+                .id(id)
+                .title("Book " + id)
+                .publisher(publisher)
+                .categoryId(categoryId)
+                .categoryName(categoryName)
+                .availableQuantity(1)
+                .build();
+    }
+}
@@ -0,0 +1,109 @@
+package com.blaze.elmis.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class BookSearchIndexTests {
+
+    private final BookSearchIndex index = new BookSearchIndex();
+
+    @BeforeEach
+    void setUp() {
+        index.rebuild(Arrays.asList(
+                book(1L, "The Hobbit", "J.R.R. Tolkien", "Allen & Unwin", "978-0-261-10221-7"),
+                book(2L, "The Silmarillion", "J.R.R. Tolkien", "Allen & Unwin", "978-0-261-10273-6"),
+                book(3L, "Java Concurrency in Practice", "Brian Goetz", "Addison-Wesley", "978-0-321-34960-6"),
+                book(4L, "Effective Java 2023", "Joshua Bloch", "Addison-Wesley", "2023-1111-11"),
+                book(5L, "Hobbit Cookbook", "Annie Gray", "Abrams", "978-1-4197-3124-3")));
+    }
+
+    @Test
+    void everyTokenMustMatchByPrefix() {
+        assertEquals(ids(1L, 2L), index.matchAnyField("tolk"));
+        assertEquals(ids(1L), index.matchAnyField("hobb tolk"));
+        assertEquals(ids(1L, 5L), index.matchAnyField("Hobbit"));
+        assertEquals(ids(3L), index.matchAnyField("jav conc"));
+        assertTrue(index.matchAnyField("hobbit goetz").isEmpty());
+    }
+
+    @Test
+    void tokensMatchTheStartOfAWordOnly() {
+        // Not a substring search: "kien" starts no word, "r" starts the J.R.R. initials
+        assertTrue(index.matchAnyField("kien").isEmpty());
+        assertTrue(index.match(BookSearchIndex.Field.TITLE, "obbit").isEmpty());
+        assertEquals(ids(1L, 2L), index.match(BookSearchIndex.Field.AUTHOR, "r tolk"));
+        assertEquals(ids(3L, 4L), index.matchAnyField("wesley"));
+    }
+
+    @Test
+    void tokensMayMatchDifferentFields() {
+        // "java" in the title, "addison" in the publisher
+        assertEquals(ids(3L, 4L), index.matchAnyField("java addison"));
+        assertEquals(ids(1L, 2L), index.matchAnyField("tolkien unwin"));
+    }
+
+    @Test
+    void fieldMatchOnlyLooksAtThatField() {
+        assertEquals(ids(1L, 2L), index.match(BookSearchIndex.Field.AUTHOR, "tolkien"));
+        assertTrue(index.match(BookSearchIndex.Field.TITLE, "tolkien").isEmpty());
+        assertEquals(ids(1L), index.match(BookSearchIndex.Field.ISBN, "978-0-261-10221"));
+    }
+
+    @Test
+    void wholeIsbnQueryMatchesTheIsbn() {
+        assertEquals(ids(1L, 2L), index.matchAnyField("978-0-261"));
+        assertEquals(ids(3L), index.matchAnyField("9780321 34960"));
+    }
+
+    @Test
+    void digitsInsideATextQueryAreAndedLikeAnyToken() {
+        // Book 4's ISBN starts with 2023 too, but "java 2023" must not pull in unrelated ISBN hits
+        index.put(null, book(6L, "Gardening", "Someone", "Nobody", "2023-5555-55"));
+        assertEquals(ids(4L), index.matchAnyField("java 2023"));
+        assertEquals(ids(4L, 6L), index.matchAnyField("2023"));
+        assertFalse(BookSearchIndex.isIsbnQuery("java 2023"));
+        assertTrue(BookSearchIndex.isIsbnQuery("978-0-261-1022-X"));
+    }
+
+    @Test
+    void reindexRemovesOldTokens() {
+        BookDocument before = book(1L, "The Hobbit", "J.R.R. Tolkien", "Allen & Unwin", "978-0-261-10221-7");
+        BookDocument after = book(1L, "There and Back Again", "J.R.R. Tolkien", "HarperCollins", "978-0-261-10221-7");
+        index.put(before, after);
+
+        assertEquals(ids(5L), index.matchAnyField("hobbit"));
+        assertEquals(ids(1L), index.matchAnyField("back again"));
+        assertEquals(ids(2L), index.matchAnyField("unwin"));
+        assertEquals(ids(1L, 2L), index.match(BookSearchIndex.Field.AUTHOR, "tolkien"));
+
+        index.remove(after);
+        assertTrue(index.matchAnyField("back").isEmpty());
+        assertEquals(ids(2L), index.matchAnyField("tolkien"));
+        assertEquals(Collections.emptySet(), index.match(BookSearchIndex.Field.ISBN, "9780261102217"));
+    }
+
+    private static Set<Long> ids(Long... ids) {
+        return new HashSet<>(Arrays.asList(ids));
+    }
+
+    static BookDocument book(Long id, String title, String author, String publisher, String isbn) {
+        return BookDocument.builder()
+                .id(id)
+                .title(title)
+                .author(author)
+                .publisher(publisher)
+                .isbn(isbn)
+                .categoryId(1L)
+                .subcategoryId(1L)
+                .build();
+    }
+}
@@ -0,0 +1,120 @@
+package com.blaze.elmis.search;
+
+import com.blaze.elmis.dto.BookSuggestionDto;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
+
+import static com.blaze.elmis.search.BookSearchIndexTests.book;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class SuggestionTrieTests {
+
+    private final SuggestionTrie trie = new SuggestionTrie();
+
+    private final BookDocument potter = reviewed(book(1L, "Harry Potter", "J.K. Rowling", "Bloomsbury", "1"), 10);
+    private final BookDocument game = reviewed(book(2L, "Harry's Game", "Gerald Seymour", "Collins", "2"), 2);
+    private final BookDocument hardTimes = reviewed(book(3L, "Hard Times", "Charles Dickens", "Chapman", "3"), 5);
+    private final BookDocument tellNoOne = reviewed(book(4L, "Tell No One", "Harlan Coben", "Delacorte", "4"), 0);
+
+    @BeforeEach
+    void setUp() {
+        trie.rebuild(Arrays.asList(potter, game, hardTimes, tellNoOne));
+    }
+
+    @Test
+    void completionsComeMostPopularFirst() {
+        List<BookSuggestionDto> suggestions = trie.suggest("har", 10);
+
+        assertEquals(Arrays.asList("Harry Potter", "Hard Times", "Harry's Game", "Harlan Coben"), texts(suggestions));
+        assertEquals(Arrays.asList(11L, 6L, 3L, 1L),
+                suggestions.stream().map(BookSuggestionDto::getWeight).collect(Collectors.toList()));
+        assertEquals("AUTHOR", suggestions.get(3).getType());
+        assertEquals(Arrays.asList("Harry Potter", "Hard Times"), texts(trie.suggest("HÁR", 2)));
+    }
+
+    @Test
+    void popularityUpdatesReorderCompletions() {
+        trie.put(hardTimes, reviewed(hardTimes, 20));
+        assertEquals(Arrays.asList("Hard Times", "Harry Potter"), texts(trie.suggest("har", 2)));
+
+        trie.put(potter, reviewed(potter, 0));
+        assertEquals(Arrays.asList("Hard Times", "Harry's Game"), texts(trie.suggest("har", 2)));
+        assertEquals(1L, trie.suggest("harry p", 1).get(0).getWeight());
+    }
+
+    @Test
+    void booksSharingAnEntryAddUp() {
+        trie.put(null, reviewed(book(5L, "Great Expectations", "Charles Dickens", "Chapman", "5"), 3));
+
+        BookSuggestionDto dickens = trie.suggest("charles", 1).get(0);
+        assertEquals("Charles Dickens", dickens.getText());
+        assertEquals(10L, dickens.getWeight());
+        assertEquals("AUTHOR", dickens.getType());
+        // "Chapman" is now the publisher of both books
+        assertEquals(10L, trie.suggest("chap", 1).get(0).getWeight());
+    }
+
+    @Test
+    void removedBooksDisappearFromCompletions() {
+        trie.remove(potter);
+
+        assertTrue(trie.suggest("harry p", 5).isEmpty());
+        assertTrue(trie.suggest("rowling", 5).isEmpty());
+        assertEquals(Arrays.asList("Hard Times", "Harry's Game", "Harlan Coben"), texts(trie.suggest("har", 10)));
+    }
+
+    @Test
+    void splitAndMergedEdgesMatchAPlainMapAfterRandomEdits() {
+        // Few letters so that keys share prefixes and edges split and re-join often
+        Random random = new Random(42);
+        SuggestionTrie fresh = new SuggestionTrie();
+        Map<Long, BookDocument> books = new HashMap<>();
+        for (int step = 0; step < 2000; step++) {
+            long id = random.nextInt(60);
+            BookDocument previous = books.get(id);
+            if (previous != null && random.nextInt(3) == 0) {
+                fresh.remove(previous);
+                books.remove(id);
+            } else {
+                StringBuilder title = new StringBuilder();
+                for (int length = 1 + random.nextInt(6); length > 0; length--) {
+                    title.append("abc".charAt(random.nextInt(3)));
+                }
+                BookDocument current = reviewed(book(id, title.toString(), null, null, null), random.nextInt(4));
+                fresh.put(previous, current);
+                books.put(id, current);
+            }
+
+            if (step % 50 == 0) {
+                for (String prefix : Arrays.asList("a", "ab", "abc", "b", "ba", "cab", "cc")) {
+                    Map<String, Long> expected = new TreeMap<>();
+                    for (BookDocument document : books.values()) {
+                        if (document.getTitle().startsWith(prefix)) {
+                            expected.merge(document.getTitle(), 1L + document.getTotalReviews(), Long::sum);
+                        }
+                    }
+                    Map<String, Long> actual = new TreeMap<>();
+                    fresh.suggest(prefix, 1000).forEach(suggestion -> actual.put(suggestion.getText(), suggestion.getWeight()));
+                    assertEquals(expected, actual, "prefix " + prefix + " at step " + step);
+                }
+            }
+        }
+    }
+
+    private static BookDocument reviewed(BookDocument document, int reviews) {
+        return document.toBuilder().totalReviews(reviews).build();
+    }
+
+    private static List<String> texts(List<BookSuggestionDto> suggestions) {
+        return suggestions.stream().map(BookSuggestionDto::getText).collect(Collectors.toList());
+    }
+}
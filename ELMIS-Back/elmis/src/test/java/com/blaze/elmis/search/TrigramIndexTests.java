@@ -0,0 +1,85 @@
+package com.blaze.elmis.search;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+import static com.blaze.elmis.search.BookSearchIndexTests.book;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class TrigramIndexTests {
+
+    private final TrigramIndex index = new TrigramIndex();
+
+    @BeforeEach
+    void setUp() {
+        ReflectionTestUtils.setField(index, "minSimilarity", 0.4);
+        index.rebuild(Arrays.asList(
+                book(1L, "The Hobbit", "J.R.R. Tolkien", "Allen & Unwin", "1"),
+                book(2L, "Dune", "Frank Herbert", "Chilton", "2"),
+                book(3L, "Hobbit Cookbook", "Annie Gray", "Abrams", "3"),
+                book(4L, "Tolkien: A Biography", "Humphrey Carpenter", "Allen & Unwin", "4")));
+    }
+
+    @Test
+    void misspelledQueryAboveThresholdMatches() {
+        // "tolkein" shares 4 of its 8 trigrams with "tolkien": score 0.5
+        List<TrigramIndex.Match> matches = index.search("tolkein", 10);
+
+        assertEquals(Arrays.asList(1L, 4L), bookIds(matches).stream().sorted().collect(Collectors.toList()));
+        assertEquals(0.5, matches.get(0).getScore(), 1e-9);
+    }
+
+    @Test
+    void similarityBelowThresholdIsDropped() {
+        // "tlkn" shares only the leading "  t" with "tolkien": score 0.2
+        assertTrue(index.search("tlkn", 10).isEmpty());
+
+        ReflectionTestUtils.setField(index, "minSimilarity", 0.6);
+        assertTrue(index.search("tolkein", 10).isEmpty());
+        assertEquals(Arrays.asList(2L), bookIds(index.search("dune", 10)));
+    }
+
+    @Test
+    void closerMatchesRankFirstAndLimitKeepsTheBest() {
+        List<TrigramIndex.Match> matches = index.search("hobbit", 10);
+        assertEquals(2, matches.size());
+        // Both titles contain every query trigram; the shorter title has the higher Jaccard
+        assertEquals(1L, matches.get(0).getBookId());
+        assertEquals(1.0, matches.get(0).getScore(), 1e-9);
+        assertTrue(matches.get(0).getJaccard() > matches.get(1).getJaccard());
+
+        assertEquals(Arrays.asList(1L), bookIds(index.search("hobbit", 1)));
+    }
+
+    @Test
+    void limitCountsOnlyBooksPassingTheFilter() {
+        // Book 1 is the best "hobbit" match overall, but outside the filter it must not use up the limit
+        assertEquals(Arrays.asList(3L), bookIds(index.search("hobbit", 1, bookId -> bookId != 1L)));
+        assertTrue(index.search("hobbit", 1, bookId -> false).isEmpty());
+    }
+
+    @Test
+    void reindexReplacesOldGrams() {
+        index.put(book(2L, "Dune", "Frank Herbert", "Chilton", "2"), book(2L, "Children of Dune", "Frank Herbert", "Putnam", "2"));
+        assertEquals(Arrays.asList(2L), bookIds(index.search("children", 10)));
+
+        index.remove(book(2L, "Children of Dune", "Frank Herbert", "Putnam", "2"));
+        assertTrue(index.search("dune", 10).isEmpty());
+        assertTrue(index.search("herbert", 10).isEmpty());
+
+        // A freed ordinal is reused without leaking the previous book's grams
+        index.put(null, book(5L, "Neuromancer", "William Gibson", "Ace", "5"));
+        assertEquals(Arrays.asList(5L), bookIds(index.search("neuromancer", 10)));
+        assertTrue(index.search("herbert", 10).isEmpty());
+    }
+
+    private static List<Long> bookIds(List<TrigramIndex.Match> matches) {
+        return matches.stream().map(TrigramIndex.Match::getBookId).collect(Collectors.toList());
+    }
+}
@@ -0,0 +1,139 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.HolidayRepository;
+import org.junit.jupiter.api.Test;
+
+import java.time.DayOfWeek;
+import java.time.LocalDate;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Random;
+import java.util.Set;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class BusinessCalendarTests {
+
+    private static final int PAST_DAYS = 30;
+    private static final int FUTURE_DAYS = 60;
+
+    private final LocalDate today = LocalDate.now();
+
+    @Test
+    void holidayOnAWeekendChangesNothing() {
+        LocalDate saturday = today.with(TemporalAdjusters.next(DayOfWeek.SATURDAY));
+        BusinessCalendar withHoliday = calendar(Collections.singletonList(saturday));
+        BusinessCalendar without = calendar(Collections.emptyList());
+
+        assertFalse(withHoliday.isOpen(saturday));
+        LocalDate friday = saturday.minusDays(1);
+        assertEquals(saturday.plusDays(2), withHoliday.addOpenDays(friday, 1));
+        for (int n = 0; n < 20; n++) {
+            assertEquals(without.addOpenDays(today, n), withHoliday.addOpenDays(today, n));
+        }
+
+        // Removing it again must not reopen the weekend day
+        withHoliday.holidayRemoved(saturday);
+        assertFalse(withHoliday.isOpen(saturday));
+        assertEquals(saturday.plusDays(2), withHoliday.addOpenDays(friday, 1));
+    }
+
+    @Test
+    void dueDateSpanningTheWindowEdgeMatchesWalkingDayByDay() {
+        LocalDate lastInWindow = today.minusDays(PAST_DAYS).plusDays(PAST_DAYS + FUTURE_DAYS - 1);
+        List<LocalDate> holidays = new ArrayList<>();
+        holidays.add(lastInWindow.minusDays(1));
+        holidays.add(lastInWindow.plusDays(3));
+        holidays.add(today.minusDays(PAST_DAYS + 2));
+        BusinessCalendar calendar = calendar(holidays);
+        Set<LocalDate> holidaySet = new HashSet<>(holidays);
+
+        for (LocalDate from = lastInWindow.minusDays(10); from.isBefore(lastInWindow.plusDays(5)); from = from.plusDays(1)) {
+            for (int n = 0; n <= 15; n++) {
+                assertEquals(walk(from, n, holidaySet), calendar.addOpenDays(from, n), from + " + " + n);
+            }
+        }
+        LocalDate beforeWindow = today.minusDays(PAST_DAYS + 5);
+        for (int n = 0; n <= 15; n++) {
+            assertEquals(walk(beforeWindow, n, holidaySet), calendar.addOpenDays(beforeWindow, n));
+        }
+        assertEquals(countOpen(lastInWindow.minusDays(20), lastInWindow.plusDays(20), holidaySet),
+                calendar.openDaysBetween(lastInWindow.minusDays(20), lastInWindow.plusDays(20)));
+    }
+
+    @Test
+    void incrementalHolidayChangesMatchAFullRebuild() {
+        Random random = new Random(7);
+        BusinessCalendar incremental = calendar(Collections.emptyList());
+        List<LocalDate> holidays = new ArrayList<>();
+        for (int i = 0; i < 200; i++) {
+            LocalDate date = today.minusDays(PAST_DAYS + 5).plusDays(random.nextInt(PAST_DAYS + FUTURE_DAYS + 10));
+            if (!holidays.isEmpty() && random.nextInt(3) == 0) {
+                LocalDate removed = holidays.remove(random.nextInt(holidays.size()));
+                incremental.holidayRemoved(removed);
+            } else {
+                holidays.add(date); // duplicates count: the day stays closed until every copy is removed
+                incremental.holidayAdded(date);
+            }
+        }
+        BusinessCalendar rebuilt = calendar(holidays);
+
+        for (LocalDate day = today.minusDays(PAST_DAYS + 5); day.isBefore(today.plusDays(FUTURE_DAYS + 5)); day = day.plusDays(1)) {
+            assertEquals(rebuilt.isOpen(day), incremental.isOpen(day), day.toString());
+            for (int n : new int[]{1, 5, 14}) {
+                assertEquals(rebuilt.addOpenDays(day, n), incremental.addOpenDays(day, n), day + " + " + n);
+            }
+            assertEquals(rebuilt.openDaysBetween(today, day), incremental.openDaysBetween(today, day), day.toString());
+        }
+    }
+
+    @Test
+    void zeroOpenDaysKeepsTheStartDate() {
+        LocalDate sunday = today.with(TemporalAdjusters.next(DayOfWeek.SUNDAY));
+        BusinessCalendar calendar = calendar(Collections.emptyList());
+
+        assertEquals(sunday, calendar.addOpenDays(sunday, 0));
+        assertTrue(calendar.isOpen(sunday.plusDays(1)));
+    }
+
+    private BusinessCalendar calendar(List<LocalDate> holidays) {
+        HolidayRepository repository = mock(HolidayRepository.class);
+        when(repository.findAllDates()).thenReturn(new ArrayList<>(holidays));
+        BusinessCalendar calendar = new BusinessCalendar(repository, "SATURDAY,SUNDAY", PAST_DAYS, FUTURE_DAYS);
+        calendar.reload();
+        return calendar;
+    }
+
+    private static boolean open(LocalDate day, Set<LocalDate> holidays) {
+        DayOfWeek dayOfWeek = day.getDayOfWeek();
+        return dayOfWeek != DayOfWeek.SATURDAY && dayOfWeek != DayOfWeek.SUNDAY && !holidays.contains(day);
+    }
+
+    private static LocalDate walk(LocalDate from, int n, Set<LocalDate> holidays) {
+        LocalDate day = from;
+        for (int found = 0; found < n; ) {
+            day = day.plusDays(1);
+            if (open(day, holidays)) {
+                found++;
+            }
+        }
+        return day;
+    }
+
+    private static int countOpen(LocalDate from, LocalDate to, Set<LocalDate> holidays) {
+        int open = 0;
+        for (LocalDate day = from.plusDays(1); !day.isAfter(to); day = day.plusDays(1)) {
+            if (open(day, holidays)) {
+                open++;
+            }
+        }
+        return open;
+    }
+}
@@ -0,0 +1,135 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.BookReviewDto;
+import com.blaze.elmis.model.Book;
+import com.blaze.elmis.model.Category;
+import com.blaze.elmis.model.Role;
+import com.blaze.elmis.model.Subcategory;
+import com.blaze.elmis.model.User;
+import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.repository.BookReviewRepository;
+import com.blaze.elmis.repository.CategoryRepository;
+import com.blaze.elmis.repository.SubcategoryRepository;
+import com.blaze.elmis.repository.UserRepository;
+import com.github.benmanes.caffeine.cache.Cache;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.UUID;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+@SpringBootTest
+class IdempotencyServiceTests {
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+    @Autowired
+    private BookReviewService bookReviewService;
+    @Autowired
+    private BookReviewRepository bookReviewRepository;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private Category category;
+    private Subcategory subcategory;
+    private Book book;
+    private User user;
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("idempotency-" + suffix);
+        category = categoryRepository.save(category);
+
+        subcategory = new Subcategory();
+        subcategory.setName("idempotency-" + suffix);
+        subcategory.setCategory(category);
+        subcategory = subcategoryRepository.save(subcategory);
+
+        book = bookRepository.save(Book.builder()
+                .title("Idempotency " + suffix)
+                .author("Replay Test")
+                .isbn("TEST-" + suffix)
+                .quantity(1)
+                .availableQuantity(1)
+                .category(category)
+                .subcategory(subcategory)
+                .avgRating(0.0)
+                .totalReviews(0)
+                .build());
+
+        user = userRepository.save(User.builder()
+                .username("idempotency-" + suffix)
+                .password("not-used")
+                .email("idempotency-" + suffix + "@example.com")
+                .role(Role.OPERATOR)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        bookReviewRepository.findByBookIdAndUserId(book.getId(), user.getId()).ifPresent(bookReviewRepository::delete);
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteById(user.getId());
+        subcategoryRepository.deleteById(subcategory.getId());
+        categoryRepository.deleteById(category.getId());
+    }
+
+    @Test
+    void replayAfterCacheEvictionReturnsStoredResponseWithoutRunningAgain() {
+        BookReviewDto request = BookReviewDto.builder()
+                .bookId(book.getId())
+                .userId(user.getId())
+                .rating(5)
+                .comment("Replayed")
+                .build();
+        String key = "replay-" + suffix;
+        AtomicInteger runs = new AtomicInteger();
+
+        BookReviewDto first = idempotencyService.execute("review", key, request, BookReviewDto.class, () -> {
+            runs.incrementAndGet();
+            return bookReviewService.createBookReview(request);
+        });
+        // Same as a restart, an evicted key or another instance: only the table remembers the key
+        forgetRecentKeys();
+        BookReviewDto replayed = idempotencyService.execute("review", key, request, BookReviewDto.class, () -> {
+            runs.incrementAndGet();
+            return bookReviewService.createBookReview(request);
+        });
+
+        assertEquals(1, runs.get());
+        assertEquals(first.getId(), replayed.getId());
+        assertEquals(first.getComment(), replayed.getComment());
+    }
+
+    @Test
+    void keyReusedForDifferentRequestIsRejected() {
+        BookReviewDto request = BookReviewDto.builder().bookId(book.getId()).userId(user.getId()).rating(4).build();
+        String key = "reuse-" + suffix;
+        idempotencyService.execute("review", key, request, BookReviewDto.class, () -> bookReviewService.createBookReview(request));
+        forgetRecentKeys();
+
+        BookReviewDto other = BookReviewDto.builder().bookId(book.getId()).userId(user.getId()).rating(1).build();
+        assertThrows(IllegalArgumentException.class, () -> idempotencyService.execute("review", key, other,
+                BookReviewDto.class, () -> bookReviewService.createBookReview(other)));
+    }
+
+    @SuppressWarnings("unchecked")
+    private void forgetRecentKeys() {
+        ((Cache<String, ?>) ReflectionTestUtils.getField(idempotencyService, "recent")).invalidateAll();
+    }
+}
@@ -0,0 +1,71 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.repository.BookInventoryRepository;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.Map;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class InventoryServiceTests {
+
+    private static final Long BOOK_ID = 1L;
+
+    // Stands in for books.available_quantity
+    private final Map<Long, Integer> rows = new HashMap<>();
+    private InventoryService inventory;
+
+    @BeforeEach
+    void setUp() {
+        BookInventoryRepository repository = mock(BookInventoryRepository.class);
+        when(repository.findAvailableQuantity(anyLong())).thenAnswer(call -> rows.get(call.<Long>getArgument(0)));
+        doAnswer(call -> {
+            Map<Long, Integer> deltas = call.getArgument(0);
+            deltas.forEach((bookId, delta) -> rows.merge(bookId, delta, Integer::sum));
+            return null;
+        }).when(repository).applyDeltas(any());
+        inventory = new InventoryService(repository, true);
+        rows.put(BOOK_ID, 5);
+    }
+
+    @Test
+    void editSavingTheLiveCountWhileDeltasArePendingKeepsIt() {
+        assertTrue(inventory.tryReserve(BOOK_ID));
+        assertTrue(inventory.tryReserve(BOOK_ID));
+        int shown = inventory.currentAvailable(BOOK_ID);
+        assertEquals(3, shown);
+        assertEquals(5, rows.get(BOOK_ID));
+
+        // BookService.updateBook: flush the book, write the submitted count, reload
+        inventory.flush(BOOK_ID);
+        rows.put(BOOK_ID, shown);
+        inventory.reload(BOOK_ID);
+        inventory.flush();
+
+        assertEquals(3, inventory.currentAvailable(BOOK_ID));
+        assertEquals(3, rows.get(BOOK_ID));
+    }
+
+    @Test
+    void checkoutDuringTheEditStaysOnTopOfTheSavedCount() {
+        assertTrue(inventory.tryReserve(BOOK_ID));
+        inventory.flush(BOOK_ID);
+
+        // A copy goes out after the flush but before the admin's write lands
+        assertTrue(inventory.tryReserve(BOOK_ID));
+        rows.put(BOOK_ID, 10);
+        inventory.reload(BOOK_ID);
+        inventory.flush();
+
+        assertEquals(9, inventory.currentAvailable(BOOK_ID));
+        assertEquals(9, rows.get(BOOK_ID));
+    }
+}
@@ -0,0 +1,136 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.model.RentalRule;
+import com.blaze.elmis.repository.RentalRuleRepository;
+import org.junit.jupiter.api.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+
+import static org.junit.jupiter.api.Assertions.assertDoesNotThrow;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.verifyNoInteractions;
+import static org.mockito.Mockito.when;
+
+class RentalPolicyEngineTests {
+
+    private static final RentalPolicy DEFAULTS = RentalPolicy.builder()
+            .loanDays(14)
+            .maxActiveRentals(0)
+            .maxRenewals(2)
+            .renewalDays(14)
+            .build();
+
+    @Test
+    void withoutRulesTheDefaultsApply() {
+        assertEquals(DEFAULTS, RentalPolicyEngine.compile(Collections.<RentalRule>emptyList(), DEFAULTS));
+    }
+
+    @Test
+    void ruleNamesIgnoreCaseAndSeparators() {
+        RentalPolicy policy = RentalPolicyEngine.compile(Arrays.asList(
+                rule("LOAN_DAYS", "21"),
+                rule("Max Active Rentals", "5"),
+                rule("maxRenewals", "1"),
+                rule("renewal-days", "7")), DEFAULTS);
+
+        assertEquals(RentalPolicy.builder().loanDays(21).maxActiveRentals(5).maxRenewals(1).renewalDays(7).build(), policy);
+    }
+
+    @Test
+    void laterRulesOverrideEarlierOnes() {
+        RentalPolicy policy = RentalPolicyEngine.compile(Arrays.asList(
+                rule("max_active_rentals", "5"),
+                rule("maxActiveRentals", "3")), DEFAULTS);
+
+        assertEquals(3, policy.getMaxActiveRentals());
+    }
+
+    @Test
+    void invalidAndUnknownRulesAreIgnored() {
+        RentalPolicy policy = RentalPolicyEngine.compile(Arrays.asList(
+                rule("loan_days", "10"),
+                rule("loan_days", "ten"),
+                rule("loan_days", "-3"),
+                rule("loan_days", null),
+                rule("max_renewals", " 4 "),
+                rule("fine_per_day", "2")), DEFAULTS);
+
+        assertEquals(10, policy.getLoanDays());
+        assertEquals(4, policy.getMaxRenewals());
+        assertEquals(DEFAULTS.getRenewalDays(), policy.getRenewalDays());
+    }
+
+    @Test
+    void loanAndRenewalDaysAreAtLeastOne() {
+        RentalPolicy policy = RentalPolicyEngine.compile(Arrays.asList(
+                rule("loan_days", "0"),
+                rule("renewal_days", "0"),
+                rule("max_renewals", "0")), DEFAULTS);
+
+        assertEquals(1, policy.getLoanDays());
+        assertEquals(1, policy.getRenewalDays());
+        assertEquals(0, policy.getMaxRenewals());
+    }
+
+    @Test
+    void engineRecompilesWhenRulesChange() {
+        RentalRuleRepository repository = mock(RentalRuleRepository.class);
+        when(repository.findAll()).thenReturn(Collections.singletonList(rule("max_renewals", "1")));
+        RentalPolicyEngine engine = engine(repository, mock(ActiveRentalCounter.class));
+
+        assertEquals(1, engine.current().getMaxRenewals());
+        assertDoesNotThrow(() -> engine.checkRenewal(0));
+        assertThrows(RuntimeException.class, () -> engine.checkRenewal(1));
+
+        when(repository.findAll()).thenReturn(Collections.singletonList(rule("max_renewals", "3")));
+        engine.rulesChanged(); // no transaction, so it reloads right away
+        assertEquals(3, engine.current().getMaxRenewals());
+        assertDoesNotThrow(() -> engine.checkRenewal(2));
+    }
+
+    @Test
+    void checkOutUsesTheCompiledLimit() {
+        RentalRuleRepository repository = mock(RentalRuleRepository.class);
+        when(repository.findAll()).thenReturn(Collections.singletonList(rule("max_active_rentals", "2")));
+        ActiveRentalCounter counter = mock(ActiveRentalCounter.class);
+        when(counter.tryAcquire(anyLong(), anyInt(), eq(2))).thenReturn(true, false);
+        RentalPolicyEngine engine = engine(repository, counter);
+
+        assertDoesNotThrow(() -> engine.checkOut(1L, 1));
+        RuntimeException rejected = assertThrows(RuntimeException.class, () -> engine.checkOut(1L, 2));
+        assertEquals("User has reached the limit of 2 active rentals", rejected.getMessage());
+    }
+
+    @Test
+    void withoutALimitCheckoutsAreNotCounted() {
+        RentalRuleRepository repository = mock(RentalRuleRepository.class);
+        when(repository.findAll()).thenReturn(Collections.<RentalRule>emptyList());
+        ActiveRentalCounter counter = mock(ActiveRentalCounter.class);
+        RentalPolicyEngine engine = engine(repository, counter);
+
+        engine.checkOut(1L, 3);
+        engine.returned(1L, 1);
+        verifyNoInteractions(counter);
+
+        // Turning a limit on starts the counts over from the table
+        when(repository.findAll()).thenReturn(Collections.singletonList(rule("max_active_rentals", "2")));
+        engine.reload();
+        verify(counter).clear();
+    }
+
+    private static RentalPolicyEngine engine(RentalRuleRepository repository, ActiveRentalCounter counter) {
+        return new RentalPolicyEngine(repository, counter, DEFAULTS.getLoanDays(), DEFAULTS.getMaxActiveRentals(),
+                DEFAULTS.getMaxRenewals(), DEFAULTS.getRenewalDays());
+    }
+
+    private static RentalRule rule(String name, String value) {
+        return RentalRule.builder().ruleName(name).ruleValue(value).build();
+    }
+}
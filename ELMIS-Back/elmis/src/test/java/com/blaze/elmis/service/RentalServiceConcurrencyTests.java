@@ -0,0 +1,171 @@
+package com.blaze.elmis.service;
+
+import com.blaze.elmis.dto.RentalDto;
+import com.blaze.elmis.model.Book;
+import com.blaze.elmis.model.Category;
+import com.blaze.elmis.model.Role;
+import com.blaze.elmis.model.Subcategory;
+import com.blaze.elmis.model.User;
+import com.blaze.elmis.repository.BookRepository;
+import com.blaze.elmis.repository.CategoryRepository;
+import com.blaze.elmis.repository.RentalRepository;
+import com.blaze.elmis.repository.SubcategoryRepository;
+import com.blaze.elmis.repository.UserRepository;
+import lombok.extern.slf4j.Slf4j;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+@Slf4j
+@SpringBootTest
+class RentalServiceConcurrencyTests {
+
+    private static final int THREADS = 64;
+    private static final int COPIES = 10;
+
+    @Autowired
+    private RentalService rentalService;
+    @Autowired
+    private BookRepository bookRepository;
+    @Autowired
+    private CategoryRepository categoryRepository;
+    @Autowired
+    private SubcategoryRepository subcategoryRepository;
+    @Autowired
+    private UserRepository userRepository;
+    @Autowired
+    private RentalRepository rentalRepository;
+
+    private final String suffix = UUID.randomUUID().toString().substring(0, 8);
+    private Category category;
+    private Subcategory subcategory;
+    private Book book;
+    private User user;
+    private final Set<Long> rentalIds = ConcurrentHashMap.newKeySet();
+
+    @BeforeEach
+    void setUp() {
+        category = new Category();
+        category.setName("concurrency-" + suffix);
+        category = categoryRepository.save(category);
+
+        subcategory = new Subcategory();
+        subcategory.setName("concurrency-" + suffix);
+        subcategory.setCategory(category);
+        subcategory = subcategoryRepository.save(subcategory);
+
+        book = bookRepository.save(Book.builder()
+                .title("Concurrency " + suffix)
+                .author("Stress Test")
+                .isbn("TEST-" + suffix)
+                .quantity(COPIES)
+                .availableQuantity(COPIES)
+                .category(category)
+                .subcategory(subcategory)
+                .avgRating(0.0)
+                .totalReviews(0)
+                .build());
+
+        user = userRepository.save(User.builder()
+                .username("concurrency-" + suffix)
+                .password("not-used")
+                .email("concurrency-" + suffix + "@example.com")
+                .role(Role.OPERATOR)
+                .build());
+    }
+
+    @AfterEach
+    void tearDown() {
+        rentalRepository.deleteAllById(rentalIds);
+        bookRepository.deleteById(book.getId());
+        userRepository.deleteById(user.getId());
+        subcategoryRepository.deleteById(subcategory.getId());
+        categoryRepository.deleteById(category.getId());
+    }
+
+    @Test
+    void concurrentCheckoutsNeverOversell() throws Exception {
+        AtomicInteger rejected = new AtomicInteger();
+        long elapsed = race(THREADS, () -> {
+            try {
+                RentalDto request = new RentalDto();
+                request.setBookId(book.getId());
+                request.setUserId(user.getId());
+                rentalIds.add(rentalService.createRental(request).getId());
+            } catch (RuntimeException e) {
+                rejected.incrementAndGet();
+            }
+        });
+        log.info("{} checkouts in {} ms ({} ops/s)", THREADS, elapsed, THREADS * 1000 / Math.max(1, elapsed));
+
+        assertEquals(COPIES, rentalIds.size());
+        assertEquals(THREADS - COPIES, rejected.get());
+        assertEquals(0, bookRepository.findById(book.getId()).orElseThrow().getAvailableQuantity());
+    }
+
+    @Test
+    void concurrentReturnsReleaseEachCopyOnce() throws Exception {
+        for (int i = 0; i < COPIES; i++) {
+            RentalDto request = new RentalDto();
+            request.setBookId(book.getId());
+            request.setUserId(user.getId());
+            rentalIds.add(rentalService.createRental(request).getId());
+        }
+        List<Long> ids = new ArrayList<>(rentalIds);
+        AtomicInteger returned = new AtomicInteger();
+        AtomicInteger next = new AtomicInteger();
+
+        // Every rental gets returned by several threads at once
+        race(THREADS, () -> {
+            Long id = ids.get(next.getAndIncrement() % ids.size());
+            try {
+                rentalService.returnRental(id);
+                returned.incrementAndGet();
+            } catch (RuntimeException ignored) {
+                // expected for the losing duplicates
+            }
+        });
+
+        assertEquals(COPIES, returned.get());
+        assertEquals(COPIES, bookRepository.findById(book.getId()).orElseThrow().getAvailableQuantity());
+    }
+
+    private long race(int threads, Runnable task) throws InterruptedException {
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(threads);
+        for (int i = 0; i < threads; i++) {
+            pool.execute(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        long begin = System.nanoTime();
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        pool.shutdown();
+        return TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - begin);
+    }
+}
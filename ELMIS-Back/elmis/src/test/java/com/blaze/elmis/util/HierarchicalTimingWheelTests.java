@@ -0,0 +1,102 @@
+package com.blaze.elmis.util;
+
+import com.blaze.elmis.util.HierarchicalTimingWheel.Timeout;
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Random;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+class HierarchicalTimingWheelTests {
+
+    @Test
+    void timerBeyondLevelZeroFiresOnItsTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        wheel.schedule("level1", 1_000);
+        wheel.schedule("level2", 70_000);
+
+        assertEquals(Collections.emptyList(), wheel.advance(999));
+        assertEquals(Collections.singletonList("level1"), wheel.advance(1_000));
+        assertEquals(Collections.emptyList(), wheel.advance(69_999));
+        assertEquals(Collections.singletonList("level2"), wheel.advance(70_000));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void timerCascadesDownWhenItsSlotComesRound() {
+        // Scheduled at tick 200 for tick 500: parked in level 1, moved to level 0 at tick 256
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 200);
+        wheel.schedule("a", 500);
+
+        assertEquals(Collections.emptyList(), wheel.advance(256));
+        assertEquals(1, wheel.size());
+        assertEquals(Collections.emptyList(), wheel.advance(499));
+        assertEquals(Collections.singletonList("a"), wheel.advance(500));
+    }
+
+    @Test
+    void everyTimerFiresExactlyOnItsTickAcrossRollovers() {
+        Random random = new Random(42);
+        HierarchicalTimingWheel<Integer> wheel = new HierarchicalTimingWheel<>(1, 65_000);
+        Map<Long, List<Integer>> expected = new HashMap<>();
+        for (int i = 0; i < 2_000; i++) {
+            long deadline = 65_001 + random.nextInt(140_000);
+            wheel.schedule(i, deadline);
+            expected.computeIfAbsent(deadline, tick -> new ArrayList<>()).add(i);
+        }
+        for (long tick = 65_001; tick <= 205_001; tick++) {
+            List<Integer> fired = wheel.advance(tick);
+            List<Integer> due = expected.getOrDefault(tick, Collections.emptyList());
+            Collections.sort(fired);
+            assertEquals(due, fired, "tick " + tick);
+        }
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void cancelledTimerNeverFires() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        Timeout<String> cancelled = wheel.schedule("cancelled", 300);
+        wheel.schedule("kept", 300);
+
+        assertTrue(wheel.cancel(cancelled));
+        assertFalse(wheel.cancel(cancelled));
+        assertEquals(1, wheel.size());
+        assertEquals(Collections.singletonList("kept"), wheel.advance(1_000));
+    }
+
+    @Test
+    void firedTimerCannotBeCancelled() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1, 0);
+        Timeout<String> timeout = wheel.schedule("a", 5);
+        wheel.advance(5);
+
+        assertFalse(wheel.cancel(timeout));
+        assertEquals(0, wheel.size());
+    }
+
+    @Test
+    void deadlineInThePastFiresOnNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 10_000);
+        wheel.schedule("late", 3_000);
+
+        assertEquals(Collections.emptyList(), wheel.advance(10_999));
+        assertEquals(Collections.singletonList("late"), wheel.advance(11_000));
+    }
+
+    @Test
+    void deadlineRoundsUpToTheNextTick() {
+        HierarchicalTimingWheel<String> wheel = new HierarchicalTimingWheel<>(1_000, 0);
+        wheel.schedule("a", 2_500);
+
+        assertEquals(Collections.emptyList(), wheel.advance(2_999));
+        assertEquals(Collections.singletonList("a"), wheel.advance(3_000));
+    }
+}
@@ -0,0 +1,43 @@
+package com.blaze.elmis.util;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.data.domain.Sort;
+
+import java.nio.charset.StandardCharsets;
+import java.util.Base64;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+class KeysetCursorTests {
+
+    @Test
+    void emptyValueAndMissingValueStayDistinct() {
+        KeysetCursor empty = roundTrip(new KeysetCursor("title", Sort.Direction.ASC, "", 7L));
+        KeysetCursor missing = roundTrip(new KeysetCursor("title", Sort.Direction.ASC, null, 7L));
+
+        assertEquals("", empty.getValue());
+        assertNull(missing.getValue());
+    }
+
+    @Test
+    void valueContainingTheSeparatorRoundTrips() {
+        KeysetCursor cursor = new KeysetCursor("author", Sort.Direction.DESC, "a\u001fb=c", 42L);
+
+        assertEquals(cursor, roundTrip(cursor));
+    }
+
+    @Test
+    void malformedTokenIsRejected() {
+        String token = Base64.getUrlEncoder().withoutPadding()
+                .encodeToString("title\u001fASC\u001f7\u001fno-marker".getBytes(StandardCharsets.UTF_8));
+
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode(token));
+        assertThrows(IllegalArgumentException.class, () -> KeysetCursor.decode("not base64!"));
+    }
+
+    private static KeysetCursor roundTrip(KeysetCursor cursor) {
+        return KeysetCursor.decode(cursor.encode());
+    }
+}